@@ -0,0 +1,78 @@
+package com.accesodatos.springbootjdbctemplate.benchmark;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.accesodatos.springbootjdbctemplate.controller.ActorController;
+
+/**
+ * Measures full {@link ActorController} round trips through MockMvc: request
+ * mapping, the service and repository layers against embedded H2, and JSON
+ * serialization of the response, without the network.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ActorControllerBenchmark {
+
+	ConfigurableApplicationContext context;
+
+	MockMvc mockMvc;
+
+	@Setup
+	public void setUp() {
+		context = BenchmarkContexts.start(WebApplicationType.SERVLET, "--server.port=0");
+		mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public String getAllActors() throws Exception {
+		return mockMvc.perform(get("/api/v2/actors")).andReturn().getResponse().getContentAsString();
+	}
+
+	@Benchmark
+	public String getActorsPage() throws Exception {
+		return mockMvc.perform(get("/api/v2/actors").param("limit", "5"))
+				.andReturn().getResponse().getContentAsString();
+	}
+
+	@Benchmark
+	public String getActorById() throws Exception {
+		int actor_id = ThreadLocalRandom.current().nextInt(1, 11);
+		return mockMvc.perform(get("/api/v2/actors/" + actor_id)).andReturn().getResponse().getContentAsString();
+	}
+
+	@Benchmark
+	public String getActorByFirstName() throws Exception {
+		return mockMvc.perform(get("/api/v2/actors/search").param("first_name", "J"))
+				.andReturn().getResponse().getContentAsString();
+	}
+
+}
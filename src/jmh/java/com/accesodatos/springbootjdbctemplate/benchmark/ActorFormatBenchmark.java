@@ -0,0 +1,88 @@
+package com.accesodatos.springbootjdbctemplate.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.accesodatos.springbootjdbctemplate.models.Actor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Measures serialization of {@code List<Actor>} in each response format, with
+ * object mappers configured the way Spring Boot configures the ones used by
+ * the controllers, with and without gzip as applied by response compression.
+ *
+ * The encoded size of each combination is printed during setup, so payload
+ * size can be compared next to the serialization time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ActorFormatBenchmark {
+
+	@Param({ "10", "1000" })
+	int actors;
+
+	@Param({ "json", "cbor", "smile" })
+	String format;
+
+	@Param({ "false", "true" })
+	boolean gzip;
+
+	ObjectMapper objectMapper;
+
+	List<Actor> list;
+
+	@Setup
+	public void setUp() throws IOException {
+		Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+		if ("cbor".equals(format)) {
+			builder.factory(new CBORFactory());
+		} else if ("smile".equals(format)) {
+			builder.factory(new SmileFactory());
+		}
+		objectMapper = builder.build();
+		list = new ArrayList<>(actors);
+		LocalDateTime lastUpdate = LocalDateTime.of(2006, 2, 15, 4, 34, 33);
+		for (int i = 1; i <= actors; i++) {
+			list.add(new Actor(i, "FIRST" + i, "LAST" + i, lastUpdate));
+		}
+		System.out.printf("%n%s%s payload for %d actors: %d bytes%n", format, gzip ? "+gzip" : "", actors,
+				serializeList().length);
+	}
+
+	@Benchmark
+	public byte[] serializeList() throws IOException {
+		if (!gzip) {
+			return objectMapper.writeValueAsBytes(list);
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+			objectMapper.writeValue(out, list);
+		}
+		return bytes.toByteArray();
+	}
+
+}
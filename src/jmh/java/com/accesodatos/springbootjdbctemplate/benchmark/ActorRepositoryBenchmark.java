@@ -0,0 +1,123 @@
+package com.accesodatos.springbootjdbctemplate.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.accesodatos.springbootjdbctemplate.models.Actor;
+import com.accesodatos.springbootjdbctemplate.repository.ActorRepository;
+import com.accesodatos.springbootjdbctemplate.repository.JdbcRepository;
+
+/**
+ * Measures the {@link ActorRepository} methods against an embedded H2
+ * database in MySQL mode holding {@code actors} rows.
+ *
+ * {@code findById} is measured both directly and through the primary
+ * {@link JdbcRepository}, which adds the actor cache. Looking up a cast of
+ * {@value #CAST} actors is measured as one {@code findById} per actor and as
+ * one {@code findAllByIds}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ActorRepositoryBenchmark {
+
+	static final int CAST = 20;
+
+	@Param({ "200", "5000" })
+	int actors;
+
+	ConfigurableApplicationContext context;
+
+	ActorRepository actorRepository;
+
+	JdbcRepository primaryRepository;
+
+	@Setup
+	public void setUp() {
+		context = BenchmarkContexts.start(WebApplicationType.NONE);
+		actorRepository = context.getBean(ActorRepository.class);
+		primaryRepository = context.getBean(JdbcRepository.class);
+		List<Actor> rows = new ArrayList<>();
+		for (int i = actorRepository.findAll().size(); i < actors; i++) {
+			rows.add(new Actor("FIRST" + i, "LAST" + i));
+		}
+		actorRepository.saveAll(rows);
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public Actor findById() {
+		return actorRepository.findById(randomId());
+	}
+
+	@Benchmark
+	public Actor findByIdCached() {
+		return primaryRepository.findById(randomId());
+	}
+
+	@Benchmark
+	public List<Actor> findAll() {
+		return actorRepository.findAll();
+	}
+
+	@Benchmark
+	public List<Actor> findActorByFirstName() {
+		return actorRepository.findActorByFirstName("FIRST1");
+	}
+
+	@Benchmark
+	public List<Actor> findCastById() {
+		List<Actor> cast = new ArrayList<>(CAST);
+		for (int actor_id : randomIds()) {
+			cast.add(actorRepository.findById(actor_id));
+		}
+		return cast;
+	}
+
+	@Benchmark
+	public List<Actor> findCastByIds() {
+		return actorRepository.findAllByIds(randomIds());
+	}
+
+	@Benchmark
+	public Actor save() {
+		return actorRepository.save(new Actor("BENCH", "MARK"));
+	}
+
+	private int randomId() {
+		return ThreadLocalRandom.current().nextInt(1, actors + 1);
+	}
+
+	private int[] randomIds() {
+		int[] ids = new int[CAST];
+		for (int i = 0; i < CAST; i++) {
+			ids[i] = randomId();
+		}
+		return ids;
+	}
+
+}
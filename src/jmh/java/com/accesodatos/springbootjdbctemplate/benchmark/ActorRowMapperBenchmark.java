@@ -0,0 +1,92 @@
+package com.accesodatos.springbootjdbctemplate.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.RowMapperResultSetExtractor;
+
+import com.accesodatos.springbootjdbctemplate.models.Actor;
+import com.accesodatos.springbootjdbctemplate.repository.ActorRowMapper;
+
+/**
+ * Compares mapping a result set of actors with a new
+ * {@link BeanPropertyRowMapper} per query, as the repository used to do,
+ * against the shared {@link ActorRowMapper}.
+ *
+ * The rows come from a scrollable H2 result set that is read once during
+ * setup and rewound before each invocation, so only the mapping is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ActorRowMapperBenchmark {
+
+	@Param({ "1", "200" })
+	int rows;
+
+	Connection connection;
+
+	ResultSet resultSet;
+
+	@Setup
+	public void setUp() throws SQLException {
+		connection = DriverManager.getConnection("jdbc:h2:mem:mapper;MODE=MySQL;DATABASE_TO_LOWER=TRUE");
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("CREATE TABLE actor (actor_id SMALLINT PRIMARY KEY, first_name VARCHAR(45), "
+					+ "last_name VARCHAR(45), last_update TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+		}
+		try (PreparedStatement insert = connection
+				.prepareStatement("INSERT INTO actor (actor_id, first_name, last_name) VALUES (?, ?, ?)")) {
+			for (int i = 1; i <= rows; i++) {
+				insert.setInt(1, i);
+				insert.setString(2, "FIRST" + i);
+				insert.setString(3, "LAST" + i);
+				insert.addBatch();
+			}
+			insert.executeBatch();
+		}
+		resultSet = connection.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY)
+				.executeQuery("SELECT " + ActorRowMapper.COLUMNS + " FROM actor");
+	}
+
+	@TearDown
+	public void tearDown() throws SQLException {
+		connection.close();
+	}
+
+	@Benchmark
+	public List<Actor> beanPropertyRowMapper() throws SQLException {
+		resultSet.beforeFirst();
+		return new RowMapperResultSetExtractor<>(BeanPropertyRowMapper.newInstance(Actor.class))
+				.extractData(resultSet);
+	}
+
+	@Benchmark
+	public List<Actor> actorRowMapper() throws SQLException {
+		resultSet.beforeFirst();
+		return new RowMapperResultSetExtractor<>(ActorRowMapper.INSTANCE).extractData(resultSet);
+	}
+
+}
@@ -0,0 +1,35 @@
+package com.accesodatos.springbootjdbctemplate.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.accesodatos.springbootjdbctemplate.Application;
+
+/**
+ * Starts the application for benchmarks that need Spring beans.
+ *
+ * Benchmarks run on the test classpath, so the context picks up the test
+ * configuration: an in-memory H2 database in MySQL mode seeded from
+ * schema.sql and data.sql.
+ */
+final class BenchmarkContexts {
+
+	private BenchmarkContexts() {
+	}
+
+	/**
+	 * Starts the application with the given web type and extra arguments.
+	 *
+	 * @param webApplicationType the kind of web context to start
+	 * @param args               extra command-line style properties
+	 * @return the running application context
+	 */
+	static ConfigurableApplicationContext start(WebApplicationType webApplicationType, String... args) {
+		return new SpringApplicationBuilder(Application.class)
+				.web(webApplicationType)
+				.logStartupInfo(false)
+				.run(args);
+	}
+
+}
@@ -0,0 +1,127 @@
+package com.accesodatos.springbootjdbctemplate.benchmark;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.accesodatos.springbootjdbctemplate.config.AdaptiveConcurrencyLimit;
+
+/**
+ * Overload test of {@link AdaptiveConcurrencyLimit} in front of a slow
+ * database: 64 clients share 4 connections, each query holding one for 5 ms,
+ * and callers give up after waiting 250 ms for a connection, as Hikari does
+ * with its connection timeout.
+ *
+ * {@code none} lets every call queue for a connection; {@code adaptive} sheds
+ * the calls over the limit, as the 503 answers of the concurrency limit
+ * filter do, and the shed client waits {@value #RETRY_AFTER_MILLIS} ms
+ * before its next call as Retry-After asks; that wait is not measured. The
+ * sampled latency, p99 included, covers every call, shed ones too. After each
+ * run the share of calls that succeeded, timed out or were shed is printed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(64)
+@Fork(1)
+public class ConcurrencyLimitBenchmark {
+
+	static final int CONNECTIONS = 4;
+
+	static final long QUERY_MILLIS = 5;
+
+	static final long CONNECTION_TIMEOUT_MILLIS = 250;
+
+	static final long RETRY_AFTER_MILLIS = 20;
+
+	/**
+	 * One client, which backs off after being shed.
+	 */
+	@State(Scope.Thread)
+	public static class Client {
+
+		boolean shed;
+
+		@Setup(Level.Invocation)
+		public void backOff() throws InterruptedException {
+			if (shed) {
+				shed = false;
+				Thread.sleep(RETRY_AFTER_MILLIS);
+			}
+		}
+	}
+
+	@Param({ "none", "adaptive" })
+	String limiter;
+
+	AdaptiveConcurrencyLimit limit;
+
+	final Semaphore connections = new Semaphore(CONNECTIONS, true);
+
+	final AtomicLong succeeded = new AtomicLong();
+
+	final AtomicLong timedOut = new AtomicLong();
+
+	final AtomicLong shed = new AtomicLong();
+
+	@Setup
+	public void setUp() {
+		limit = limiter.equals("adaptive") ? new AdaptiveConcurrencyLimit(20, 2, 200) : null;
+	}
+
+	@TearDown
+	public void tearDown() {
+		long total = Math.max(1, succeeded.get() + timedOut.get() + shed.get());
+		System.out.printf("%n%s: %.1f%% succeeded, %.1f%% timed out, %.1f%% shed, final limit %s%n", limiter,
+				100.0 * succeeded.get() / total, 100.0 * timedOut.get() / total, 100.0 * shed.get() / total,
+				limit == null ? "-" : limit.getLimit());
+	}
+
+	@Benchmark
+	public int findById(Client client) throws InterruptedException {
+		if (limit == null) {
+			return query();
+		}
+		if (!limit.tryAcquire()) {
+			shed.incrementAndGet();
+			client.shed = true;
+			return 503;
+		}
+		long start = System.nanoTime();
+		int status = query();
+		limit.release(System.nanoTime() - start, status >= 500);
+		return status;
+	}
+
+	private int query() throws InterruptedException {
+		if (!connections.tryAcquire(CONNECTION_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+			timedOut.incrementAndGet();
+			return 500;
+		}
+		try {
+			Thread.sleep(QUERY_MILLIS);
+			succeeded.incrementAndGet();
+			return 200;
+		} finally {
+			connections.release();
+		}
+	}
+
+}
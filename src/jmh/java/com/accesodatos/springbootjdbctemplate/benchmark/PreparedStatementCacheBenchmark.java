@@ -0,0 +1,109 @@
+package com.accesodatos.springbootjdbctemplate.benchmark;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.accesodatos.springbootjdbctemplate.models.Actor;
+import com.accesodatos.springbootjdbctemplate.repository.ActorRowMapper;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Measures the actor lookup by ID against a MySQL server with the driver's
+ * statement settings of the `prod` profile and without them:
+ * {@code client} prepares statements in the driver (the default),
+ * {@code server} prepares them on the server on every use, and
+ * {@code cached} prepares them on the server once per connection.
+ *
+ * It needs a MySQL server with the sakila database, given with
+ * {@code -Djmh.options="-jvmArgs -Dbenchmark.mysql.url=jdbc:mysql://..."}
+ * (default {@code jdbc:mysql://localhost:3306/sakila?serverTimezone=UTC},
+ * user {@code root}, password {@code 1234}). After each run it prints how
+ * many server-side prepares each lookup cost, read from the global
+ * {@code Com_stmt_prepare} counter, so the server must be otherwise idle.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class PreparedStatementCacheBenchmark {
+
+	static final String SQL_FIND_ACTOR_BY_ID = "SELECT " + ActorRowMapper.COLUMNS
+			+ " FROM actor WHERE actor_id = ?";
+
+	@Param({ "client", "server", "cached" })
+	String statements;
+
+	HikariDataSource dataSource;
+
+	JdbcTemplate jdbcTemplate;
+
+	int maxId;
+
+	long prepares;
+
+	final AtomicLong lookups = new AtomicLong();
+
+	@Setup
+	public void setUp() throws SQLException {
+		dataSource = new HikariDataSource();
+		dataSource.setJdbcUrl(System.getProperty("benchmark.mysql.url",
+				"jdbc:mysql://localhost:3306/sakila?serverTimezone=UTC"));
+		dataSource.setUsername(System.getProperty("benchmark.mysql.username", "root"));
+		dataSource.setPassword(System.getProperty("benchmark.mysql.password", "1234"));
+		dataSource.setMaximumPoolSize(4);
+		dataSource.setMinimumIdle(4);
+		dataSource.addDataSourceProperty("useServerPrepStmts", !statements.equals("client"));
+		dataSource.addDataSourceProperty("cachePrepStmts", statements.equals("cached"));
+		dataSource.addDataSourceProperty("prepStmtCacheSize", 250);
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		maxId = jdbcTemplate.queryForObject("SELECT MAX(actor_id) FROM actor", Integer.class);
+		prepares = globalPrepares();
+		lookups.set(0);
+	}
+
+	@TearDown
+	public void tearDown() throws SQLException {
+		System.out.printf("%n%s: %.3f server-side prepares per lookup%n", statements,
+				(double) (globalPrepares() - prepares) / Math.max(1, lookups.get()));
+		dataSource.close();
+	}
+
+	@Benchmark
+	public Actor findById() {
+		lookups.incrementAndGet();
+		return jdbcTemplate.queryForObject(SQL_FIND_ACTOR_BY_ID, ActorRowMapper.INSTANCE,
+				ThreadLocalRandom.current().nextInt(1, maxId + 1));
+	}
+
+	long globalPrepares() throws SQLException {
+		try (Connection connection = dataSource.getConnection();
+				Statement statement = connection.createStatement();
+				ResultSet resultSet = statement.executeQuery("SHOW GLOBAL STATUS LIKE 'Com_stmt_prepare'")) {
+			return resultSet.next() ? resultSet.getLong(2) : 0;
+		}
+	}
+
+}
@@ -0,0 +1,147 @@
+package com.accesodatos.springbootjdbctemplate.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.accesodatos.springbootjdbctemplate.Application;
+
+/**
+ * Measures the time from launching a new JVM with the application until the
+ * first successful {@code GET /api/v2/actors/1}.
+ *
+ * It runs the jar extracted by the {@code fast-startup} Maven profile, so
+ * build it first:
+ * {@code mvn -Pfast-startup,benchmark package exec:exec -DskipTests -Djmh.include=StartupBenchmark}.
+ * {@code default} runs the jar as it is, {@code lazy} adds lazy bean
+ * initialization, {@code cds} adds the recorded AppCDS archive, and
+ * {@code fast-startup} adds Spring AOT on top of both. Each run starts on an
+ * in-memory H2 database seeded from the test schema.sql and data.sql.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StartupBenchmark {
+
+	static final File DIRECTORY = new File("target/fast-startup");
+
+	@Param({ "default", "lazy", "cds", "fast-startup" })
+	String mode;
+
+	final HttpClient client = HttpClient.newHttpClient();
+
+	List<String> command;
+
+	int port;
+
+	Process process;
+
+	@Setup
+	public void setUp() throws IOException {
+		File[] jars = DIRECTORY.listFiles((directory, name) -> name.endsWith(".jar"));
+		if (jars == null || jars.length == 0) {
+			throw new IllegalStateException("No jar in " + DIRECTORY + "; build with -Pfast-startup package");
+		}
+		command = new ArrayList<>();
+		command.add(System.getProperty("java.home") + "/bin/java");
+		if (mode.equals("cds") || mode.equals("fast-startup")) {
+			command.add("-XX:SharedArchiveFile=" + new File(DIRECTORY, "application.jsa"));
+		}
+		if (mode.equals("fast-startup")) {
+			command.add("-Dspring.aot.enabled=true");
+		}
+		if (!mode.equals("default")) {
+			command.add("-Dspring.profiles.active=fast-startup");
+		}
+		command.add("-cp");
+		command.add(jars[0] + File.pathSeparator + h2Jar());
+		command.add(Application.class.getName());
+		command.add("--spring.datasource.url=jdbc:h2:mem:sakila;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+		command.add("--spring.datasource.driverClassName=org.h2.Driver");
+		command.add("--spring.datasource.username=sa");
+		command.add("--spring.datasource.password=");
+		command.add("--spring.sql.init.mode=always");
+		command.add("--spring.sql.init.schema-locations=" + new File("src/test/resources/schema.sql").toURI());
+		command.add("--spring.sql.init.data-locations=" + new File("src/test/resources/data.sql").toURI());
+	}
+
+	@Setup(Level.Invocation)
+	public void launch() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			port = socket.getLocalPort();
+		}
+		List<String> arguments = new ArrayList<>(command);
+		arguments.add("--server.port=" + port);
+		process = new ProcessBuilder(arguments).redirectErrorStream(true)
+				.redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+	}
+
+	@TearDown(Level.Invocation)
+	public void stop() throws InterruptedException {
+		process.destroy();
+		if (!process.waitFor(30, TimeUnit.SECONDS)) {
+			process.destroyForcibly().waitFor();
+		}
+	}
+
+	@Benchmark
+	public int firstActor() throws IOException, InterruptedException {
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v2/actors/1"))
+				.build();
+		long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(2);
+		while (System.nanoTime() < deadline) {
+			if (!process.isAlive()) {
+				throw new IllegalStateException("The application exited with " + process.exitValue());
+			}
+			try {
+				HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+				if (response.statusCode() == 200) {
+					return response.statusCode();
+				}
+			} catch (ConnectException e) {
+				// not listening yet
+			}
+			Thread.sleep(10);
+		}
+		throw new IllegalStateException("No successful response within 2 minutes");
+	}
+
+	/**
+	 * Returns the H2 jar of the benchmark class path, which the application
+	 * jar does not contain.
+	 */
+	static String h2Jar() {
+		for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+			if (new File(entry).getName().startsWith("h2-")) {
+				return entry;
+			}
+		}
+		throw new IllegalStateException("H2 is not on the class path");
+	}
+
+}
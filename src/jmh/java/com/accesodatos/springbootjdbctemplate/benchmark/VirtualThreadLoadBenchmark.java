@@ -0,0 +1,99 @@
+package com.accesodatos.springbootjdbctemplate.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Load test of the actor endpoints over real HTTP with many concurrent
+ * clients, comparing Tomcat on platform threads, the virtual-threads
+ * profile and the WebFlux stack of the reactive profile.
+ *
+ * All modes use the same small connection pool size and the servlet modes
+ * the same platform thread limit, so the comparison shows how each one copes
+ * with more concurrent requests than threads. Throughput and the latency distribution (including p99) are
+ * reported. The virtual mode needs Java 21; on older JVMs it falls back to
+ * platform threads, so run it with -Djmh.java pointing at a Java 21 binary.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(256)
+@Fork(1)
+public class VirtualThreadLoadBenchmark {
+
+	@Param({ "platform", "virtual", "reactive" })
+	String stack;
+
+	ConfigurableApplicationContext context;
+
+	HttpClient client;
+
+	String baseUrl;
+
+	@Setup
+	public void setUp() {
+		if ("reactive".equals(stack)) {
+			context = BenchmarkContexts.start(WebApplicationType.REACTIVE,
+					"--server.port=0",
+					"--actors.r2dbc.pool.max-size=8",
+					"--actors.r2dbc.url=r2dbc:h2:mem://sa@localhost/sakila"
+							+ "?options=MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+					"--spring.profiles.active=reactive");
+		} else {
+			context = BenchmarkContexts.start(WebApplicationType.SERVLET,
+					"--server.port=0",
+					"--server.tomcat.threads.max=64",
+					"--actors.concurrency-limit.enabled=false",
+					"--spring.datasource.hikari.maximum-pool-size=8",
+					"--spring.profiles.active=" + ("virtual".equals(stack) ? "virtual-threads" : "default"));
+		}
+		int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+		baseUrl = "http://localhost:" + port + "/api/v2/actors";
+		client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public int getActorById() throws IOException, InterruptedException {
+		return send(baseUrl + "/" + ThreadLocalRandom.current().nextInt(1, 11));
+	}
+
+	@Benchmark
+	public int searchActors() throws IOException, InterruptedException {
+		return send(baseUrl + "/search?first_name=J");
+	}
+
+	private int send(String url) throws IOException, InterruptedException {
+		HttpRequest request = HttpRequest.newBuilder(URI.create(url)).GET().build();
+		return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+	}
+
+}
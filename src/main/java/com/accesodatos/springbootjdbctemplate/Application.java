@@ -2,11 +2,17 @@ package com.accesodatos.springbootjdbctemplate;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
 
 /**
  * Main class for starting the Spring Boot JDBC Template application.
+ *
+ * The R2DBC auto-configuration is excluded so that its transaction manager
+ * does not replace the JDBC one; the `reactive` profile creates its own
+ * connection pool in ReactiveConfig.
  */
-@SpringBootApplication
+@SpringBootApplication(exclude = { R2dbcAutoConfiguration.class, R2dbcTransactionManagerAutoConfiguration.class })
 public class Application {
 	/**
 	 * The entry point of the application.
@@ -0,0 +1,168 @@
+package com.accesodatos.springbootjdbctemplate.config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A concurrency limit that adapts to the latency of the work it admits,
+ * following the gradient algorithm: the limit grows while latency stays near
+ * the latency without load and shrinks in proportion when it rises above it,
+ * which is the sign of requests queueing on a saturated resource such as the
+ * connection pool.
+ *
+ * The latency without load is the lowest one sampled. Each sample also
+ * updates a short-term average, and the new limit is the current one scaled
+ * by the ratio of the two, clamped to between half and all of it, plus the
+ * square root of the limit as headroom for probing. The change is smoothed,
+ * and samples taken while less than half of the limit is in use do not move
+ * the limit because they say nothing about it. Failed calls back the limit
+ * off by a fixed factor.
+ *
+ * The lowest latency is forgotten every {@value #PROBE_MULTIPLIER} times the
+ * limit samples and measured again from the samples that follow, without
+ * touching the limit. This keeps the baseline current when the database gets
+ * permanently slower or faster, without cutting the capacity of a healthy
+ * service every time it is reset.
+ *
+ * @author AccesoDatos
+ *
+ * @see ConcurrencyLimitFilter
+ */
+public class AdaptiveConcurrencyLimit {
+
+    /**
+     * How much more than the latency without load the short-term latency may
+     * be before the limit shrinks.
+     */
+    private static final double TOLERANCE = 1.5;
+
+    /**
+     * The weight of a new limit against the current one.
+     */
+    private static final double SMOOTHING = 0.2;
+
+    /**
+     * The factor the limit is multiplied by after a failed call.
+     */
+    private static final double BACKOFF = 0.9;
+
+    /**
+     * The number of samples the short-term average spans.
+     */
+    private static final int SHORT_WINDOW = 10;
+
+    /**
+     * How many samples, as a multiple of the limit, pass between probes of
+     * the latency without load.
+     */
+    private static final int PROBE_MULTIPLIER = 30;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+
+    private double shortRtt;
+
+    private double noLoadRtt;
+
+    private int probeCountdown;
+
+    /**
+     * Constructs a new `AdaptiveConcurrencyLimit`.
+     *
+     * @param initialLimit the limit before any sample
+     * @param minLimit     the lowest the limit may shrink to
+     * @param maxLimit     the highest the limit may grow to
+     */
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || minLimit > maxLimit) {
+            throw new IllegalArgumentException("Invalid limits " + minLimit + ".." + maxLimit);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(initialLimit, maxLimit));
+        this.probeCountdown = PROBE_MULTIPLIER * getLimit();
+    }
+
+    /**
+     * Admits a call if fewer calls than the limit are in flight. An admitted
+     * call must be followed by one of the release methods.
+     *
+     * @return whether the call was admitted
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= getLimit()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Ends an admitted call and adapts the limit to how it went.
+     *
+     * @param rttNanos how long the call took
+     * @param failed   whether the call failed, in which case the limit backs off
+     */
+    public void release(long rttNanos, boolean failed) {
+        int current = inFlight.getAndDecrement();
+        update(rttNanos, current, failed);
+    }
+
+    /**
+     * Ends an admitted call without adapting the limit, for calls whose
+     * duration says nothing about the load, such as ones that continue
+     * asynchronously.
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Returns the current limit.
+     *
+     * @return the number of calls admitted at a time
+     */
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * Returns the number of admitted calls that have not been released.
+     *
+     * @return the calls in flight
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void update(long rttNanos, int inFlightAtEnd, boolean failed) {
+        if (failed) {
+            limit = Math.max(minLimit, limit * BACKOFF);
+            return;
+        }
+        if (--probeCountdown <= 0) {
+            probeCountdown = PROBE_MULTIPLIER * getLimit();
+            noLoadRtt = 0;
+            shortRtt = 0;
+        }
+        if (noLoadRtt == 0 || rttNanos < noLoadRtt) {
+            noLoadRtt = rttNanos;
+        }
+        shortRtt = shortRtt == 0 ? rttNanos : shortRtt + (rttNanos - shortRtt) / SHORT_WINDOW;
+        if (inFlightAtEnd < limit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * noLoadRtt / shortRtt));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        newLimit = limit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+}
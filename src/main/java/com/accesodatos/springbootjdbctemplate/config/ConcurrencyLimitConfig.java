@@ -0,0 +1,72 @@
+package com.accesodatos.springbootjdbctemplate.config;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Configuration for the adaptive concurrency limits of the actor API, on
+ * unless `actors.concurrency-limit.enabled=false`.
+ *
+ * A {@link ConcurrencyLimitFilter} is registered for `/api/v2/*`, with a read
+ * and a write {@link AdaptiveConcurrencyLimit} that start at
+ * `actors.concurrency-limit.{read,write}.initial-limit` and stay between
+ * `min-limit` and `max-limit`. The latency of the paths in
+ * `actors.concurrency-limit.unsampled-paths`, such as the bulk import, is not
+ * fed back into the limits. The long-lived streams in
+ * `actors.concurrency-limit.excluded-paths` are not limited, and neither are
+ * the actuator endpoints, so the limiter meters stay readable under overload.
+ *
+ * @author AccesoDatos
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnWebApplication(type = Type.SERVLET)
+@ConditionalOnProperty(name = "actors.concurrency-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitConfig {
+
+    /**
+     * Creates and registers the filter that sheds the requests over the
+     * limits.
+     *
+     * @param meterRegistry     the registry the limiter meters are registered in
+     * @param readInitialLimit  the read limit before any sample
+     * @param readMinLimit      the lowest read limit
+     * @param readMaxLimit      the highest read limit
+     * @param writeInitialLimit the write limit before any sample
+     * @param writeMinLimit     the lowest write limit
+     * @param writeMaxLimit     the highest write limit
+     * @param retryAfter        when shed clients are told to retry
+     * @param unsampledPaths    the paths whose latency is not fed back
+     * @param excludedPaths     the paths that are not limited
+     * @return the filter registration
+     */
+    @Bean
+    FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(MeterRegistry meterRegistry,
+            @Value("${actors.concurrency-limit.read.initial-limit:20}") int readInitialLimit,
+            @Value("${actors.concurrency-limit.read.min-limit:2}") int readMinLimit,
+            @Value("${actors.concurrency-limit.read.max-limit:200}") int readMaxLimit,
+            @Value("${actors.concurrency-limit.write.initial-limit:10}") int writeInitialLimit,
+            @Value("${actors.concurrency-limit.write.min-limit:1}") int writeMinLimit,
+            @Value("${actors.concurrency-limit.write.max-limit:50}") int writeMaxLimit,
+            @Value("${actors.concurrency-limit.retry-after:1s}") Duration retryAfter,
+            @Value("${actors.concurrency-limit.unsampled-paths:/api/v2/actors/import}") List<String> unsampledPaths,
+            @Value("${actors.concurrency-limit.excluded-paths:/api/v2/actors/stream,/api/v2/actors/changes/stream}")
+            List<String> excludedPaths) {
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(
+                new AdaptiveConcurrencyLimit(readInitialLimit, readMinLimit, readMaxLimit),
+                new AdaptiveConcurrencyLimit(writeInitialLimit, writeMinLimit, writeMaxLimit),
+                retryAfter, unsampledPaths, excludedPaths, meterRegistry);
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/v2/*");
+        return registration;
+    }
+}
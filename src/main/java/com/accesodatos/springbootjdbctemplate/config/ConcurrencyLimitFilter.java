@@ -0,0 +1,218 @@
+package com.accesodatos.springbootjdbctemplate.config;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * A filter that sheds the actor requests above an
+ * {@link AdaptiveConcurrencyLimit}, so that when the database slows down the
+ * excess requests are answered at once with 503 Service Unavailable and a
+ * Retry-After header instead of queueing on the connection pool until they
+ * time out.
+ *
+ * Reads (GET and HEAD) and writes have separate limits, so a burst of one
+ * cannot starve the other. Each completed request feeds its latency back into
+ * its limit, and requests answered with a server error back it off. Requests
+ * that continue asynchronously hold their permit until the async request
+ * completes and give it back without adapting the limit, since their
+ * duration depends on the client. The bulk requests matching the unsampled
+ * path patterns, whose duration depends on their size rather than on the
+ * load, do not adapt it either. The long-lived streams matching the excluded
+ * path patterns, such as the export stream and the change feed subscribers,
+ * are not limited at all, so that a few open connections cannot take the
+ * permits of the ordinary requests.
+ *
+ * For each operation, `read` or `write`, the limit and the requests in flight
+ * are published as the `actors.concurrency.limit` and
+ * `actors.concurrency.in-flight` gauges, and the shed requests as the
+ * `actors.concurrency.rejected` counter.
+ *
+ * @author AccesoDatos
+ *
+ * @see ConcurrencyLimitConfig
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final AdaptiveConcurrencyLimit readLimit;
+
+    private final AdaptiveConcurrencyLimit writeLimit;
+
+    private final String retryAfter;
+
+    private final List<String> unsampledPaths;
+
+    private final List<String> excludedPaths;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    private final Counter readsRejected;
+
+    private final Counter writesRejected;
+
+    /**
+     * Constructs a new `ConcurrencyLimitFilter`.
+     *
+     * @param readLimit      the limit of the read requests
+     * @param writeLimit     the limit of the write requests
+     * @param retryAfter     when shed clients are told to retry
+     * @param unsampledPaths the Ant-style patterns of the paths whose latency
+     *                       is not fed back into the limits
+     * @param excludedPaths  the Ant-style patterns of the paths that are not
+     *                       limited
+     * @param meterRegistry  the registry the limiter meters are registered in
+     */
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimit readLimit, AdaptiveConcurrencyLimit writeLimit,
+            Duration retryAfter, List<String> unsampledPaths, List<String> excludedPaths,
+            MeterRegistry meterRegistry) {
+        this.readLimit = readLimit;
+        this.writeLimit = writeLimit;
+        this.retryAfter = Long.toString(Math.max(1, retryAfter.toSeconds()));
+        this.unsampledPaths = unsampledPaths;
+        this.excludedPaths = excludedPaths;
+        this.readsRejected = register(meterRegistry, "read", readLimit);
+        this.writesRejected = register(meterRegistry, "write", writeLimit);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return matches(excludedPaths, request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean read = isRead(request);
+        AdaptiveConcurrencyLimit limit = read ? readLimit : writeLimit;
+        if (!limit.tryAcquire()) {
+            (read ? readsRejected : writesRejected).increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfter);
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Too many concurrent requests");
+            return;
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = response.getStatus() >= 500;
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncRelease(limit));
+            } else if (matches(unsampledPaths, request)) {
+                limit.release();
+            } else {
+                limit.release(System.nanoTime() - start, failed);
+            }
+        }
+    }
+
+    /**
+     * Returns the limit of the read requests.
+     *
+     * @return the read limit
+     */
+    AdaptiveConcurrencyLimit getReadLimit() {
+        return readLimit;
+    }
+
+    /**
+     * Returns the limit of the write requests.
+     *
+     * @return the write limit
+     */
+    AdaptiveConcurrencyLimit getWriteLimit() {
+        return writeLimit;
+    }
+
+    private boolean matches(List<String> patterns, HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String pattern : patterns) {
+            if (pathMatcher.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isRead(HttpServletRequest request) {
+        HttpMethod method = HttpMethod.valueOf(request.getMethod());
+        return method == HttpMethod.GET || method == HttpMethod.HEAD;
+    }
+
+    private static Counter register(MeterRegistry meterRegistry, String operation, AdaptiveConcurrencyLimit limit) {
+        Gauge.builder("actors.concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                .tag("operation", operation)
+                .description("The number of concurrent actor requests admitted")
+                .register(meterRegistry);
+        Gauge.builder("actors.concurrency.in-flight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                .tag("operation", operation)
+                .description("The actor requests being served")
+                .register(meterRegistry);
+        return Counter.builder("actors.concurrency.rejected")
+                .tag("operation", operation)
+                .description("The actor requests shed with 503 over the limit")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Gives the permit of an async request back once, when the request
+     * completes, fails or times out.
+     */
+    private static final class AsyncRelease implements AsyncListener {
+
+        private final AdaptiveConcurrencyLimit limit;
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        AsyncRelease(AdaptiveConcurrencyLimit limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        /**
+         * Keeps listening when the request starts async processing again,
+         * which drops the registered listeners.
+         */
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                limit.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.accesodatos.springbootjdbctemplate.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * A {@link DataSource} that admits at most a fixed number of callers into the
+ * wrapped connection pool at a time.
+ *
+ * With virtual threads there can be thousands of request threads blocked on
+ * JDBC at once. Instead of letting all of them contend inside the pool, each
+ * caller first takes a permit from a fair semaphore sized to the pool, so
+ * waiters are served in arrival order and give up with a
+ * {@link SQLTransientConnectionException} after the configured timeout. The
+ * permit is returned when the connection is closed.
+ *
+ * @author AccesoDatos
+ *
+ * @see VirtualThreadConfig
+ */
+public class ConnectionGateDataSource extends DelegatingDataSource {
+
+    /**
+     * The permits for borrowing a connection, handed out in FIFO order.
+     */
+    private final Semaphore permits;
+
+    /**
+     * How long a caller waits for a permit before failing.
+     */
+    private final Duration timeout;
+
+    /**
+     * Constructs a new `ConnectionGateDataSource`.
+     *
+     * @param targetDataSource the pool to guard
+     * @param maxConnections   the number of callers admitted at a time
+     * @param timeout          how long a caller waits for a permit
+     */
+    public ConnectionGateDataSource(DataSource targetDataSource, int maxConnections, Duration timeout) {
+        super(targetDataSource);
+        this.permits = new Semaphore(maxConnections, true);
+        this.timeout = timeout;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return gated(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return gated(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the number of callers currently waiting for a permit.
+     *
+     * @return the number of waiting callers
+     */
+    public int getWaitingCallers() {
+        return permits.getQueueLength();
+    }
+
+    /**
+     * Waits for a permit in arrival order.
+     *
+     * @throws SQLException if no permit became available in time
+     */
+    private void acquire() throws SQLException {
+        try {
+            if (!permits.tryAcquire(timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new SQLTransientConnectionException(
+                        "No database connection available after " + timeout.toMillis() + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", e);
+        }
+    }
+
+    /**
+     * Wraps the connection so that closing it returns the permit exactly once.
+     *
+     * @param connection the connection borrowed from the pool
+     * @return the wrapped connection
+     */
+    private Connection gated(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                    if (method.getName().equals("close") && released.compareAndSet(false, true)) {
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        } finally {
+                            permits.release();
+                        }
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
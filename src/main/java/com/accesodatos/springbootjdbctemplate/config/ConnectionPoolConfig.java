@@ -0,0 +1,83 @@
+package com.accesodatos.springbootjdbctemplate.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Configuration that sizes the Hikari pool, enabled with
+ * `actors.datasource.pool.auto-size=true` (see the `prod` profile).
+ *
+ * A database runs at most one query per core at a time, plus the ones
+ * waiting on disk, so the pool gets `database-cores * 2 + effective-spindles`
+ * connections, and never more than `expected-concurrency`, the number of
+ * requests served at once. The pool is kept at that size, since opening a
+ * connection during a burst is slower than holding an idle one. Settings
+ * given explicitly in `spring.datasource.hikari.*` are left alone.
+ *
+ * Only the `dataSource` bean is sized; the replica pools of the read/write
+ * split take the `spring.datasource.hikari.*` settings as they are.
+ *
+ * @author AccesoDatos
+ *
+ * @see ConnectionWarmUp
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "actors.datasource.pool.auto-size", havingValue = "true")
+public class ConnectionPoolConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ConnectionPoolConfig.class);
+
+    /**
+     * Sizes the Hikari pool before it is initialized, and so before the
+     * virtual-thread gate reads its size.
+     *
+     * @param environment the environment holding the sizing settings
+     * @return the post processor that sizes the pool
+     */
+    @Bean
+    static BeanPostProcessor connectionPoolSizer(Environment environment) {
+        int cores = environment.getProperty("actors.datasource.pool.database-cores", Integer.class,
+                Runtime.getRuntime().availableProcessors());
+        int spindles = environment.getProperty("actors.datasource.pool.effective-spindles", Integer.class, 1);
+        int concurrency = environment.getProperty("actors.datasource.pool.expected-concurrency", Integer.class,
+                200);
+        int size = poolSize(cores, spindles, concurrency);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari) {
+                    if (!environment.containsProperty("spring.datasource.hikari.maximum-pool-size")) {
+                        hikari.setMaximumPoolSize(size);
+                    }
+                    if (!environment.containsProperty("spring.datasource.hikari.minimum-idle")) {
+                        hikari.setMinimumIdle(hikari.getMaximumPoolSize());
+                    }
+                    log.info("Connection pool {} sized to {} connections ({} database cores, {} spindles, "
+                            + "{} concurrent requests)", beanName, hikari.getMaximumPoolSize(), cores, spindles,
+                            concurrency);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Returns the number of connections for a database with the given cores
+     * and spindles serving the given number of concurrent requests.
+     *
+     * @param cores       the CPU cores of the database server
+     * @param spindles    the disks the database can wait on at once
+     * @param concurrency the number of requests served at once
+     * @return the pool size, at least 2
+     */
+    static int poolSize(int cores, int spindles, int concurrency) {
+        return Math.max(2, Math.min(cores * 2 + spindles, concurrency));
+    }
+}
@@ -0,0 +1,181 @@
+package com.accesodatos.springbootjdbctemplate.config;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.accesodatos.springbootjdbctemplate.repository.ActorRepository;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Opens the pooled connections and prepares the actor statements on each of
+ * them at startup, enabled with `actors.datasource.warm-up.enabled=true` (see
+ * the `prod` profile).
+ *
+ * With `cachePrepStmts` the MySQL driver caches prepared statements per
+ * connection, so every connection is borrowed at once and prepares
+ * {@link ActorRepository#hotStatements(int)}, multi-get IN lists included;
+ * the first requests then find both the connections and their statements
+ * ready. The runner finishes before the application reports itself ready
+ * for traffic.
+ *
+ * On MySQL it then checks that the statements are reused: it prepares them
+ * again on one connection and compares the session `Com_stmt_prepare`
+ * counter, warning when the statements are not server-side prepared at all
+ * (`useServerPrepStmts` is off) or are prepared again on every use
+ * (`cachePrepStmts` is off or `prepStmtCacheSize` is too small). A failed
+ * warm-up is logged and the pool connects on demand instead.
+ *
+ * @author AccesoDatos
+ *
+ * @see ConnectionPoolConfig
+ */
+@Component
+@ConditionalOnProperty(name = "actors.datasource.warm-up.enabled", havingValue = "true")
+public class ConnectionWarmUp implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ConnectionWarmUp.class);
+
+    /**
+     * The outcome of the statement reuse check.
+     */
+    public enum StatementReuse {
+        /** Statements are prepared on the server once per connection. */
+        REUSED,
+        /** Statements are prepared on the server on every use. */
+        REPREPARED,
+        /** Statements are prepared by the driver, never on the server. */
+        CLIENT_SIDE,
+        /** The database is not MySQL or the warm-up failed. */
+        UNKNOWN
+    }
+
+    @Autowired
+    private DataSource dataSource;
+
+    /**
+     * The number of connections to open, or zero for the whole pool.
+     */
+    @Value("${actors.datasource.warm-up.connections:0}")
+    private int connections;
+
+    /**
+     * The multi-get chunk size, which decides the IN lists to prepare.
+     */
+    @Value("${actors.multi-get.chunk-size:128}")
+    private int multiGetChunkSize;
+
+    private volatile StatementReuse statementReuse = StatementReuse.UNKNOWN;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        int count = connectionCount();
+        List<String> statements = ActorRepository.hotStatements(multiGetChunkSize);
+        List<Connection> borrowed = new ArrayList<>(count);
+        try {
+            for (int i = 0; i < count; i++) {
+                Connection connection = dataSource.getConnection();
+                borrowed.add(connection);
+                prepareAll(connection, statements);
+            }
+            statementReuse = checkReuse(borrowed.get(0), statements);
+            log.info("Warmed up {} connections with {} statements in {} ms; statement reuse: {}", count,
+                    statements.size(), (System.nanoTime() - start) / 1_000_000,
+                    statementReuse);
+        } catch (SQLException e) {
+            log.warn("Connection warm-up failed after {} connections; connecting on demand", borrowed.size(), e);
+        } finally {
+            for (Connection connection : borrowed) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    log.debug("Closing a warm-up connection failed", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the outcome of the statement reuse check.
+     *
+     * @return how the actor statements are prepared
+     */
+    public StatementReuse getStatementReuse() {
+        return statementReuse;
+    }
+
+    /**
+     * Returns the number of connections to open: the configured number, or
+     * the maximum size of the Hikari pool.
+     */
+    private int connectionCount() {
+        if (connections > 0) {
+            return connections;
+        }
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            log.debug("Could not read the pool size", e);
+        }
+        return 1;
+    }
+
+    private static void prepareAll(Connection connection, List<String> statements) throws SQLException {
+        for (String sql : statements) {
+            connection.prepareStatement(sql).close();
+        }
+    }
+
+    /**
+     * Prepares the statements again on a connection that already prepared
+     * them, runs one, and compares the server-side prepares before and after.
+     */
+    private static StatementReuse checkReuse(Connection connection, List<String> statements)
+            throws SQLException {
+        if (!"MySQL".equals(connection.getMetaData().getDatabaseProductName())) {
+            return StatementReuse.UNKNOWN;
+        }
+        long before = serverPrepares(connection);
+        prepareAll(connection, statements);
+        try (PreparedStatement statement = connection.prepareStatement(statements.get(0))) {
+            statement.setInt(1, 0);
+            statement.executeQuery().close();
+        }
+        long after = serverPrepares(connection);
+        if (before == 0 && after == 0) {
+            log.warn("The actor statements are not prepared on the server; set useServerPrepStmts=true");
+            return StatementReuse.CLIENT_SIDE;
+        }
+        if (after > before) {
+            log.warn("The actor statements were prepared {} times again; set cachePrepStmts=true and a "
+                    + "prepStmtCacheSize of at least {}", after - before, statements.size());
+            return StatementReuse.REPREPARED;
+        }
+        return StatementReuse.REUSED;
+    }
+
+    private static long serverPrepares(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery("SHOW SESSION STATUS LIKE 'Com_stmt_prepare'")) {
+            return resultSet.next() ? resultSet.getLong(2) : 0;
+        }
+    }
+}
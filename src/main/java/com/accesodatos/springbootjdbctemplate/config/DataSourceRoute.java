@@ -0,0 +1,77 @@
+package com.accesodatos.springbootjdbctemplate.config;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Holds, per thread, whether the current data access may be served by a read
+ * replica.
+ *
+ * A call is routed to a replica only while a {@code @ReplicaRead} method is
+ * running, the thread is not pinned to the primary for read-your-writes and
+ * no transaction is active, since a transaction must see its own writes.
+ *
+ * @author AccesoDatos
+ *
+ * @see ReadWriteRoutingDataSource
+ */
+public final class DataSourceRoute {
+
+    private static final ThreadLocal<Boolean> REPLICA_READ = new ThreadLocal<>();
+
+    private static final ThreadLocal<Boolean> PRIMARY_PINNED = new ThreadLocal<>();
+
+    private DataSourceRoute() {
+    }
+
+    /**
+     * Tells whether a connection requested now may come from a replica.
+     *
+     * @return true if the current call may read from a replica
+     */
+    public static boolean isReplicaAllowed() {
+        return REPLICA_READ.get() != null && !isPrimaryRequired();
+    }
+
+    /**
+     * Tells whether every read of the current thread must see the primary,
+     * because the thread is pinned to it or runs in a transaction.
+     *
+     * @return true if no read of the current call may come from a replica
+     */
+    public static boolean isPrimaryRequired() {
+        return PRIMARY_PINNED.get() != null || TransactionSynchronizationManager.isActualTransactionActive();
+    }
+
+    /**
+     * Marks the current thread as running a replica read, unless it already is.
+     *
+     * @return true if the mark was set by this call and must be cleared by it
+     */
+    static boolean beginReplicaRead() {
+        if (REPLICA_READ.get() != null) {
+            return false;
+        }
+        REPLICA_READ.set(Boolean.TRUE);
+        return true;
+    }
+
+    /**
+     * Clears the replica read mark of the current thread.
+     */
+    static void endReplicaRead() {
+        REPLICA_READ.remove();
+    }
+
+    /**
+     * Pins or unpins the current thread to the primary.
+     *
+     * @param pinned whether every read of the thread must go to the primary
+     */
+    static void pinPrimary(boolean pinned) {
+        if (pinned) {
+            PRIMARY_PINNED.set(Boolean.TRUE);
+        } else {
+            PRIMARY_PINNED.remove();
+        }
+    }
+}
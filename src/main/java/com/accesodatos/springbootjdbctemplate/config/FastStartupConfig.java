@@ -0,0 +1,35 @@
+package com.accesodatos.springbootjdbctemplate.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.accesodatos.springbootjdbctemplate.repository.SnapshotActorRepository;
+
+/**
+ * Configuration for lazy bean initialization, enabled with
+ * `spring.main.lazy-initialization=true` (see the `fast-startup` profile).
+ *
+ * Most beans are then created by the first request that needs them. The
+ * beans whose startup work must happen before traffic arrives stay eager:
+ * the actor snapshot, which loads the whole table, and the read/write
+ * routing data source, which starts checking the replicas.
+ *
+ * @author AccesoDatos
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "spring.main.lazy-initialization", havingValue = "true")
+public class FastStartupConfig {
+
+    /**
+     * Keeps the beans with startup work eager.
+     *
+     * @return the filter excluding them from lazy initialization
+     */
+    @Bean
+    static LazyInitializationExcludeFilter eagerActorBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(SnapshotActorRepository.class,
+                ReadWriteRoutingDataSource.class);
+    }
+}
@@ -0,0 +1,117 @@
+package com.accesodatos.springbootjdbctemplate.config;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The statements run for one HTTP request, so they can be cancelled when the
+ * client goes away.
+ *
+ * {@link QueryCancellationFilter} creates one per request and binds it to the
+ * threads serving the request, {@link QuerySettingsJdbcTemplate} registers
+ * each statement it runs on such a thread, and {@link #cancel()} sends
+ * {@link Statement#cancel()} to the registered statements, so the database
+ * stops working on them and their connections return to the pool. Statements
+ * registered after the cancellation are cancelled as soon as they are
+ * registered.
+ *
+ * @author AccesoDatos
+ */
+public final class QueryCancellation {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryCancellation.class);
+
+    private static final ThreadLocal<QueryCancellation> CURRENT = new ThreadLocal<>();
+
+    private final Set<Statement> statements = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean cancelled;
+
+    /**
+     * Returns the cancellation of the request served by this thread.
+     *
+     * @return the cancellation, or null outside a request
+     */
+    public static QueryCancellation current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Cancels the statements of the request served by this thread, if any.
+     * Called when writing to the client fails.
+     */
+    public static void cancelCurrent() {
+        QueryCancellation cancellation = CURRENT.get();
+        if (cancellation != null) {
+            cancellation.cancel();
+        }
+    }
+
+    /**
+     * Binds a cancellation to the current thread.
+     *
+     * @param cancellation the cancellation of the request, or null
+     * @return the cancellation bound before, to restore afterwards
+     */
+    static QueryCancellation bind(QueryCancellation cancellation) {
+        QueryCancellation previous = CURRENT.get();
+        if (cancellation == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(cancellation);
+        }
+        return previous;
+    }
+
+    /**
+     * Cancels the running statements and every statement registered later.
+     */
+    public void cancel() {
+        cancelled = true;
+        for (Statement statement : statements) {
+            cancel(statement);
+        }
+    }
+
+    /**
+     * Tells whether the request's statements were cancelled.
+     *
+     * @return true after {@link #cancel()}
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Registers a statement about to run.
+     *
+     * @param statement the statement
+     */
+    void register(Statement statement) {
+        statements.add(statement);
+        if (cancelled) {
+            cancel(statement);
+        }
+    }
+
+    /**
+     * Forgets the registered statements, once the repository call that ran
+     * them has closed them.
+     */
+    void clear() {
+        statements.clear();
+    }
+
+    private void cancel(Statement statement) {
+        try {
+            statement.cancel();
+        } catch (SQLException e) {
+            log.debug("Cancelling a statement failed", e);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.accesodatos.springbootjdbctemplate.config;
+
+import java.io.IOException;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * A filter that gives each actor request a {@link QueryCancellation}, so the
+ * statements it runs can be cancelled when the client goes away.
+ *
+ * The cancellation is bound to the request thread and stored as the
+ * {@value #ATTRIBUTE} request attribute, from which
+ * {@link QuerySettingsConfig} binds it to the thread writing an asynchronous
+ * response. Asynchronous requests, such as the streams, are cancelled when
+ * the container reports an error on the connection or the request times out;
+ * writes failing because the client disconnected cancel them through
+ * {@link QueryCancellation#cancelCurrent()}. The Servlet API does not report
+ * a disconnect while a synchronous request has not written yet, so those are
+ * bounded by the statement timeout instead.
+ *
+ * @author AccesoDatos
+ *
+ * @see QuerySettingsJdbcTemplate
+ */
+public class QueryCancellationFilter extends OncePerRequestFilter {
+
+    /**
+     * The request attribute holding the request's cancellation.
+     */
+    public static final String ATTRIBUTE = QueryCancellation.class.getName();
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        QueryCancellation cancellation = new QueryCancellation();
+        request.setAttribute(ATTRIBUTE, cancellation);
+        QueryCancellation previous = QueryCancellation.bind(cancellation);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            QueryCancellation.bind(previous);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new CancellingListener(cancellation));
+            }
+        }
+    }
+
+    /**
+     * Cancels the statements of an asynchronous request that failed or timed
+     * out before it completed.
+     */
+    private static final class CancellingListener implements AsyncListener {
+
+        private final QueryCancellation cancellation;
+
+        CancellingListener(QueryCancellation cancellation) {
+            this.cancellation = cancellation;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            cancellation.cancel();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            cancellation.cancel();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.accesodatos.springbootjdbctemplate.config;
+
+import java.time.Duration;
+
+/**
+ * The statement settings of one repository method, and, per thread, the
+ * settings of the repository method running on it.
+ *
+ * {@link QuerySettingsAspect} binds the settings of each
+ * {@link com.accesodatos.springbootjdbctemplate.repository.ActorRepository}
+ * call and {@link QuerySettingsJdbcTemplate} applies them to every statement
+ * the call runs. A zero timeout, fetch size or maximum number of rows leaves
+ * the template's setting, and the driver's default, in place.
+ *
+ * @param method    the name of the repository method
+ * @param timeout   how long a statement may run before it is cancelled
+ * @param fetchSize the number of rows fetched per round trip
+ * @param maxRows   the most rows a query returns
+ *
+ * @author AccesoDatos
+ */
+public record QuerySettings(String method, Duration timeout, int fetchSize, int maxRows) {
+
+    private static final ThreadLocal<QuerySettings> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Returns the settings of the repository method running on this thread.
+     *
+     * @return the settings, or null outside a repository call
+     */
+    public static QuerySettings current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Binds the settings to the current thread.
+     *
+     * @param settings the settings of the method being called
+     * @return the settings bound before, to restore after the call
+     */
+    static QuerySettings bind(QuerySettings settings) {
+        QuerySettings previous = CURRENT.get();
+        CURRENT.set(settings);
+        return previous;
+    }
+
+    /**
+     * Restores the settings bound before a call.
+     *
+     * @param previous the settings returned by {@link #bind(QuerySettings)}
+     */
+    static void restore(QuerySettings previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.accesodatos.springbootjdbctemplate.config;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * An aspect that binds the {@link QuerySettings} of each
+ * {@link com.accesodatos.springbootjdbctemplate.repository.ActorRepository}
+ * method while it runs, so the statements it executes get that method's
+ * timeout, fetch size and maximum number of rows.
+ *
+ * The settings of a method are read once from
+ * `actors.query.<method>.timeout`, `.fetch-size` and `.max-rows`, falling
+ * back to `actors.query.timeout`, `actors.query.fetch-size` and
+ * `actors.query.max-rows`. Calls that fail because their statement timed out
+ * are counted in `actors.query.timeouts`, and calls whose statement failed
+ * after being cancelled for a departed client in
+ * `actors.query.cancellations`, both tagged with the method. Other failures,
+ * such as the client's own write error that triggers the cancellation, are
+ * not counted.
+ *
+ * @author AccesoDatos
+ *
+ * @see QuerySettingsJdbcTemplate
+ */
+@Aspect
+@Component
+public class QuerySettingsAspect {
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, QuerySettings> settings = new ConcurrentHashMap<>();
+
+    /**
+     * Runs a repository call with its method's statement settings.
+     *
+     * @param joinPoint the intercepted repository call
+     * @return the result of the call
+     * @throws Throwable whatever the call throws
+     */
+    @Around("execution(public * com.accesodatos.springbootjdbctemplate.repository.ActorRepository.*(..))")
+    public Object applySettings(ProceedingJoinPoint joinPoint) throws Throwable {
+        String method = joinPoint.getSignature().getName();
+        QuerySettings previous = QuerySettings.bind(settings.computeIfAbsent(method, this::resolve));
+        try {
+            return joinPoint.proceed();
+        } catch (DataAccessException e) {
+            QueryCancellation cancellation = QueryCancellation.current();
+            if (cancellation != null && cancellation.isCancelled() && isStatementFailure(e)) {
+                meterRegistry.counter("actors.query.cancellations", "method", method).increment();
+            } else if (e instanceof QueryTimeoutException) {
+                meterRegistry.counter("actors.query.timeouts", "method", method).increment();
+            }
+            throw e;
+        } finally {
+            QuerySettings.restore(previous);
+            QueryCancellation cancellation = QueryCancellation.current();
+            if (previous == null && cancellation != null) {
+                cancellation.clear();
+            }
+        }
+    }
+
+    /**
+     * Tells whether the exception reports a failed statement, which is how a
+     * cancelled statement fails.
+     */
+    private static boolean isStatementFailure(DataAccessException e) {
+        return e instanceof QueryTimeoutException || e.getMostSpecificCause() instanceof SQLException;
+    }
+
+    private QuerySettings resolve(String method) {
+        String prefix = "actors.query." + method + ".";
+        Duration timeout = environment.getProperty(prefix + "timeout", Duration.class,
+                environment.getProperty("actors.query.timeout", Duration.class, Duration.ZERO));
+        int fetchSize = environment.getProperty(prefix + "fetch-size", Integer.class,
+                environment.getProperty("actors.query.fetch-size", Integer.class, 0));
+        int maxRows = environment.getProperty(prefix + "max-rows", Integer.class,
+                environment.getProperty("actors.query.max-rows", Integer.class, 0));
+        return new QuerySettings(method, timeout, fetchSize, maxRows);
+    }
+}
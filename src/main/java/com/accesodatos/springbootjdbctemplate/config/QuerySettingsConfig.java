@@ -0,0 +1,93 @@
+package com.accesodatos.springbootjdbctemplate.config;
+
+import java.util.concurrent.Callable;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.boot.autoconfigure.jdbc.JdbcProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Configuration for the per-method statement settings and the cancellation
+ * of the statements of departed clients.
+ *
+ * The `JdbcTemplate` is a {@link QuerySettingsJdbcTemplate}, configured from
+ * `spring.jdbc.template.*` like the one Spring Boot would create, so the
+ * settings bound by {@link QuerySettingsAspect} reach every statement of the
+ * repository. In a servlet application a {@link QueryCancellationFilter} is
+ * registered for `/api/v2/*`, and the request's cancellation is bound to the
+ * threads that write asynchronous responses, such as the streams.
+ *
+ * @author AccesoDatos
+ */
+@Configuration(proxyBeanMethods = false)
+public class QuerySettingsConfig {
+
+    /**
+     * Creates the `JdbcTemplate` of the application.
+     *
+     * @param dataSource the data source to obtain connections from
+     * @param properties the `spring.jdbc.*` properties
+     * @return the template
+     */
+    @Bean
+    QuerySettingsJdbcTemplate jdbcTemplate(DataSource dataSource, JdbcProperties properties) {
+        QuerySettingsJdbcTemplate jdbcTemplate = new QuerySettingsJdbcTemplate(dataSource);
+        JdbcProperties.Template template = properties.getTemplate();
+        jdbcTemplate.setFetchSize(template.getFetchSize());
+        jdbcTemplate.setMaxRows(template.getMaxRows());
+        if (template.getQueryTimeout() != null) {
+            jdbcTemplate.setQueryTimeout((int) template.getQueryTimeout().getSeconds());
+        }
+        return jdbcTemplate;
+    }
+
+    /**
+     * Configuration of the cancellation of the statements of departed
+     * clients, for servlet applications.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnWebApplication(type = Type.SERVLET)
+    static class QueryCancellationConfig implements WebMvcConfigurer {
+
+        /**
+         * Creates and registers the filter that gives each request its
+         * cancellation.
+         *
+         * @return the filter registration
+         */
+        @Bean
+        FilterRegistrationBean<QueryCancellationFilter> queryCancellationFilter() {
+            FilterRegistrationBean<QueryCancellationFilter> registration =
+                    new FilterRegistrationBean<>(new QueryCancellationFilter());
+            registration.addUrlPatterns("/api/v2/*");
+            return registration;
+        }
+
+        @Override
+        public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+            configurer.registerCallableInterceptors(new CallableProcessingInterceptor() {
+
+                @Override
+                public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+                    QueryCancellation.bind((QueryCancellation) request.getAttribute(
+                            QueryCancellationFilter.ATTRIBUTE, RequestAttributes.SCOPE_REQUEST));
+                }
+
+                @Override
+                public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object result) {
+                    QueryCancellation.bind(null);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.accesodatos.springbootjdbctemplate.config;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+/**
+ * A {@link JdbcTemplate} that applies the {@link QuerySettings} of the
+ * running repository method to each statement, on top of the template-wide
+ * `spring.jdbc.template.*` settings, and registers the statement with the
+ * {@link QueryCancellation} of the running request.
+ *
+ * The timeout is applied through {@link DataSourceUtils}, so inside a
+ * transaction with a timeout the statement gets the shorter of the two.
+ *
+ * @author AccesoDatos
+ *
+ * @see QuerySettingsAspect
+ */
+public class QuerySettingsJdbcTemplate extends JdbcTemplate {
+
+    /**
+     * Constructs a new `QuerySettingsJdbcTemplate`.
+     *
+     * @param dataSource the data source to obtain connections from
+     */
+    public QuerySettingsJdbcTemplate(DataSource dataSource) {
+        super(dataSource);
+    }
+
+    @Override
+    protected void applyStatementSettings(Statement statement) throws SQLException {
+        super.applyStatementSettings(statement);
+        QuerySettings settings = QuerySettings.current();
+        if (settings != null) {
+            if (settings.fetchSize() != 0) {
+                statement.setFetchSize(settings.fetchSize());
+            }
+            if (settings.maxRows() > 0) {
+                statement.setMaxRows(settings.maxRows());
+            }
+            if (settings.timeout().toMillis() > 0) {
+                DataSourceUtils.applyTimeout(statement, getDataSource(),
+                        (int) Math.max(1, (settings.timeout().toMillis() + 999) / 1000));
+            }
+        }
+        QueryCancellation cancellation = QueryCancellation.current();
+        if (cancellation != null) {
+            cancellation.register(statement);
+        }
+    }
+}
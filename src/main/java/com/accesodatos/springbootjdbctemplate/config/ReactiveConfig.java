@@ -0,0 +1,80 @@
+package com.accesodatos.springbootjdbctemplate.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+
+/**
+ * Configuration for the reactive stack, started with the `reactive` profile,
+ * which sets `spring.main.web-application-type=reactive`.
+ *
+ * The R2DBC connection pool is created here from `actors.r2dbc.url` rather
+ * than by Spring Boot, whose R2DBC auto-configuration is excluded so it does
+ * not compete with the JDBC transaction manager.
+ *
+ * Spring Boot skips the JDBC data source once a connection factory exists,
+ * so it is declared here as well, from the usual `spring.datasource.*`
+ * settings, for the beans of the JDBC stack. Hikari only opens connections
+ * when the data source is first used.
+ *
+ * @author AccesoDatos
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+public class ReactiveConfig {
+
+    /**
+     * Creates the R2DBC connection pool.
+     *
+     * @param url            the R2DBC URL of the database, with credentials
+     * @param maxSize        the maximum number of pooled connections
+     * @param maxAcquireTime how long a caller waits for a connection
+     * @return the connection pool
+     */
+    @Bean(destroyMethod = "dispose")
+    ConnectionPool connectionFactory(@Value("${actors.r2dbc.url}") String url,
+            @Value("${actors.r2dbc.pool.max-size:10}") int maxSize,
+            @Value("${actors.r2dbc.pool.max-acquire-time:30s}") Duration maxAcquireTime) {
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactoryBuilder.withUrl(url).build())
+                .maxSize(maxSize)
+                .maxAcquireTime(maxAcquireTime)
+                .build());
+    }
+
+    /**
+     * Creates the JDBC connection pool, which is not started until it is used.
+     *
+     * @param properties the `spring.datasource.*` settings, which Spring Boot
+     *                   binds even when it skips the data source
+     * @return the JDBC connection pool
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * Creates the client the reactive repository runs its SQL with.
+     *
+     * @param connectionFactory the connection pool
+     * @return the database client
+     */
+    @Bean
+    DatabaseClient databaseClient(ConnectionPool connectionFactory) {
+        return DatabaseClient.create(connectionFactory);
+    }
+}
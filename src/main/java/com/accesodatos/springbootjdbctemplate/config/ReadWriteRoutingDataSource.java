@@ -0,0 +1,160 @@
+package com.accesodatos.springbootjdbctemplate.config;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+/**
+ * A {@link DataSource} that sends writes to a primary and spreads replica
+ * reads over a set of read replicas.
+ *
+ * When {@link DataSourceRoute#isReplicaAllowed()} is true the connection comes
+ * from the next healthy replica in round-robin order; otherwise, or when no
+ * replica is healthy, it comes from the primary. Every replica is checked with
+ * {@link Connection#isValid(int)} when the data source is created and then at
+ * a fixed interval. A replica that fails a check, or fails to hand out a
+ * connection, is skipped until a later check succeeds.
+ *
+ * @author AccesoDatos
+ *
+ * @see ReadWriteSplitConfig
+ */
+public class ReadWriteRoutingDataSource extends AbstractDataSource implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+
+    /**
+     * The seconds {@link Connection#isValid(int)} may take in a health check.
+     */
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final DataSource primary;
+
+    private final List<DataSource> replicas;
+
+    /**
+     * Whether each replica passed its last health check, 1 for healthy.
+     */
+    private final AtomicIntegerArray healthy;
+
+    /**
+     * The position of the next replica in the round robin.
+     */
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final ScheduledExecutorService healthChecks;
+
+    /**
+     * Constructs a new `ReadWriteRoutingDataSource` and checks every replica
+     * once before returning.
+     *
+     * @param primary             the data source for writes and pinned reads
+     * @param replicas            the read replicas
+     * @param healthCheckInterval how often the replicas are checked
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas, Duration healthCheckInterval) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.healthy = new AtomicIntegerArray(replicas.size());
+        for (int replica = 0; replica < replicas.size(); replica++) {
+            healthy.set(replica, 1);
+        }
+        checkReplicas();
+        this.healthChecks = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecks.scheduleWithFixedDelay(this::checkReplicas, healthCheckInterval.toMillis(),
+                healthCheckInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (DataSourceRoute.isReplicaAllowed()) {
+            for (int attempt = 0; attempt < replicas.size(); attempt++) {
+                int replica = Math.floorMod(next.getAndIncrement(), replicas.size());
+                if (healthy.get(replica) == 1) {
+                    try {
+                        return replicas.get(replica).getConnection();
+                    } catch (SQLException | RuntimeException e) {
+                        markDown(replica, e);
+                    }
+                }
+            }
+        }
+        return primary.getConnection();
+    }
+
+    /**
+     * Returns a connection of the primary for the given user.
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * Returns the number of replicas that passed their last health check.
+     *
+     * @return the number of healthy replicas
+     */
+    public int getHealthyReplicas() {
+        int count = 0;
+        for (int i = 0; i < healthy.length(); i++) {
+            count += healthy.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * Stops the health checks. The pools are closed by their owner.
+     */
+    @Override
+    public void close() {
+        healthChecks.shutdownNow();
+    }
+
+    /**
+     * Validates a connection of every replica and records the outcome.
+     */
+    private void checkReplicas() {
+        for (int replica = 0; replica < replicas.size(); replica++) {
+            try (Connection connection = replicas.get(replica).getConnection()) {
+                if (!connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    throw new SQLException("Connection is not valid");
+                }
+                if (healthy.getAndSet(replica, 1) == 0) {
+                    log.info("Replica {} is healthy", replica);
+                }
+            } catch (SQLException | RuntimeException e) {
+                markDown(replica, e);
+            }
+        }
+    }
+
+    /**
+     * Takes a replica out of the rotation until a health check succeeds.
+     *
+     * @param replica the index of the replica
+     * @param cause   why the replica is taken out
+     */
+    private void markDown(int replica, Exception cause) {
+        if (healthy.getAndSet(replica, 0) == 1) {
+            log.warn("Replica {} is unavailable, reading from the primary instead: {}", replica, cause.toString());
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.accesodatos.springbootjdbctemplate.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.BeanDefinitionBuilder;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.ImportBeanDefinitionRegistrar;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Configuration for the read/write split, enabled with
+ * `actors.read-write-split.enabled=true`.
+ *
+ * The `dataSource` bean becomes a {@link ReadWriteRoutingDataSource} over a
+ * primary pool for `spring.datasource.url` and one pool per URL in
+ * `actors.read-write-split.replica-urls`. All pools take the
+ * `spring.datasource.hikari.*` settings and the primary's credentials, and
+ * the replica pools wait at most `replica-connection-timeout` for a
+ * connection, so a replica that stops answering is skipped quickly. The pools
+ * are beans of their own, `primaryDataSource` and `replicaDataSource0`,
+ * `replicaDataSource1` and so on, so each gets its `hikaricp.*` meters.
+ * Repository methods annotated with
+ * {@link com.accesodatos.springbootjdbctemplate.repository.ReplicaRead} read
+ * from the replicas, everything else runs on the primary, and clients read
+ * from the primary for `read-your-writes-window` after each write, also on
+ * the threads that write their asynchronous responses.
+ *
+ * @author AccesoDatos
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "actors.read-write-split.enabled", havingValue = "true")
+@Import(ReadWriteSplitConfig.ReplicaPoolsRegistrar.class)
+public class ReadWriteSplitConfig {
+
+    private static final String REPLICA_URLS = "actors.read-write-split.replica-urls";
+
+    private static final String REPLICA_BEAN_PREFIX = "replicaDataSource";
+
+    /**
+     * Creates the pool of the primary.
+     *
+     * @param properties  the `spring.datasource.*` settings
+     * @param environment the environment holding the Hikari settings
+     * @return the primary pool
+     */
+    @Bean
+    HikariDataSource primaryDataSource(DataSourceProperties properties, Environment environment) {
+        return pool(properties, environment, properties.determineUrl(), "primary");
+    }
+
+    /**
+     * Creates the routing data source over the primary and replica pools.
+     *
+     * @param primary             the primary pool
+     * @param beanFactory         the factory holding the replica pools
+     * @param replicaUrls         the JDBC URLs of the read replicas
+     * @param healthCheckInterval how often the replicas are checked
+     * @return the routing data source
+     */
+    @Bean
+    @Primary
+    ReadWriteRoutingDataSource dataSource(@Qualifier("primaryDataSource") HikariDataSource primary,
+            BeanFactory beanFactory, @Value("${" + REPLICA_URLS + "}") List<String> replicaUrls,
+            @Value("${actors.read-write-split.health-check-interval:5s}") Duration healthCheckInterval) {
+        List<DataSource> replicas = new ArrayList<>();
+        for (int replica = 0; replica < replicaUrls.size(); replica++) {
+            replicas.add(beanFactory.getBean(REPLICA_BEAN_PREFIX + replica, DataSource.class));
+        }
+        return new ReadWriteRoutingDataSource(primary, replicas, healthCheckInterval);
+    }
+
+    /**
+     * Creates the aspect that routes replica reads.
+     *
+     * @return the aspect
+     */
+    @Bean
+    static ReplicaReadAspect replicaReadAspect() {
+        return new ReplicaReadAspect();
+    }
+
+    /**
+     * Creates the filter that pins recent writers to the primary.
+     *
+     * @param window how long after a write the client reads from the primary
+     * @return the filter
+     */
+    @Bean
+    ReadYourWritesFilter readYourWritesFilter(
+            @Value("${actors.read-write-split.read-your-writes-window:5s}") Duration window) {
+        return new ReadYourWritesFilter(window);
+    }
+
+    /**
+     * Configuration of the read-your-writes pin of asynchronous responses,
+     * for servlet applications.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnWebApplication(type = Type.SERVLET)
+    static class ReadYourWritesAsyncConfig implements WebMvcConfigurer {
+
+        @Override
+        public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+            configurer.registerCallableInterceptors(new CallableProcessingInterceptor() {
+
+                @Override
+                public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+                    DataSourceRoute.pinPrimary(Boolean.TRUE.equals(
+                            request.getAttribute(ReadYourWritesFilter.ATTRIBUTE, RequestAttributes.SCOPE_REQUEST)));
+                }
+
+                @Override
+                public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object result) {
+                    DataSourceRoute.pinPrimary(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Creates the read-only pool of a replica.
+     *
+     * @param url               the JDBC URL of the replica
+     * @param name              the pool name
+     * @param connectionTimeout how long a caller waits for a connection
+     * @param properties        the `spring.datasource.*` settings
+     * @param environment       the environment holding the Hikari settings
+     * @return the replica pool
+     */
+    static HikariDataSource replicaDataSource(String url, String name, Duration connectionTimeout,
+            DataSourceProperties properties, Environment environment) {
+        HikariDataSource pool = pool(properties, environment, url, name);
+        pool.setReadOnly(true);
+        pool.setConnectionTimeout(connectionTimeout.toMillis());
+        return pool;
+    }
+
+    /**
+     * Creates a Hikari pool for the given URL with the shared settings.
+     */
+    private static HikariDataSource pool(DataSourceProperties properties, Environment environment, String url,
+            String name) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).url(url)
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        return pool;
+    }
+
+    /**
+     * Registers one pool bean per replica URL, since their number is only
+     * known from the configuration.
+     */
+    static class ReplicaPoolsRegistrar implements ImportBeanDefinitionRegistrar, EnvironmentAware {
+
+        private Environment environment;
+
+        @Override
+        public void setEnvironment(Environment environment) {
+            this.environment = environment;
+        }
+
+        @Override
+        public void registerBeanDefinitions(AnnotationMetadata metadata, BeanDefinitionRegistry registry) {
+            Binder binder = Binder.get(environment);
+            List<String> replicaUrls = binder.bind(REPLICA_URLS, Bindable.listOf(String.class)).orElse(List.of());
+            Duration connectionTimeout = binder
+                    .bind("actors.read-write-split.replica-connection-timeout", Duration.class)
+                    .orElse(Duration.ofSeconds(1));
+            for (int replica = 0; replica < replicaUrls.size(); replica++) {
+                registry.registerBeanDefinition(REPLICA_BEAN_PREFIX + replica, BeanDefinitionBuilder
+                        .rootBeanDefinition(ReadWriteSplitConfig.class, "replicaDataSource")
+                        .addConstructorArgValue(replicaUrls.get(replica))
+                        .addConstructorArgValue("replica-" + replica)
+                        .addConstructorArgValue(connectionTimeout)
+                        .setAutowireMode(AbstractBeanDefinition.AUTOWIRE_CONSTRUCTOR)
+                        .getBeanDefinition());
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.accesodatos.springbootjdbctemplate.config;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * A filter that gives clients read-your-writes consistency while the read
+ * replicas catch up with the primary.
+ *
+ * Every request that may write sets a cookie holding the time until which
+ * the client's reads must go to the primary. The request itself, and every
+ * later request carrying an unexpired cookie, is pinned to the primary. The
+ * pin is also stored as the {@value #ATTRIBUTE} request attribute, from which
+ * {@link ReadWriteSplitConfig} pins the threads that write asynchronous
+ * responses, such as the streams.
+ *
+ * @author AccesoDatos
+ *
+ * @see DataSourceRoute
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    /**
+     * The name of the cookie holding the end of the read-your-writes window, in
+     * epoch milliseconds.
+     */
+    public static final String COOKIE = "actors-primary-until";
+
+    /**
+     * The request attribute set when the request is pinned to the primary.
+     */
+    public static final String ATTRIBUTE = ReadYourWritesFilter.class.getName() + ".PINNED";
+
+    private final Duration window;
+
+    /**
+     * Constructs a new `ReadYourWritesFilter`.
+     *
+     * @param window how long after a write the client reads from the primary
+     */
+    public ReadYourWritesFilter(Duration window) {
+        this.window = window;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean pinned = isWrite(request) || isWithinWindow(request);
+        if (isWrite(request)) {
+            response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie
+                    .from(COOKIE, Long.toString(System.currentTimeMillis() + window.toMillis()))
+                    .path("/")
+                    .maxAge(window)
+                    .httpOnly(true)
+                    .sameSite("Lax")
+                    .build().toString());
+        }
+        if (pinned) {
+            request.setAttribute(ATTRIBUTE, Boolean.TRUE);
+        }
+        DataSourceRoute.pinPrimary(pinned);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            DataSourceRoute.pinPrimary(false);
+        }
+    }
+
+    private static boolean isWrite(HttpServletRequest request) {
+        HttpMethod method = HttpMethod.valueOf(request.getMethod());
+        return method != HttpMethod.GET && method != HttpMethod.HEAD && method != HttpMethod.OPTIONS;
+    }
+
+    private static boolean isWithinWindow(HttpServletRequest request) {
+        Cookie cookie = WebUtils.getCookie(request, COOKIE);
+        if (cookie == null) {
+            return false;
+        }
+        try {
+            return Long.parseLong(cookie.getValue()) > System.currentTimeMillis();
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.accesodatos.springbootjdbctemplate.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+import com.accesodatos.springbootjdbctemplate.repository.ReplicaRead;
+
+/**
+ * An aspect that lets every {@link ReplicaRead} repository method, and the
+ * queries it runs, be served by a read replica.
+ *
+ * @author AccesoDatos
+ *
+ * @see DataSourceRoute
+ */
+@Aspect
+public class ReplicaReadAspect {
+
+    /**
+     * Marks the thread as running a replica read for the duration of the call.
+     *
+     * @param joinPoint the intercepted repository call
+     * @return the result of the call
+     * @throws Throwable whatever the call throws
+     */
+    @Around("@annotation(com.accesodatos.springbootjdbctemplate.repository.ReplicaRead)")
+    public Object routeToReplica(ProceedingJoinPoint joinPoint) throws Throwable {
+        boolean started = DataSourceRoute.beginReplicaRead();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            if (started) {
+                DataSourceRoute.endReplicaRead();
+            }
+        }
+    }
+}
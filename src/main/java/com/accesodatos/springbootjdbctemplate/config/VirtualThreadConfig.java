@@ -0,0 +1,60 @@
+package com.accesodatos.springbootjdbctemplate.config;
+
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Configuration for the virtual-thread execution mode, enabled with
+ * `spring.threads.virtual.enabled=true` (see the `virtual-threads` profile).
+ *
+ * Spring Boot then runs Tomcat requests and MVC async work, and therefore
+ * every `ActorService` call, on virtual threads. This class puts a
+ * {@link ConnectionGateDataSource} in front of the Hikari pool so that the
+ * many virtual threads queue fairly for its connections.
+ *
+ * @author AccesoDatos
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    /**
+     * Wraps the Hikari pool in a {@link ConnectionGateDataSource} with one
+     * permit per pooled connection.
+     *
+     * @param environment the environment holding the gate timeout
+     * @return the post processor that wraps the pool
+     */
+    @Bean
+    static BeanPostProcessor connectionGatePostProcessor(Environment environment) {
+        Duration timeout = environment.getProperty("actors.datasource.gate.timeout", Duration.class,
+                Duration.ofSeconds(30));
+        if (!Threading.VIRTUAL.isActive(environment)) {
+            log.warn("spring.threads.virtual.enabled is set but virtual threads need Java 21 or later; "
+                    + "requests keep running on platform threads");
+        }
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari) {
+                    return new ConnectionGateDataSource(hikari, hikari.getMaximumPoolSize(), timeout);
+                }
+                return bean;
+            }
+        };
+    }
+}
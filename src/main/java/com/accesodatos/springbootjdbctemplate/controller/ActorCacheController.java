@@ -0,0 +1,54 @@
+package com.accesodatos.springbootjdbctemplate.controller;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.accesodatos.springbootjdbctemplate.repository.CachingActorRepository;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * This is a Spring RESTful web service controller class, responsible for
+ * reporting the counters of the actor cache so it can be sized.
+ *
+ * The controller is only registered when the {@link CachingActorRepository}
+ * is active, which it is not in snapshot mode.
+ */
+
+@RestController
+@RequestMapping("/api/v2")
+@ConditionalOnWebApplication(type = Type.SERVLET)
+@ConditionalOnExpression("${actors.cache.enabled:true} and !${actors.snapshot.enabled:false}")
+public class ActorCacheController {
+
+    @Autowired
+    CachingActorRepository cachingActorRepository;
+
+    /**
+     * Handles a GET request to "/api/v2/actors/cache/stats" and returns the hit,
+     * miss and eviction counters of the actor cache.
+     *
+     * @return ResponseEntity with the cache counters and HTTP status code.
+     */
+    @GetMapping("/actors/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        CacheStats stats = cachingActorRepository.stats();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("size", cachingActorRepository.estimatedSize());
+        body.put("hits", stats.hitCount());
+        body.put("misses", stats.missCount());
+        body.put("hit_rate", stats.hitRate());
+        body.put("evictions", stats.evictionCount());
+        body.put("load_failures", stats.loadFailureCount());
+        return new ResponseEntity<>(body, HttpStatus.OK);
+    }
+}
@@ -0,0 +1,76 @@
+package com.accesodatos.springbootjdbctemplate.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.accesodatos.springbootjdbctemplate.models.ActorChangePage;
+import com.accesodatos.springbootjdbctemplate.service.ActorChangeNotifier;
+import com.accesodatos.springbootjdbctemplate.service.ActorService;
+
+/**
+ * This is a Spring RESTful web service controller class, responsible for
+ * the change feed of the actors, which lets clients keep a copy of the actor
+ * table in sync by transferring only what changed.
+ *
+ * A client reads the feed from the beginning once, then polls it with the
+ * token of the last page, or subscribes to the change stream to be told about
+ * each change as it happens.
+ */
+
+@RestController
+@RequestMapping("/api/v2")
+@ConditionalOnWebApplication(type = Type.SERVLET)
+public class ActorChangeController {
+
+    @Autowired
+    ActorService actorService;
+
+    @Autowired
+    ActorChangeNotifier actorChangeNotifier;
+
+    /**
+     * Handles a GET request to "/api/v2/actors/changes" and returns one page of
+     * the actors inserted, updated or deleted after the given token, together
+     * with the token to continue from.
+     *
+     * @param since the token returned with the previous page; without it the
+     *              feed starts from the beginning
+     * @param limit the maximum number of changes in the page
+     * @return ResponseEntity with a page of changes and HTTP status code.
+     */
+    @GetMapping("/actors/changes")
+    public ResponseEntity<ActorChangePage> getChanges(@RequestParam(value = "since", required = false) String since,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        if (limit < 1) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        try {
+            return new ResponseEntity<>(actorService.findChanges(since, limit), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Handles a GET request to "/api/v2/actors/changes/stream" and pushes every
+     * insert, update and delete of an actor as a Server-Sent Event until the
+     * subscription times out.
+     *
+     * @return the emitter of the change events.
+     */
+    @GetMapping(value = "/actors/changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges() {
+        return actorChangeNotifier.subscribe();
+    }
+}
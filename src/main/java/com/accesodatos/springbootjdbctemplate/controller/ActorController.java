@@ -1,23 +1,60 @@
 package com.accesodatos.springbootjdbctemplate.controller;
 
-import java.util.ArrayList;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import com.accesodatos.springbootjdbctemplate.config.QueryCancellation;
 import com.accesodatos.springbootjdbctemplate.models.Actor;
+import com.accesodatos.springbootjdbctemplate.models.ActorBatchResult;
+import com.accesodatos.springbootjdbctemplate.models.ActorCount;
+import com.accesodatos.springbootjdbctemplate.models.ActorField;
+import com.accesodatos.springbootjdbctemplate.models.ActorImportResult;
+import com.accesodatos.springbootjdbctemplate.models.ActorLookup;
+import com.accesodatos.springbootjdbctemplate.models.ActorPage;
+import com.accesodatos.springbootjdbctemplate.models.ActorProjectionPage;
+import com.accesodatos.springbootjdbctemplate.models.ActorTableVersion;
+import com.accesodatos.springbootjdbctemplate.models.UpdateResult;
+import com.accesodatos.springbootjdbctemplate.service.ActorImport;
 import com.accesodatos.springbootjdbctemplate.service.ActorService;
+import com.accesodatos.springbootjdbctemplate.service.ActorWriteBehindQueue;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 
 /**
  * This is a Spring RESTful web service controller class, responsible for
@@ -38,36 +75,91 @@ import com.accesodatos.springbootjdbctemplate.service.ActorService;
  * 4. deleteActor
  * 5. updateActor
  * 6. getActorByFirstName
+ * 7. getActorsPage
+ * 8. streamAllActors
+ * 9. createActors
+ * 10. updateActors
+ * 11. deleteActors
+ * 12. searchActors
+ * 13. getActorsByIds
+ * 14. countActorsByFirstName
+ * 15. countActorsByLastUpdateDate
+ * 16. importActors
  * 
  * In each method, the class returns an instance of ResponseEntity with
  * appropriate HTTP status codes and response data.
  * 
+ * The GET methods send a strong ETag and a Last-Modified header derived from
+ * actor.last_update. A request with If-None-Match or If-Modified-Since first
+ * reads only the version of what it asks for, and is answered with 304 Not
+ * Modified without reading, mapping or serializing any actor when the client's
+ * copy is current.
+ * 
+ * Every endpoint answers in JSON, CBOR or Smile according to the Accept
+ * header, and large responses are gzip-compressed for clients that accept it.
+ * 
  * The class also uses the ActorService class for retrieving and modifying Actor
  * information. It is autowired using the @Autowired annotation.
  */
 
 @RestController
 @RequestMapping("/api/v2")
+@ConditionalOnWebApplication(type = Type.SERVLET)
 public class ActorController {
 
     @Autowired
     ActorService actorService;
 
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    MappingJackson2CborHttpMessageConverter cborHttpMessageConverter;
+
+    @Autowired
+    MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter;
+
+    /**
+     * The write-behind queue, present only when `actors.write-behind.enabled`
+     * is set.
+     */
+    @Autowired(required = false)
+    ActorWriteBehindQueue actorWriteBehindQueue;
+
     /**
-     * Handles a GET request to "/api/v2/actors" and returns a list of all Actors.
+     * Handles a GET request to "/api/v2/actors" without paging parameters and
+     * returns a list of all Actors.
+     * 
+     * A conditional request reads the version of the table first, and the
+     * Actors only when the client's copy is stale; otherwise the ETag is built
+     * from the Actors read.
      * 
+     * @param headers the request headers, checked for conditional requests and
+     *                the accepted encodings
      * @return ResponseEntity with a list of all Actors and HTTP status code.
      */
-    @GetMapping("/actors")
-    public ResponseEntity<List<Actor>> getAllActors() {
+    @GetMapping(value = "/actors", params = { "!after", "!limit", "!ids", "!fields" })
+    public ResponseEntity<List<Actor>> getAllActors(@RequestHeader HttpHeaders headers) {
+        ActorStreamFormat format = ActorStreamFormat.negotiateDocument(headers.getAccept());
+        if (format == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_ACCEPTABLE);
+        }
         try {
-            List<Actor> actors = new ArrayList<Actor>();
-            actorService.findAllActors().forEach(actors::add);
+            if (ActorETags.isConditional(headers)) {
+                ActorTableVersion version = actorService.findActorsVersion();
+                String etag = ActorETags.of(ActorETags.of(version), format);
+                if (ActorETags.notModified(headers, etag, ActorETags.lastModified(version.getLast_update()))) {
+                    return notModified(etag, version.getLast_update());
+                }
+            }
+            List<Actor> actors = actorService.findAllActors();
 
             if (actors.isEmpty()) {
                 return new ResponseEntity<>(HttpStatus.NO_CONTENT);
             }
-            return new ResponseEntity<>(actors, HttpStatus.OK);
+            ActorTableVersion version = ActorService.versionOf(actors);
+            return validated(ResponseEntity.ok(), ActorETags.of(ActorETags.of(version), format),
+                    version.getLast_update()).contentType(format.getMediaType()).body(actors);
 
         } catch (Exception e) {
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
@@ -78,17 +170,45 @@ public class ActorController {
      * Handles a POST request to "/api/v2/actors" and creates a new Actor with the
      * information provided in the request body.
      * 
+     * The response is 201 Created with the new Actor in the body, its URL in the
+     * Location header and its ETag, so no follow-up read is needed.
+     * 
+     * In write-behind mode the Actor is queued instead, and the response is 202
+     * Accepted with the tracking id in the body and the status URL in the
+     * Location header, or 429 Too Many Requests while the queue is full.
+     * 
+     * An Actor with a missing or too long name is answered with 400 Bad
+     * Request in both modes.
+     * 
      * @param actor
-     * @return ResponseEntity with a message and HTTP status code.
+     * @param headers the request headers, holding the accepted encodings
+     * @return ResponseEntity with the created Actor or a message and HTTP status
+     *         code.
      */
     @PostMapping("/actors")
-    public ResponseEntity<String> createActor(@RequestBody Actor actor) {
+    public ResponseEntity<?> createActor(@RequestBody Actor actor, @RequestHeader HttpHeaders headers) {
+        ActorStreamFormat format = ActorStreamFormat.negotiateDocument(headers.getAccept());
+        if (format == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_ACCEPTABLE);
+        }
         try {
-            actorService.createActor(
+            if (actorWriteBehindQueue != null) {
+                String id = actorWriteBehindQueue.enqueue(actor);
+                if (id == null) {
+                    return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "1")
+                            .body("Too many pending Actors, try again later");
+                }
+                return ResponseEntity.accepted().location(URI.create("/api/v2/actors/writes/" + id)).body(id);
+            }
+            Actor created = actorService.createActor(
                     new Actor(
                             actor.getFirst_name(),
                             actor.getLast_name()));
-            return new ResponseEntity<>("Actor created successfully", HttpStatus.CREATED);
+            return validated(ResponseEntity.created(URI.create("/api/v2/actors/" + created.getActor_id())),
+                    ActorETags.of(ActorETags.of(created), format), created.getLast_update())
+                    .contentType(format.getMediaType()).body(created);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             return new ResponseEntity<>("Actor wasn't created", HttpStatus.INTERNAL_SERVER_ERROR);
         }
@@ -96,17 +216,38 @@ public class ActorController {
 
     /**
      * Handles a GET request to "/api/v2/actors/{actor_id}" and returns an Actor
-     * with the specified id.
+     * with the specified id, with its ETag for conditional requests and updates.
+     * 
+     * A conditional request reads only the last update time of the Actor, and
+     * the Actor itself only when the client's copy is stale.
      * 
      * @param actor_id
+     * @param headers the request headers, checked for conditional requests and
+     *                the accepted encodings
      * @return ResponseEntity with an Actor and HTTP status code.
      */
     @GetMapping("/actors/{actor_id}")
-    public ResponseEntity<Actor> getActorById(@PathVariable("actor_id") int actor_id) {
+    public ResponseEntity<Actor> getActorById(@PathVariable("actor_id") int actor_id,
+            @RequestHeader HttpHeaders headers) {
+        ActorStreamFormat format = ActorStreamFormat.negotiateDocument(headers.getAccept());
+        if (format == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_ACCEPTABLE);
+        }
         try {
+            if (ActorETags.isConditional(headers)) {
+                LocalDateTime last_update = actorService.findActorLastUpdate(actor_id);
+                if (last_update == null) {
+                    return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+                }
+                String etag = ActorETags.of(ActorETags.of(actor_id, last_update), format);
+                if (ActorETags.notModified(headers, etag, ActorETags.lastModified(last_update))) {
+                    return notModified(etag, last_update);
+                }
+            }
             Actor actor = actorService.findActorById(actor_id);
             if (actor != null) {
-                return new ResponseEntity<>(actor, HttpStatus.OK);
+                return validated(ResponseEntity.ok(), ActorETags.of(ActorETags.of(actor), format),
+                        actor.getLast_update()).contentType(format.getMediaType()).body(actor);
             }
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         } catch (Exception e) {
@@ -114,6 +255,29 @@ public class ActorController {
         }
     }
 
+    /**
+     * Handles a GET request to "/api/v2/actors?ids={actor_id},{actor_id},..."
+     * and returns the Actors with those ids in one response, so a client
+     * rendering many Actors does not need one request per Actor.
+     * 
+     * The Actors come in the order of the ids, and the ids with no Actor are
+     * listed in missing_ids instead of failing the whole request.
+     * 
+     * @param ids the ids of the Actors, comma separated or repeated
+     * @return ResponseEntity with the Actors found and the missing ids and HTTP
+     *         status code.
+     */
+    @GetMapping(value = "/actors", params = "ids")
+    public ResponseEntity<ActorLookup> getActorsByIds(@RequestParam("ids") int[] ids) {
+        try {
+            return new ResponseEntity<>(actorService.findActorsByIds(ids), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     /**
      * Handles a DELETE request to "/api/v2/actors/{actor_id}" and deletes the
      * Actor with the specified id.
@@ -135,41 +299,73 @@ public class ActorController {
      * Handles a PUT request to "/api/v2/actors/{actor_id}" and updates the Actor
      * with the specified id.
      * 
+     * When an If-Match header carrying the ETag of the Actor is sent, the update
+     * only applies if the Actor has not been modified since, and a concurrent
+     * modification is answered with 412 Precondition Failed.
+     * 
      * @param actor_id
      * @param actor
+     * @param ifMatch the ETag the client last read, if any
      * @return ResponseEntity with a message and HTTP status code.
      */
     @PutMapping("/actors/{actor_id}")
-    public ResponseEntity<String> updateActor(@PathVariable("actor_id") int actor_id, @RequestBody Actor actor) {
+    public ResponseEntity<String> updateActor(@PathVariable("actor_id") int actor_id, @RequestBody Actor actor,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            if (actorService.updateActor(
-                    new Actor(
-                            actor_id,
-                            actor.getFirst_name(),
-                            actor.getLast_name()))) {
-                return new ResponseEntity<>("Cannot find Actor with id = " + actor_id, HttpStatus.NOT_FOUND);
+            Actor updated = new Actor(
+                    actor_id,
+                    actor.getFirst_name(),
+                    actor.getLast_name());
+            if (ifMatch == null || ifMatch.trim().equals("*")) {
+                if (!actorService.updateActor(updated)) {
+                    return new ResponseEntity<>("Cannot find Actor with id = " + actor_id, HttpStatus.NOT_FOUND);
+                }
+                return new ResponseEntity<>("Actor updated succesfully", HttpStatus.OK);
+            }
+            LocalDateTime last_update = ActorETags.lastUpdateOf(ifMatch, actor_id);
+            UpdateResult result = last_update == null ? UpdateResult.CONFLICT
+                    : actorService.updateActorIfUnchanged(updated, last_update);
+            switch (result) {
+                case UPDATED:
+                    return new ResponseEntity<>("Actor updated succesfully", HttpStatus.OK);
+                case NOT_FOUND:
+                    return new ResponseEntity<>("Cannot find Actor with id = " + actor_id, HttpStatus.NOT_FOUND);
+                default:
+                    return new ResponseEntity<>("Actor with id = " + actor_id + " was modified by another request",
+                            HttpStatus.PRECONDITION_FAILED);
             }
-            return new ResponseEntity<>("Actor updated succesfully", HttpStatus.OK);
         } catch (Exception e) {
             return new ResponseEntity<>("Actor wasn't updated", HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
     /**
-     * Handles a GET request to "/api/v2/actors/search" and returns a list of
-     * Actors with the specified first name.
+     * Handles a GET request to "/api/v2/actors/search" with only a first name and
+     * returns a list of the Actors whose first name starts with it.
+     * 
+     * The list holds at most `actors.page.max-limit` Actors, in first name
+     * order. When more Actors match, a Link header with rel="next" points to
+     * the next page of the paged search.
      * 
      * @param first_name
      * @return ResponseEntity with a list of Actors and HTTP status code.
      */
-    @GetMapping("/actors/search")
+    @GetMapping(value = "/actors/search", params = { "first_name", "!last_name", "!name", "!after", "!limit",
+            "!fields" })
     public ResponseEntity<List<Actor>> getActorByFirstName(@RequestParam("first_name") String first_name) {
         try {
-            List<Actor> actors = actorService.findActorByFirstName(first_name);
+            ActorPage page = actorService.findActorByFirstName(first_name);
+            List<Actor> actors = page.getActors();
 
             if (actors.isEmpty()) {
                 return new ResponseEntity<>(HttpStatus.NO_CONTENT);
             }
+            if (page.getNext_cursor() != null) {
+                String next = UriComponentsBuilder.fromPath("/api/v2/actors/search")
+                        .queryParam("first_name", first_name).queryParam("after", page.getNext_cursor())
+                        .queryParam("limit", actors.size()).encode().toUriString();
+                return ResponseEntity.ok().header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"").body(actors);
+            }
             return new ResponseEntity<>(actors, HttpStatus.OK);
 
         } catch (Exception e) {
@@ -178,4 +374,477 @@ public class ActorController {
         }
 
     }
+
+    /**
+     * Handles a GET request to "/api/v2/actors?after={actor_id}&limit={limit}"
+     * and returns one page of Actors ordered by id, together with the cursor of
+     * the next page.
+     * 
+     * The ETag of a page is derived from the count and latest last_update of
+     * the rows read for it. A conditional request reads only those through the
+     * primary key range of the page first, and the page when it is stale.
+     * 
+     * With `fields=actor_id,first_name` only the listed columns are selected
+     * and each Actor holds only those fields.
+     * 
+     * @param after   the actor id after which the page starts
+     * @param limit   the maximum number of Actors in the page
+     * @param fields  the comma separated fields to return, or all of them
+     * @param headers the request headers, checked for conditional requests and
+     *                the accepted encodings
+     * @return ResponseEntity with a page of Actors and HTTP status code.
+     */
+    @GetMapping("/actors")
+    public ResponseEntity<?> getActorsPage(@RequestParam(value = "after", defaultValue = "0") int after,
+            @RequestParam(value = "limit", defaultValue = "100") int limit,
+            @RequestParam(value = "fields", required = false) String fields, @RequestHeader HttpHeaders headers) {
+        if (after < 0 || limit < 1) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        ActorStreamFormat format = ActorStreamFormat.negotiateDocument(headers.getAccept());
+        if (format == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_ACCEPTABLE);
+        }
+        try {
+            Set<ActorField> selected = fields == null ? null : ActorField.parse(fields);
+            if (ActorETags.isConditional(headers)) {
+                ActorTableVersion version = actorService.findActorsPageVersion(after, limit);
+                String etag = ActorETags.of(ActorETags.of(version), format);
+                if (ActorETags.notModified(headers, etag, ActorETags.lastModified(version.getLast_update()))) {
+                    return notModified(etag, version.getLast_update());
+                }
+            }
+            if (selected != null) {
+                ActorProjectionPage page = actorService.findActorsPage(selected, after, limit);
+                return validated(ResponseEntity.ok(), ActorETags.of(ActorETags.of(page.getVersion()), format),
+                        page.getVersion().getLast_update()).contentType(format.getMediaType()).body(page);
+            }
+            ActorPage page = actorService.findActorsPage(after, limit);
+            return validated(ResponseEntity.ok(), ActorETags.of(ActorETags.of(page.getVersion()), format),
+                    page.getVersion().getLast_update()).contentType(format.getMediaType()).body(page);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Handles a GET request to "/api/v2/actors/stream" and writes all Actors,
+     * serializing each row as soon as it is read from the database so memory
+     * use does not grow with the table size.
+     * 
+     * The encoding follows the Accept header: a JSON array by default, NDJSON
+     * with one Actor per line, CSV with a header line, or a CBOR or Smile
+     * array, which are smaller and cheaper to write. Other media types are
+     * answered with 406 Not Acceptable. If the query fails part way the array
+     * is left open and the response aborted, so a client cannot mistake a
+     * truncated stream for a complete one.
+     * 
+     * The headers are sent before any row is read, so only a conditional
+     * request, which reads the version of the table first, gets an ETag and a
+     * Last-Modified date; they are the ones "/api/v2/actors" returns, with the
+     * suffix of the encoding for all but JSON.
+     * 
+     * @param headers the request headers, checked for conditional requests and
+     *                the accepted encodings
+     * @return ResponseEntity with the streamed body and HTTP status code.
+     */
+    @GetMapping("/actors/stream")
+    public ResponseEntity<StreamingResponseBody> streamAllActors(@RequestHeader HttpHeaders headers) {
+        ActorStreamFormat format = ActorStreamFormat.negotiate(headers.getAccept());
+        if (format == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_ACCEPTABLE);
+        }
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (ActorETags.isConditional(headers)) {
+            ActorTableVersion version = actorService.findActorsVersion();
+            String etag = ActorETags.of(ActorETags.of(version), format);
+            if (ActorETags.notModified(headers, etag, ActorETags.lastModified(version.getLast_update()))) {
+                return notModified(etag, version.getLast_update());
+            }
+            validated(builder, etag, version.getLast_update());
+        }
+        if (format == ActorStreamFormat.CSV) {
+            StreamingResponseBody body = outputStream -> {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+                writer.write(ActorCsv.HEADER);
+                writer.write("\r\n");
+                actorService.streamAllActors(actor -> {
+                    try {
+                        ActorCsv.write(actor, writer);
+                    } catch (IOException e) {
+                        QueryCancellation.cancelCurrent();
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                writer.flush();
+            };
+            return builder.varyBy(HttpHeaders.ACCEPT).contentType(format.getMediaType()).body(body);
+        }
+        ObjectMapper mapper = mapperFor(format);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = mapper.getFactory().createGenerator(outputStream)) {
+                // a failed query must leave the array open, not look complete
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+                if (format == ActorStreamFormat.NDJSON) {
+                    generator.setRootValueSeparator(null);
+                } else {
+                    generator.writeStartArray();
+                }
+                actorService.streamAllActors(actor -> {
+                    try {
+                        generator.writeObject(actor);
+                        if (format == ActorStreamFormat.NDJSON) {
+                            generator.writeRaw('\n');
+                        }
+                    } catch (IOException e) {
+                        QueryCancellation.cancelCurrent();
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                if (format != ActorStreamFormat.NDJSON) {
+                    generator.writeEndArray();
+                }
+            }
+        };
+        return builder.varyBy(HttpHeaders.ACCEPT).contentType(format.getMediaType()).body(body);
+    }
+
+    /**
+     * Handles a POST request to "/api/v2/actors/import" and inserts the Actors
+     * of a CSV or NDJSON upload, as exported by "/api/v2/actors/stream".
+     * 
+     * The upload is parsed one row at a time while it arrives and the valid
+     * rows are inserted in chunks, so uploads of any size are imported with
+     * constant memory. A CSV upload starts with a header line naming at least
+     * the first_name and last_name columns; other columns, such as actor_id
+     * and last_update, are ignored and new ids are assigned. Invalid rows are
+     * skipped and reported with their line.
+     * 
+     * The chunks inserted before a failure stay committed, so a failed import
+     * still answers with what it imported and the line it stopped at, with
+     * 400 Bad Request for an unusable upload or 500 otherwise. A CSV record
+     * that cannot be parsed, such as an unclosed quote, fails the import at
+     * its line.
+     * 
+     * @param headers the request headers, holding the content type
+     * @param body    the upload
+     * @return ResponseEntity with the counts of imported and rejected rows and
+     *         HTTP status code.
+     */
+    @PostMapping(value = "/actors/import", consumes = { "text/csv", MediaType.APPLICATION_NDJSON_VALUE })
+    public ResponseEntity<ActorImportResult> importActors(@RequestHeader HttpHeaders headers, InputStream body) {
+        MediaType contentType = headers.getContentType();
+        Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+        ActorImport actorImport = actorService.startImport();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, charset))) {
+            if (contentType.isCompatibleWith(MediaType.APPLICATION_NDJSON)) {
+                importNdjson(reader, actorImport);
+            } else {
+                importCsv(reader, actorImport);
+            }
+            return new ResponseEntity<>(actorImport.finish(), HttpStatus.OK);
+        } catch (MalformedUploadException e) {
+            return new ResponseEntity<>(actorImport.fail(e.getLine(), e.getMessage()), HttpStatus.BAD_REQUEST);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(actorImport.fail(), HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return new ResponseEntity<>(actorImport.fail(), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Handles a POST request to "/api/v2/actors/batch" and creates the Actors in
+     * the request body using batched inserts.
+     * 
+     * @param actors
+     * @return ResponseEntity with the outcome of each row and HTTP status code.
+     */
+    @PostMapping("/actors/batch")
+    public ResponseEntity<ActorBatchResult> createActors(@RequestBody List<Actor> actors) {
+        if (actors.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        try {
+            return new ResponseEntity<>(actorService.createActors(actors), HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Handles a PUT request to "/api/v2/actors/batch" and updates the Actors in
+     * the request body, matched by id, using batched updates.
+     * 
+     * @param actors
+     * @return ResponseEntity with the outcome of each row and HTTP status code.
+     */
+    @PutMapping("/actors/batch")
+    public ResponseEntity<ActorBatchResult> updateActors(@RequestBody List<Actor> actors) {
+        if (actors.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        try {
+            return new ResponseEntity<>(actorService.updateActors(actors), HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Handles a DELETE request to "/api/v2/actors/batch" and deletes the Actors
+     * whose ids are listed in the request body using batched deletes.
+     * 
+     * @param actor_ids
+     * @return ResponseEntity with the outcome of each row and HTTP status code.
+     */
+    @DeleteMapping("/actors/batch")
+    public ResponseEntity<ActorBatchResult> deleteActors(@RequestBody List<Integer> actor_ids) {
+        if (actor_ids.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        try {
+            return new ResponseEntity<>(actorService.deleteActorsById(actor_ids), HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Handles a GET request to "/api/v2/actors/search" and returns one page of
+     * Actors whose first name, last name or full name starts with the given
+     * text, together with the cursor of the next page.
+     * 
+     * The full name is split at the first space into a first name and a last
+     * name prefix.
+     * 
+     * @param first_name the first name prefix
+     * @param last_name  the last name prefix
+     * @param name       the full name prefix
+     * @param after      the cursor returned with the previous page
+     * @param limit      the maximum number of Actors in the page
+     * @param fields     the comma separated fields to return, or all of them
+     * @return ResponseEntity with a page of Actors and HTTP status code.
+     */
+    @GetMapping("/actors/search")
+    public ResponseEntity<?> searchActors(
+            @RequestParam(value = "first_name", required = false) String first_name,
+            @RequestParam(value = "last_name", required = false) String last_name,
+            @RequestParam(value = "name", required = false) String name,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", defaultValue = "50") int limit,
+            @RequestParam(value = "fields", required = false) String fields) {
+        if (name != null && !name.isBlank()) {
+            String[] parts = name.trim().split("\\s+", 2);
+            first_name = parts[0];
+            last_name = parts.length > 1 ? parts[1] : null;
+        }
+        if (first_name != null && first_name.isBlank()) {
+            first_name = null;
+        }
+        if (last_name != null && last_name.isBlank()) {
+            last_name = null;
+        }
+        if ((first_name == null && last_name == null) || limit < 1) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        try {
+            if (fields != null) {
+                return new ResponseEntity<>(actorService.searchActors(ActorField.parse(fields), first_name,
+                        last_name, after, limit), HttpStatus.OK);
+            }
+            return new ResponseEntity<>(actorService.searchActors(first_name, last_name, after, limit),
+                    HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Handles a GET request to
+     * "/api/v2/actors/counts/first-name?prefix_length={length}" and returns the
+     * number of Actors whose first name starts with each prefix of that length,
+     * ignoring case. The counting is done by the database, so no Actor is read.
+     * 
+     * @param prefix_length the number of letters of the prefixes
+     * @return ResponseEntity with the count of each prefix and HTTP status code.
+     */
+    @GetMapping("/actors/counts/first-name")
+    public ResponseEntity<List<ActorCount>> countActorsByFirstName(
+            @RequestParam(value = "prefix_length", defaultValue = "1") int prefix_length) {
+        try {
+            return new ResponseEntity<>(actorService.countActorsByFirstNamePrefix(prefix_length), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Handles a GET request to "/api/v2/actors/counts/last-update-date" and
+     * returns the number of Actors last updated on each date. The counting is
+     * done by the database, so no Actor is read.
+     * 
+     * @return ResponseEntity with the count of each date and HTTP status code.
+     */
+    @GetMapping("/actors/counts/last-update-date")
+    public ResponseEntity<List<ActorCount>> countActorsByLastUpdateDate() {
+        try {
+            return new ResponseEntity<>(actorService.countActorsByLastUpdateDate(), HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Adds the ETag and, when known, the Last-Modified header to a response,
+     * with Vary: Accept since every response carrying them is negotiated and
+     * its tag depends on the encoding.
+     * 
+     * @param builder     the response being built
+     * @param etag        the entity tag of the response
+     * @param last_update the last update time of the response, or null
+     * @return the builder with the validators set
+     */
+    private static ResponseEntity.BodyBuilder validated(ResponseEntity.BodyBuilder builder, String etag,
+            LocalDateTime last_update) {
+        builder.eTag(etag).varyBy(HttpHeaders.ACCEPT);
+        if (last_update != null) {
+            builder.lastModified(ActorETags.lastModified(last_update));
+        }
+        return builder;
+    }
+
+    /**
+     * Adds the Actors of an NDJSON upload to the import, one per non-blank
+     * line.
+     * 
+     * @param reader      the reader of the upload
+     * @param actorImport the import the rows are added to
+     * @throws IOException if reading the upload fails
+     */
+    private void importNdjson(BufferedReader reader, ActorImport actorImport) throws IOException {
+        ObjectReader actorReader = objectMapper.readerFor(Actor.class);
+        long line = 0;
+        String text;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            Actor actor;
+            try {
+                actor = actorReader.readValue(text);
+            } catch (JsonProcessingException e) {
+                actorImport.reject(line, "Malformed JSON");
+                continue;
+            }
+            actorImport.add(line, actor);
+        }
+    }
+
+    /**
+     * Adds the Actors of a CSV upload to the import, one per record after the
+     * header.
+     * 
+     * @param reader      the reader of the upload
+     * @param actorImport the import the rows are added to
+     * @throws IOException              if reading the upload fails
+     * @throws IllegalArgumentException if the header does not name the
+     *                                  first_name and last_name columns
+     * @throws MalformedUploadException if a record cannot be parsed
+     */
+    private static void importCsv(BufferedReader reader, ActorImport actorImport) throws IOException {
+        List<String> header = ActorCsv.read(reader);
+        int firstName = header == null ? -1 : indexOf(header, "first_name");
+        int lastName = header == null ? -1 : indexOf(header, "last_name");
+        if (firstName < 0 || lastName < 0) {
+            throw new IllegalArgumentException("The CSV header must name first_name and last_name");
+        }
+        long line = 1;
+        while (true) {
+            List<String> record;
+            try {
+                record = ActorCsv.read(reader);
+            } catch (IllegalArgumentException e) {
+                throw new MalformedUploadException(line + 1, e.getMessage());
+            }
+            if (record == null) {
+                return;
+            }
+            line++;
+            if (record.size() == 1 && record.get(0).isEmpty()) {
+                continue;
+            }
+            if (record.size() != header.size()) {
+                actorImport.reject(line, "Expected " + header.size() + " fields but found " + record.size());
+                continue;
+            }
+            Actor actor = new Actor();
+            actor.setFirst_name(record.get(firstName));
+            actor.setLast_name(record.get(lastName));
+            actorImport.add(line, actor);
+        }
+    }
+
+    private static int indexOf(List<String> header, String column) {
+        for (int i = 0; i < header.size(); i++) {
+            if (header.get(i).trim().equalsIgnoreCase(column)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the object mapper that writes the given stream format.
+     * 
+     * @param format the negotiated format
+     * @return the mapper configured by Spring Boot for that encoding
+     */
+    private ObjectMapper mapperFor(ActorStreamFormat format) {
+        switch (format) {
+            case CBOR:
+                return cborHttpMessageConverter.getObjectMapper();
+            case SMILE:
+                return smileHttpMessageConverter.getObjectMapper();
+            default:
+                return objectMapper;
+        }
+    }
+
+    /**
+     * Builds a 304 Not Modified response carrying the current validators.
+     * 
+     * @param etag        the current entity tag of the resource
+     * @param last_update the current last update time of the resource, or null
+     * @return ResponseEntity with no body and HTTP status code 304.
+     */
+    private static <T> ResponseEntity<T> notModified(String etag, LocalDateTime last_update) {
+        return validated(ResponseEntity.status(HttpStatus.NOT_MODIFIED), etag, last_update).build();
+    }
+
+    /**
+     * Thrown when a line of an upload cannot be parsed, which ends the
+     * import at that line.
+     */
+    private static final class MalformedUploadException extends IllegalArgumentException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long line;
+
+        MalformedUploadException(long line, String message) {
+            super(message);
+            this.line = line;
+        }
+
+        long getLine() {
+            return line;
+        }
+    }
 }
@@ -0,0 +1,133 @@
+package com.accesodatos.springbootjdbctemplate.controller;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.accesodatos.springbootjdbctemplate.models.Actor;
+
+/**
+ * Reading and writing of actors as CSV (RFC 4180): comma separated fields,
+ * quoted with double quotes when they hold a comma, a quote or a line break,
+ * with quotes inside quoted fields doubled, and records ending in CRLF or LF.
+ *
+ * The export writes a header line followed by one record per actor; the
+ * import reads records one at a time, so neither holds more than one row.
+ * Records longer than {@link #MAX_RECORD_LENGTH} are refused, so a stray
+ * quote cannot make the import buffer the rest of the upload as one field.
+ *
+ * @author AccesoDatos
+ */
+final class ActorCsv {
+
+    /**
+     * The header line of the export, naming the columns in the order they
+     * are written.
+     */
+    static final String HEADER = "actor_id,first_name,last_name,last_update";
+
+    /**
+     * The longest record read, in characters: a few times the length of the
+     * columns of an exported actor.
+     */
+    static final int MAX_RECORD_LENGTH = 1024;
+
+    private ActorCsv() {
+    }
+
+    /**
+     * Writes one actor as a record.
+     *
+     * @param actor  the actor to write
+     * @param writer the writer of the export
+     * @throws IOException if writing fails
+     */
+    static void write(Actor actor, Writer writer) throws IOException {
+        writer.write(Integer.toString(actor.getActor_id()));
+        writer.write(',');
+        writeField(actor.getFirst_name(), writer);
+        writer.write(',');
+        writeField(actor.getLast_name(), writer);
+        writer.write(',');
+        if (actor.getLast_update() != null) {
+            writer.write(actor.getLast_update().toString());
+        }
+        writer.write("\r\n");
+    }
+
+    private static void writeField(String value, Writer writer) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @param reader the reader of the upload, buffered by the caller
+     * @return the fields of the record, or null at the end of the input
+     * @throws IOException              if reading fails
+     * @throws IllegalArgumentException if a quoted field is not closed or
+     *                                  the record is longer than
+     *                                  {@link #MAX_RECORD_LENGTH}
+     */
+    static List<String> read(Reader reader) throws IOException {
+        int c = reader.read();
+        if (c < 0) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int length = 0;
+        while (true) {
+            if (++length > MAX_RECORD_LENGTH) {
+                throw new IllegalArgumentException("Record longer than " + MAX_RECORD_LENGTH + " characters");
+            }
+            if (quoted) {
+                if (c < 0) {
+                    throw new IllegalArgumentException("Unclosed quoted field");
+                }
+                if (c == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        reader.reset();
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n' || c < 0) {
+                if (c == '\r') {
+                    reader.mark(1);
+                    if (reader.read() != '\n') {
+                        reader.reset();
+                    }
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+    }
+}
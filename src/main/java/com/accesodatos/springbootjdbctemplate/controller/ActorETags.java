@@ -0,0 +1,158 @@
+package com.accesodatos.springbootjdbctemplate.controller;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.http.HttpHeaders;
+
+import com.accesodatos.springbootjdbctemplate.models.Actor;
+import com.accesodatos.springbootjdbctemplate.models.ActorTableVersion;
+
+/**
+ * Builds and reads the strong entity tags of actors and actor collections.
+ *
+ * The tag of an actor is its id and its last_update value, so it changes
+ * whenever the row is written. The timestamp is encoded as seconds and
+ * nanoseconds so it can be read back exactly for conditional updates. The tag
+ * of a collection is the row count and latest last_update of the table, which
+ * change with every insert, update or delete.
+ *
+ * The same data has one tag per encoding, since JSON, CBOR and Smile bodies
+ * differ byte for byte: JSON bodies carry the tag as is and the other
+ * formats append their name, as in "5-1767225600.0-cbor". A conditional
+ * update accepts the tag of any encoding of the actor.
+ */
+final class ActorETags {
+
+    private static final Pattern ETAG = Pattern.compile("\"(\\d+)-(-?\\d+)\\.(\\d+)(?:-[a-z]+)?\"");
+
+    /**
+     * The last update time used in the tag of an empty collection.
+     */
+    private static final LocalDateTime EMPTY = LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC);
+
+    private ActorETags() {
+    }
+
+    /**
+     * Returns the entity tag of the given actor.
+     *
+     * @param actor the actor
+     * @return the quoted entity tag
+     */
+    static String of(Actor actor) {
+        return of(actor.getActor_id(), actor.getLast_update());
+    }
+
+    /**
+     * Returns the entity tag of an actor with the given id and last update time.
+     *
+     * @param actor_id    the id of the actor
+     * @param last_update the last update time of the actor
+     * @return the quoted entity tag
+     */
+    static String of(int actor_id, LocalDateTime last_update) {
+        return "\"" + actor_id + "-" + last_update.toEpochSecond(ZoneOffset.UTC) + "." + last_update.getNano()
+                + "\"";
+    }
+
+    /**
+     * Returns the entity tag of collections read from the table in the given
+     * version.
+     *
+     * @param version the version of the actor table
+     * @return the quoted entity tag
+     */
+    static String of(ActorTableVersion version) {
+        LocalDateTime last_update = version.getLast_update() == null ? EMPTY : version.getLast_update();
+        return "\"actors-" + version.getCount() + "-" + last_update.toEpochSecond(ZoneOffset.UTC) + "."
+                + last_update.getNano() + "\"";
+    }
+
+    /**
+     * Returns the entity tag of the given encoding of a representation.
+     *
+     * @param etag   the quoted entity tag of the JSON encoding
+     * @param format the encoding of the response body
+     * @return the quoted entity tag of that encoding
+     */
+    static String of(String etag, ActorStreamFormat format) {
+        if (format == ActorStreamFormat.JSON) {
+            return etag;
+        }
+        return etag.substring(0, etag.length() - 1) + "-" + format.getETagSuffix() + "\"";
+    }
+
+    /**
+     * Returns the last update time as the milliseconds used by Last-Modified.
+     *
+     * @param last_update the last update time, stored in UTC, or null
+     * @return the epoch milliseconds, or -1 if there is no last update time
+     */
+    static long lastModified(LocalDateTime last_update) {
+        return last_update == null ? -1 : last_update.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    /**
+     * Tells whether the request carries an If-None-Match or If-Modified-Since
+     * header, so the version of the resource is worth reading before the
+     * resource itself.
+     *
+     * @param request the headers of the request
+     * @return true if the request is conditional
+     */
+    static boolean isConditional(HttpHeaders request) {
+        return request.containsKey(HttpHeaders.IF_NONE_MATCH) || request.containsKey(HttpHeaders.IF_MODIFIED_SINCE);
+    }
+
+    /**
+     * Tells whether a GET request can be answered with 304 Not Modified.
+     *
+     * If-None-Match uses the weak comparison and takes precedence over
+     * If-Modified-Since, which is compared at the one second precision of
+     * Last-Modified. Malformed headers never match.
+     *
+     * @param request      the headers of the request
+     * @param etag         the current entity tag of the resource
+     * @param lastModified the current Last-Modified milliseconds, or -1
+     * @return true if the client's copy is still current
+     */
+    static boolean notModified(HttpHeaders request, String etag, long lastModified) {
+        try {
+            List<String> ifNoneMatch = request.getIfNoneMatch();
+            if (!ifNoneMatch.isEmpty()) {
+                for (String tag : ifNoneMatch) {
+                    String opaque = tag.startsWith("W/") ? tag.substring(2) : tag;
+                    if (opaque.equals("*") || opaque.equals(etag)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            long ifModifiedSince = request.getIfModifiedSince();
+            return ifModifiedSince >= 0 && lastModified >= 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Reads the last update time from an entity tag of the given actor.
+     *
+     * @param etag     the entity tag sent by the client
+     * @param actor_id the id of the actor the tag must belong to
+     * @return the last update time, or null if the tag is weak, malformed or
+     *         belongs to another actor
+     */
+    static LocalDateTime lastUpdateOf(String etag, int actor_id) {
+        Matcher matcher = ETAG.matcher(etag.trim());
+        if (!matcher.matches() || Integer.parseInt(matcher.group(1)) != actor_id) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Long.parseLong(matcher.group(2)), Integer.parseInt(matcher.group(3)),
+                ZoneOffset.UTC);
+    }
+}
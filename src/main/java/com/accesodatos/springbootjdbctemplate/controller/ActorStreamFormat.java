@@ -0,0 +1,114 @@
+package com.accesodatos.springbootjdbctemplate.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * The encodings the actor stream can be written in, chosen from the Accept
+ * header of the request.
+ *
+ * JSON, CBOR and Smile write a single array of actors; NDJSON writes one JSON
+ * actor per line and CSV one record per actor after a header line, so clients
+ * can process rows as they arrive. JSON, CBOR and Smile are also the
+ * encodings of the single documents the other actor endpoints return.
+ *
+ * @author AccesoDatos
+ */
+enum ActorStreamFormat {
+
+    JSON(MediaType.APPLICATION_JSON),
+    NDJSON(MediaType.APPLICATION_NDJSON),
+    CBOR(MediaType.APPLICATION_CBOR),
+    SMILE(new MediaType("application", "x-jackson-smile")),
+    CSV(new MediaType("text", "csv", StandardCharsets.UTF_8));
+
+    private final MediaType mediaType;
+
+    ActorStreamFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    /**
+     * Returns the content type of the format.
+     *
+     * @return the media type written in the Content-Type header
+     */
+    MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Returns the suffix that tells the entity tags of this format apart from
+     * those of the other formats of the same data.
+     *
+     * @return the lower case name of the format
+     */
+    String getETagSuffix() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Picks the format of the actor stream for a request.
+     *
+     * @param accept the media types of the Accept header
+     * @return the format to write, or null if none of them is accepted
+     * @see #negotiate(List, Set)
+     */
+    static ActorStreamFormat negotiate(List<MediaType> accept) {
+        return negotiate(accept, EnumSet.allOf(ActorStreamFormat.class));
+    }
+
+    /**
+     * Picks the encoding of a single document, JSON, CBOR or Smile, for a
+     * request.
+     *
+     * @param accept the media types of the Accept header
+     * @return the format to write, or null if none of them is accepted
+     * @see #negotiate(List, Set)
+     */
+    static ActorStreamFormat negotiateDocument(List<MediaType> accept) {
+        return negotiate(accept, EnumSet.of(JSON, CBOR, SMILE));
+    }
+
+    /**
+     * Picks one of the given formats for a request, trying the accepted media
+     * types from the highest to the lowest quality and, for equal qualities,
+     * from the most to the least specific. A format that a media type with
+     * q=0 covers is never picked. A request without an Accept header gets
+     * JSON.
+     *
+     * @param accept  the media types of the Accept header
+     * @param formats the formats the endpoint can write
+     * @return the format to write, or null if none of them is accepted
+     */
+    private static ActorStreamFormat negotiate(List<MediaType> accept, Set<ActorStreamFormat> formats) {
+        if (accept.isEmpty()) {
+            return JSON;
+        }
+        Set<ActorStreamFormat> candidates = EnumSet.copyOf(formats);
+        List<MediaType> sorted = new ArrayList<>(accept.size());
+        for (MediaType mediaType : accept) {
+            if (mediaType.getQualityValue() == 0) {
+                candidates.removeIf(format -> mediaType.includes(format.mediaType));
+            } else {
+                sorted.add(mediaType);
+            }
+        }
+        MimeTypeUtils.sortBySpecificity(sorted);
+        for (MediaType mediaType : sorted) {
+            for (ActorStreamFormat format : candidates) {
+                if (mediaType.isCompatibleWith(format.mediaType)) {
+                    return format;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,55 @@
+package com.accesodatos.springbootjdbctemplate.controller;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.accesodatos.springbootjdbctemplate.models.WriteStatus;
+import com.accesodatos.springbootjdbctemplate.service.ActorWriteBehindQueue;
+
+/**
+ * This is a Spring RESTful web service controller class, responsible for
+ * reporting the status of actor inserts accepted by the write-behind queue.
+ *
+ * The controller is only registered when the {@link ActorWriteBehindQueue}
+ * is active.
+ */
+
+@RestController
+@RequestMapping("/api/v2")
+@ConditionalOnWebApplication(type = Type.SERVLET)
+@ConditionalOnProperty(name = "actors.write-behind.enabled", havingValue = "true")
+public class ActorWriteController {
+
+    @Autowired
+    ActorWriteBehindQueue actorWriteBehindQueue;
+
+    /**
+     * Handles a GET request to "/api/v2/actors/writes/{id}" and returns the
+     * status of the queued insert with the specified tracking id.
+     *
+     * @param id the tracking id returned when the actor was accepted
+     * @return ResponseEntity with the status and HTTP status code.
+     */
+    @GetMapping("/actors/writes/{id}")
+    public ResponseEntity<Map<String, Object>> getWriteStatus(@PathVariable("id") String id) {
+        WriteStatus status = actorWriteBehindQueue.findStatus(id);
+        if (status == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("id", id);
+        body.put("status", status);
+        return new ResponseEntity<>(body, HttpStatus.OK);
+    }
+}
@@ -0,0 +1,179 @@
+package com.accesodatos.springbootjdbctemplate.controller;
+
+import java.net.URI;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.accesodatos.springbootjdbctemplate.models.Actor;
+import com.accesodatos.springbootjdbctemplate.models.ActorPage;
+import com.accesodatos.springbootjdbctemplate.service.ReactiveActorService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * This is a Spring WebFlux controller class, the non-blocking counterpart of
+ * {@link ActorController} with the same "/api/v2" URLs, used in the
+ * `reactive` profile.
+ * 
+ * The class has the following methods:
+ * 
+ * 1. getAllActors
+ * 2. streamAllActors
+ * 3. createActor
+ * 4. getActorById
+ * 5. deleteActor
+ * 6. updateActor
+ * 7. getActorByFirstName
+ * 8. getActorsPage
+ * 
+ * Lists are written as each actor is read from the database, and the driver
+ * only reads further rows as the client consumes them, so backpressure
+ * reaches the database. "/api/v2/actors/stream" writes newline-delimited JSON
+ * (application/x-ndjson), one actor per line.
+ */
+
+@RestController
+@RequestMapping("/api/v2")
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+public class ReactiveActorController {
+
+    @Autowired
+    ReactiveActorService actorService;
+
+    /**
+     * Handles a GET request to "/api/v2/actors" without paging parameters and
+     * returns all Actors, as a JSON array or as NDJSON depending on the Accept
+     * header.
+     * 
+     * @return the Actors as they are read.
+     */
+    @GetMapping(value = "/actors", params = { "!after", "!limit" }, produces = { MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_NDJSON_VALUE })
+    public Flux<Actor> getAllActors() {
+        return actorService.findAllActors();
+    }
+
+    /**
+     * Handles a GET request to "/api/v2/actors/stream" and writes all Actors as
+     * newline-delimited JSON.
+     * 
+     * @return the Actors as they are read.
+     */
+    @GetMapping(value = "/actors/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Actor> streamAllActors() {
+        return actorService.findAllActors();
+    }
+
+    /**
+     * Handles a POST request to "/api/v2/actors" and creates a new Actor with the
+     * information provided in the request body.
+     * 
+     * @param actor
+     * @return 201 Created with the new Actor and its Location, or 500.
+     */
+    @PostMapping("/actors")
+    public Mono<ResponseEntity<Actor>> createActor(@RequestBody Actor actor) {
+        return actorService.createActor(actor)
+                .map(created -> ResponseEntity.created(URI.create("/api/v2/actors/" + created.getActor_id()))
+                        .eTag(ActorETags.of(created))
+                        .body(created))
+                .onErrorResume(e -> Mono.just(new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR)));
+    }
+
+    /**
+     * Handles a GET request to "/api/v2/actors/{actor_id}" and returns an Actor
+     * with the specified id, with its ETag.
+     * 
+     * @param actor_id
+     * @return the Actor, 404 or 500.
+     */
+    @GetMapping("/actors/{actor_id}")
+    public Mono<ResponseEntity<Actor>> getActorById(@PathVariable("actor_id") int actor_id) {
+        return actorService.findActorById(actor_id)
+                .map(actor -> ResponseEntity.ok().eTag(ActorETags.of(actor)).body(actor))
+                .defaultIfEmpty(new ResponseEntity<>(HttpStatus.NOT_FOUND))
+                .onErrorResume(e -> Mono.just(new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR)));
+    }
+
+    /**
+     * Handles a DELETE request to "/api/v2/actors/{actor_id}" and deletes the
+     * Actor with the specified id.
+     * 
+     * @param actor_id
+     * @return a message and HTTP status code.
+     */
+    @DeleteMapping("/actors/{actor_id}")
+    public Mono<ResponseEntity<String>> deleteActor(@PathVariable("actor_id") int actor_id) {
+        return actorService.deleteActorById(actor_id)
+                .map(rows -> rows == 0
+                        ? new ResponseEntity<>("Cannot find Actor with id = " + actor_id, HttpStatus.NOT_FOUND)
+                        : new ResponseEntity<>("Actor deleted successfully", HttpStatus.OK));
+    }
+
+    /**
+     * Handles a PUT request to "/api/v2/actors/{actor_id}" and updates the Actor
+     * with the specified id.
+     * 
+     * @param actor_id
+     * @param actor
+     * @return a message and HTTP status code.
+     */
+    @PutMapping("/actors/{actor_id}")
+    public Mono<ResponseEntity<String>> updateActor(@PathVariable("actor_id") int actor_id,
+            @RequestBody Actor actor) {
+        return actorService.updateActor(new Actor(actor_id, actor.getFirst_name(), actor.getLast_name()))
+                .map(updated -> updated
+                        ? new ResponseEntity<>("Actor updated succesfully", HttpStatus.OK)
+                        : new ResponseEntity<>("Cannot find Actor with id = " + actor_id, HttpStatus.NOT_FOUND))
+                .onErrorResume(e -> Mono.just(new ResponseEntity<>("Actor wasn't updated",
+                        HttpStatus.INTERNAL_SERVER_ERROR)));
+    }
+
+    /**
+     * Handles a GET request to "/api/v2/actors/search" with a first name and
+     * returns all Actors whose first name starts with it.
+     * 
+     * @param first_name
+     * @return the matching Actors as they are read.
+     */
+    @GetMapping(value = "/actors/search", params = "first_name")
+    public Flux<Actor> getActorByFirstName(@RequestParam("first_name") String first_name) {
+        return actorService.findActorByFirstName(first_name);
+    }
+
+    /**
+     * Handles a GET request to "/api/v2/actors?after={actor_id}&limit={limit}"
+     * and returns one page of Actors ordered by id, together with the cursor of
+     * the next page.
+     * 
+     * @param after the actor id after which the page starts
+     * @param limit the maximum number of Actors in the page
+     * @return the page of Actors, or 400 for invalid parameters.
+     */
+    @GetMapping("/actors")
+    public Mono<ResponseEntity<ActorPage>> getActorsPage(
+            @RequestParam(value = "after", defaultValue = "0") int after,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        if (after < 0 || limit < 1) {
+            return Mono.just(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+        }
+        return actorService.findActorsPage(after, limit)
+                .map(ResponseEntity::ok)
+                .onErrorResume(e -> Mono.just(new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR)));
+    }
+}
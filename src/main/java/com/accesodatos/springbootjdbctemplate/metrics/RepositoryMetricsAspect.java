@@ -0,0 +1,113 @@
+package com.accesodatos.springbootjdbctemplate.metrics;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.stream.Collectors;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.accesodatos.springbootjdbctemplate.repository.JdbcRepository;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * An aspect that records metrics for every call to a {@link JdbcRepository}
+ * implementation.
+ *
+ * Each call is timed into the `actors.repository` timer, tagged with the
+ * implementing class, the method and whether it threw. Calls that return a
+ * collection also record its size into the `actors.repository.rows`
+ * distribution. Calls slower than `actors.metrics.slow-query-threshold` are
+ * logged as warnings together with their arguments, where collections are
+ * summarized by their size.
+ *
+ * Percentiles and histograms for these meters are configured in
+ * application.properties.
+ *
+ * @author AccesoDatos
+ *
+ * @see JdbcRepository
+ */
+@Aspect
+@Component
+public class RepositoryMetricsAspect {
+
+    private static final Logger log = LoggerFactory.getLogger(RepositoryMetricsAspect.class);
+
+    /**
+     * The registry the repository meters are registered in.
+     */
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * The duration above which a repository call is logged as slow.
+     */
+    @Value("${actors.metrics.slow-query-threshold:500ms}")
+    private Duration slowQueryThreshold;
+
+    /**
+     * Times a repository call and records the number of rows it returned.
+     *
+     * @param joinPoint the intercepted repository call
+     * @return the result of the call
+     * @throws Throwable whatever the call throws
+     */
+    @Around("execution(* com.accesodatos.springbootjdbctemplate.repository.JdbcRepository+.*(..))")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        String repository = joinPoint.getTarget().getClass().getSimpleName();
+        String method = joinPoint.getSignature().getName();
+        String exception = "none";
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            if (result instanceof Collection) {
+                DistributionSummary.builder("actors.repository.rows")
+                        .tag("repository", repository)
+                        .tag("method", method)
+                        .register(meterRegistry)
+                        .record(((Collection<?>) result).size());
+            }
+            return result;
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            Timer.builder("actors.repository")
+                    .tag("repository", repository)
+                    .tag("method", method)
+                    .tag("exception", exception)
+                    .register(meterRegistry)
+                    .record(Duration.ofNanos(elapsed));
+            if (elapsed > slowQueryThreshold.toNanos()) {
+                log.warn("Slow repository call {}.{} took {} ms with arguments {}", repository, method,
+                        elapsed / 1_000_000, describe(joinPoint.getArgs()));
+            }
+        }
+    }
+
+    /**
+     * Describes the arguments of a call for the slow-query log without
+     * printing whole batches.
+     *
+     * @param args the arguments of the call
+     * @return a short description of the arguments
+     */
+    private static String describe(Object[] args) {
+        return Arrays.stream(args)
+                .map(arg -> arg instanceof Collection ? "[" + ((Collection<?>) arg).size() + " items]"
+                        : String.valueOf(arg))
+                .collect(Collectors.joining(", "));
+    }
+}
@@ -1,5 +1,7 @@
 package com.accesodatos.springbootjdbctemplate.models;
 
+import java.time.LocalDateTime;
+
 /**
  * The actor class is a model class that represents
  * the actor table in the database.
@@ -22,7 +24,7 @@ public class Actor {
     private int actor_id;
     private String first_name;
     private String last_name;
-    private String last_update;
+    private LocalDateTime last_update;
 
     /**
      * Constructs a new `Actor` object with specified values.
@@ -41,7 +43,7 @@ public class Actor {
      *                    updated.
      */
 
-    public Actor(int actor_id, String first_name, String last_name, String last_update) {
+    public Actor(int actor_id, String first_name, String last_name, LocalDateTime last_update) {
         this.actor_id = actor_id;
         this.first_name = first_name;
         this.last_name = last_name;
@@ -141,7 +143,7 @@ public class Actor {
      * @return The date and time when the actor's information was last updated.
      */
 
-    public String getLast_update() {
+    public LocalDateTime getLast_update() {
         return last_update;
     }
 
@@ -152,7 +154,7 @@ public class Actor {
      *                    updated.
      */
 
-    public void setLast_update(String last_update) {
+    public void setLast_update(LocalDateTime last_update) {
         this.last_update = last_update;
     }
 
@@ -0,0 +1,115 @@
+package com.accesodatos.springbootjdbctemplate.models;
+
+import java.util.List;
+
+/**
+ * The actor batch result class is a model class that represents
+ * the outcome of a batch write, row by row.
+ *
+ * @author AccesoDatos
+ * @version 1.0
+ */
+
+public class ActorBatchResult {
+
+    /**
+     * The succeeded and failed fields count the rows with status OK and the
+     * rows with any other status.
+     *
+     * The rows are the outcomes of each row, in request order.
+     */
+
+    private int succeeded;
+    private int failed;
+    private List<ActorBatchRow> rows;
+
+    /**
+     * Constructs a new empty `ActorBatchResult` object.
+     */
+
+    public ActorBatchResult() {
+    }
+
+    /**
+     * Constructs a new `ActorBatchResult` object from the row outcomes.
+     *
+     * @param rows The outcomes of each row, in request order.
+     */
+
+    public ActorBatchResult(List<ActorBatchRow> rows) {
+        this.rows = rows;
+        this.succeeded = (int) rows.stream().filter(row -> "OK".equals(row.getStatus())).count();
+        this.failed = rows.size() - succeeded;
+    }
+
+    /**
+     * Returns the number of rows that succeeded.
+     *
+     * @return The number of rows that succeeded.
+     */
+
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    /**
+     * Sets the number of rows that succeeded.
+     *
+     * @param succeeded The number of rows that succeeded.
+     */
+
+    public void setSucceeded(int succeeded) {
+        this.succeeded = succeeded;
+    }
+
+    /**
+     * Returns the number of rows that did not succeed.
+     *
+     * @return The number of rows that did not succeed.
+     */
+
+    public int getFailed() {
+        return failed;
+    }
+
+    /**
+     * Sets the number of rows that did not succeed.
+     *
+     * @param failed The number of rows that did not succeed.
+     */
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    /**
+     * Returns the outcomes of each row.
+     *
+     * @return The outcomes of each row, in request order.
+     */
+
+    public List<ActorBatchRow> getRows() {
+        return rows;
+    }
+
+    /**
+     * Sets the outcomes of each row.
+     *
+     * @param rows The outcomes of each row, in request order.
+     */
+
+    public void setRows(List<ActorBatchRow> rows) {
+        this.rows = rows;
+    }
+
+    /**
+     * Returns a string representation of the batch result.
+     *
+     * @return A string representation of the batch result.
+     */
+
+    @Override
+    public String toString() {
+        return "ActorBatchResult [ succeeded=" + succeeded + ", failed=" + failed + ", rows=" + rows + " ]";
+    }
+}
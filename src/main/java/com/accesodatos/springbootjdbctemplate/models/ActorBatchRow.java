@@ -0,0 +1,117 @@
+package com.accesodatos.springbootjdbctemplate.models;
+
+/**
+ * The actor batch row class is a model class that represents
+ * the outcome of one row of a batch write.
+ *
+ * @author AccesoDatos
+ * @version 1.0
+ */
+
+public class ActorBatchRow {
+
+    /**
+     * The index is the position of the row in the request body.
+     *
+     * The actor_id is the ID of the actor the row refers to, the generated ID
+     * for inserts, or 0 for a row that was not inserted.
+     * The status is OK, NOT_FOUND, FAILED or INVALID for a row with a missing
+     * or too long name.
+     */
+
+    private int index;
+    private int actor_id;
+    private String status;
+
+    /**
+     * Constructs a new empty `ActorBatchRow` object.
+     */
+
+    public ActorBatchRow() {
+    }
+
+    /**
+     * Constructs a new `ActorBatchRow` object with the specified values.
+     *
+     * @param index    The position of the row in the request body.
+     * @param actor_id The ID of the actor the row refers to.
+     * @param status   The outcome of the row.
+     */
+
+    public ActorBatchRow(int index, int actor_id, String status) {
+        this.index = index;
+        this.actor_id = actor_id;
+        this.status = status;
+    }
+
+    /**
+     * Returns the position of the row in the request body.
+     *
+     * @return The position of the row in the request body.
+     */
+
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Sets the position of the row in the request body.
+     *
+     * @param index The position of the row in the request body.
+     */
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    /**
+     * Returns the ID of the actor the row refers to.
+     *
+     * @return The ID of the actor the row refers to.
+     */
+
+    public int getActor_id() {
+        return actor_id;
+    }
+
+    /**
+     * Sets the ID of the actor the row refers to.
+     *
+     * @param actor_id The ID of the actor the row refers to.
+     */
+
+    public void setActor_id(int actor_id) {
+        this.actor_id = actor_id;
+    }
+
+    /**
+     * Returns the outcome of the row.
+     *
+     * @return The outcome of the row.
+     */
+
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * Sets the outcome of the row.
+     *
+     * @param status The outcome of the row.
+     */
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    /**
+     * Returns a string representation of the row outcome.
+     *
+     * @return A string representation of the row outcome.
+     */
+
+    @Override
+    public String toString() {
+        return "ActorBatchRow [ index=" + index + ", actor_id=" + actor_id + ", status=" + status + " ]";
+    }
+}
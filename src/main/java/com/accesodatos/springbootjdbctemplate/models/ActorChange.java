@@ -0,0 +1,114 @@
+package com.accesodatos.springbootjdbctemplate.models;
+
+import java.time.LocalDateTime;
+
+/**
+ * The actor change class is a model class that represents
+ * one mutation of the actor table, as returned by the change
+ * feed and pushed to its subscribers.
+ *
+ * @author AccesoDatos
+ * @version 1.0
+ */
+
+public class ActorChange {
+
+    /**
+     * The type is the kind of mutation.
+     *
+     * The actor_id is the ID of the changed actor.
+     *
+     * The first_name and last_name are the current names of the actor, or null
+     * when it was deleted.
+     *
+     * The changed_at is the last_update of the actor or the time it was
+     * deleted, or null when the database set it and it was not read back.
+     */
+
+    private ActorChangeType type;
+    private int actor_id;
+    private String first_name;
+    private String last_name;
+    private LocalDateTime changed_at;
+
+    /**
+     * Constructs a new `ActorChange` object with the specified values.
+     *
+     * @param type       The kind of mutation.
+     * @param actor_id   The ID of the changed actor.
+     * @param first_name The first name of the actor, or null if deleted.
+     * @param last_name  The last name of the actor, or null if deleted.
+     * @param changed_at The time of the change, or null if unknown.
+     */
+
+    public ActorChange(ActorChangeType type, int actor_id, String first_name, String last_name,
+            LocalDateTime changed_at) {
+        this.type = type;
+        this.actor_id = actor_id;
+        this.first_name = first_name;
+        this.last_name = last_name;
+        this.changed_at = changed_at;
+    }
+
+    /**
+     * Returns the kind of mutation.
+     *
+     * @return The kind of mutation.
+     */
+
+    public ActorChangeType getType() {
+        return type;
+    }
+
+    /**
+     * Returns the ID of the changed actor.
+     *
+     * @return The ID of the changed actor.
+     */
+
+    public int getActor_id() {
+        return actor_id;
+    }
+
+    /**
+     * Returns the first name of the actor.
+     *
+     * @return The first name of the actor, or null if it was deleted.
+     */
+
+    public String getFirst_name() {
+        return first_name;
+    }
+
+    /**
+     * Returns the last name of the actor.
+     *
+     * @return The last name of the actor, or null if it was deleted.
+     */
+
+    public String getLast_name() {
+        return last_name;
+    }
+
+    /**
+     * Returns the time of the change.
+     *
+     * @return The time of the change, or null if it is unknown.
+     */
+
+    public LocalDateTime getChanged_at() {
+        return changed_at;
+    }
+
+    /**
+     * Returns a string representation of the change.
+     *
+     * @return A string representation of the change.
+     */
+
+    @Override
+    public String toString() {
+        return "ActorChange [ type=" + type + ", actor_id=" + actor_id + ", first_name=" + first_name
+                + ", last_name=" + last_name + ", changed_at=" + changed_at + " ]";
+    }
+}
@@ -0,0 +1,84 @@
+package com.accesodatos.springbootjdbctemplate.models;
+
+import java.util.List;
+
+/**
+ * The actor change page class is a model class that represents
+ * one slice of the actor change feed.
+ *
+ * @author AccesoDatos
+ * @version 1.0
+ */
+
+public class ActorChangePage {
+
+    /**
+     * The changes are ordered by the time of the change and then by actor_id.
+     *
+     * The next_token is the value to pass as the `since` parameter to fetch
+     * the changes after this page. It is returned even when the page is empty,
+     * so a client can keep polling with it.
+     *
+     * The has_more flag is true when more changes are already available.
+     */
+
+    private List<ActorChange> changes;
+    private String next_token;
+    private boolean has_more;
+
+    /**
+     * Constructs a new `ActorChangePage` object with the specified values.
+     *
+     * @param changes    The changes of the page.
+     * @param next_token The token to resume the feed after this page.
+     * @param has_more   Whether more changes are already available.
+     */
+
+    public ActorChangePage(List<ActorChange> changes, String next_token, boolean has_more) {
+        this.changes = changes;
+        this.next_token = next_token;
+        this.has_more = has_more;
+    }
+
+    /**
+     * Returns the changes of the page.
+     *
+     * @return The changes of the page.
+     */
+
+    public List<ActorChange> getChanges() {
+        return changes;
+    }
+
+    /**
+     * Returns the token to resume the feed after this page.
+     *
+     * @return The token to pass as `since` on the next request.
+     */
+
+    public String getNext_token() {
+        return next_token;
+    }
+
+    /**
+     * Returns whether more changes are already available.
+     *
+     * @return true if the next request will return more changes right away.
+     */
+
+    public boolean isHas_more() {
+        return has_more;
+    }
+
+    /**
+     * Returns a string representation of the page.
+     *
+     * @return A string representation of the page.
+     */
+
+    @Override
+    public String toString() {
+        return "ActorChangePage [ changes=" + changes + ", next_token=" + next_token + ", has_more=" + has_more
+                + " ]";
+    }
+}
@@ -0,0 +1,28 @@
+package com.accesodatos.springbootjdbctemplate.models;
+
+/**
+ * The actor change type enum represents the kind of mutation an
+ * {@link ActorChange} reports.
+ *
+ * @author AccesoDatos
+ * @version 1.0
+ */
+
+public enum ActorChangeType {
+
+    /**
+     * The actor was inserted.
+     */
+    INSERTED,
+
+    /**
+     * The actor was updated, or, in the change feed, inserted or updated since
+     * the token, which `last_update` alone cannot tell apart.
+     */
+    UPDATED,
+
+    /**
+     * The actor was deleted.
+     */
+    DELETED
+}
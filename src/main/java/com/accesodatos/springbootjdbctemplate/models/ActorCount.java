@@ -0,0 +1,93 @@
+package com.accesodatos.springbootjdbctemplate.models;
+
+/**
+ * The actor count class is a model class that represents
+ * the number of actors in one group of an aggregate, such as
+ * the actors whose first name starts with the same letter.
+ *
+ * @author AccesoDatos
+ * @version 1.0
+ */
+
+public class ActorCount {
+
+    /**
+     * The group is the value the actors were grouped by, such as a first name
+     * prefix or a date.
+     *
+     * The count is the number of actors in the group.
+     */
+
+    private String group;
+    private long count;
+
+    /**
+     * Constructs a new empty `ActorCount` object.
+     */
+
+    public ActorCount() {
+    }
+
+    /**
+     * Constructs a new `ActorCount` object with the specified values.
+     *
+     * @param group The value the actors were grouped by.
+     * @param count The number of actors in the group.
+     */
+
+    public ActorCount(String group, long count) {
+        this.group = group;
+        this.count = count;
+    }
+
+    /**
+     * Returns the value the actors were grouped by.
+     *
+     * @return The group.
+     */
+
+    public String getGroup() {
+        return group;
+    }
+
+    /**
+     * Sets the value the actors were grouped by.
+     *
+     * @param group The group.
+     */
+
+    public void setGroup(String group) {
+        this.group = group;
+    }
+
+    /**
+     * Returns the number of actors in the group.
+     *
+     * @return The count.
+     */
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Sets the number of actors in the group.
+     *
+     * @param count The count.
+     */
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    /**
+     * Returns a string representation of the count.
+     *
+     * @return A string representation of the count.
+     */
+
+    @Override
+    public String toString() {
+        return "ActorCount [ group=" + group + ", count=" + count + " ]";
+    }
+}
@@ -0,0 +1,95 @@
+package com.accesodatos.springbootjdbctemplate.models;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The actor field enum represents one column of the actor table that a
+ * client can select with the `fields` parameter, so only the columns it
+ * needs are read and sent.
+ *
+ * @author AccesoDatos
+ * @version 1.0
+ */
+
+public enum ActorField {
+
+    /**
+     * The actor_id column.
+     */
+    ACTOR_ID("actor_id"),
+
+    /**
+     * The first_name column.
+     */
+    FIRST_NAME("first_name"),
+
+    /**
+     * The last_name column.
+     */
+    LAST_NAME("last_name"),
+
+    /**
+     * The last_update column.
+     */
+    LAST_UPDATE("last_update");
+
+    private final String column;
+
+    ActorField(String column) {
+        this.column = column;
+    }
+
+    /**
+     * Returns the name of the column, which is also the name of the field in
+     * the responses.
+     *
+     * @return The column name.
+     */
+
+    public String column() {
+        return column;
+    }
+
+    /**
+     * Returns the value of this field of the given actor.
+     *
+     * @param actor The actor.
+     * @return The value of the field.
+     */
+
+    public Object get(Actor actor) {
+        return switch (this) {
+            case ACTOR_ID -> actor.getActor_id();
+            case FIRST_NAME -> actor.getFirst_name();
+            case LAST_NAME -> actor.getLast_name();
+            case LAST_UPDATE -> actor.getLast_update();
+        };
+    }
+
+    /**
+     * Parses a comma separated list of column names.
+     *
+     * @param fields The column names, such as `actor_id,first_name`.
+     * @return The fields, in column order.
+     * @throws IllegalArgumentException if the list is empty or names an unknown
+     *                                  column.
+     */
+
+    public static Set<ActorField> parse(String fields) {
+        Set<ActorField> parsed = EnumSet.noneOf(ActorField.class);
+        for (String name : fields.split(",")) {
+            ActorField field = null;
+            for (ActorField candidate : values()) {
+                if (candidate.column.equalsIgnoreCase(name.trim())) {
+                    field = candidate;
+                }
+            }
+            if (field == null) {
+                throw new IllegalArgumentException("Unknown field: " + name.trim());
+            }
+            parsed.add(field);
+        }
+        return parsed;
+    }
+}
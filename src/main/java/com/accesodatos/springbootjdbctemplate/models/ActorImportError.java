@@ -0,0 +1,92 @@
+package com.accesodatos.springbootjdbctemplate.models;
+
+/**
+ * The actor import error class is a model class that represents
+ * one row of an import that was not inserted.
+ *
+ * @author AccesoDatos
+ * @version 1.0
+ */
+
+public class ActorImportError {
+
+    /**
+     * The line is the number of the row in the upload: the line number for
+     * NDJSON and the record number for CSV, counting the header as 1.
+     *
+     * The message says why the row was rejected.
+     */
+
+    private long line;
+    private String message;
+
+    /**
+     * Constructs a new empty `ActorImportError` object.
+     */
+
+    public ActorImportError() {
+    }
+
+    /**
+     * Constructs a new `ActorImportError` object with the specified values.
+     *
+     * @param line    The number of the row in the upload.
+     * @param message Why the row was rejected.
+     */
+
+    public ActorImportError(long line, String message) {
+        this.line = line;
+        this.message = message;
+    }
+
+    /**
+     * Returns the number of the row in the upload.
+     *
+     * @return The number of the row in the upload.
+     */
+
+    public long getLine() {
+        return line;
+    }
+
+    /**
+     * Sets the number of the row in the upload.
+     *
+     * @param line The number of the row in the upload.
+     */
+
+    public void setLine(long line) {
+        this.line = line;
+    }
+
+    /**
+     * Returns why the row was rejected.
+     *
+     * @return The reason the row was rejected.
+     */
+
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Sets why the row was rejected.
+     *
+     * @param message The reason the row was rejected.
+     */
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    /**
+     * Returns a string representation of the `ActorImportError` object.
+     *
+     * @return A string representation of the `ActorImportError` object.
+     */
+
+    @Override
+    public String toString() {
+        return "ActorImportError [ line=" + line + ", message=" + message + " ]";
+    }
+}
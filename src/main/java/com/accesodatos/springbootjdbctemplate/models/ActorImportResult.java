@@ -0,0 +1,157 @@
+package com.accesodatos.springbootjdbctemplate.models;
+
+import java.util.List;
+
+/**
+ * The actor import result class is a model class that represents
+ * the outcome of a bulk import of actors.
+ *
+ * @author AccesoDatos
+ * @version 1.0
+ */
+
+public class ActorImportResult {
+
+    /**
+     * The imported and rejected fields count the rows inserted and the rows
+     * left out.
+     *
+     * The errors describe the first rejected rows, up to the configured
+     * maximum, in the order of the upload.
+     *
+     * The failed_line is the line the import stopped at when it failed, or
+     * null if it ran to the end; the rows counted as imported stay committed.
+     */
+
+    private long imported;
+    private long rejected;
+    private List<ActorImportError> errors;
+    private Long failed_line;
+
+    /**
+     * Constructs a new empty `ActorImportResult` object.
+     */
+
+    public ActorImportResult() {
+    }
+
+    /**
+     * Constructs a new `ActorImportResult` object with the specified values.
+     *
+     * @param imported The number of rows inserted.
+     * @param rejected The number of rows left out.
+     * @param errors   The first rejected rows.
+     */
+
+    public ActorImportResult(long imported, long rejected, List<ActorImportError> errors) {
+        this.imported = imported;
+        this.rejected = rejected;
+        this.errors = errors;
+    }
+
+    /**
+     * Constructs a new `ActorImportResult` object for an import that failed.
+     *
+     * @param imported    The number of rows inserted before the failure.
+     * @param rejected    The number of rows left out before the failure.
+     * @param errors      The first rejected rows.
+     * @param failed_line The line the import stopped at.
+     */
+
+    public ActorImportResult(long imported, long rejected, List<ActorImportError> errors, Long failed_line) {
+        this(imported, rejected, errors);
+        this.failed_line = failed_line;
+    }
+
+    /**
+     * Returns the number of rows inserted.
+     *
+     * @return The number of rows inserted.
+     */
+
+    public long getImported() {
+        return imported;
+    }
+
+    /**
+     * Sets the number of rows inserted.
+     *
+     * @param imported The number of rows inserted.
+     */
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    /**
+     * Returns the number of rows left out.
+     *
+     * @return The number of rows left out.
+     */
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * Sets the number of rows left out.
+     *
+     * @param rejected The number of rows left out.
+     */
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    /**
+     * Returns the first rejected rows.
+     *
+     * @return The first rejected rows.
+     */
+
+    public List<ActorImportError> getErrors() {
+        return errors;
+    }
+
+    /**
+     * Sets the first rejected rows.
+     *
+     * @param errors The first rejected rows.
+     */
+
+    public void setErrors(List<ActorImportError> errors) {
+        this.errors = errors;
+    }
+
+    /**
+     * Returns the line the import stopped at.
+     *
+     * @return The line the import stopped at, or null if it ran to the end.
+     */
+
+    public Long getFailed_line() {
+        return failed_line;
+    }
+
+    /**
+     * Sets the line the import stopped at.
+     *
+     * @param failed_line The line the import stopped at.
+     */
+
+    public void setFailed_line(Long failed_line) {
+        this.failed_line = failed_line;
+    }
+
+    /**
+     * Returns a string representation of the `ActorImportResult` object.
+     *
+     * @return A string representation of the `ActorImportResult` object.
+     */
+
+    @Override
+    public String toString() {
+        return "ActorImportResult [ imported=" + imported + ", rejected=" + rejected + ", errors=" + errors + ", failed_line="
+                + failed_line + " ]";
+    }
+}
@@ -0,0 +1,94 @@
+package com.accesodatos.springbootjdbctemplate.models;
+
+import java.util.List;
+
+/**
+ * The actor lookup class is a model class that represents
+ * the result of looking up many actors by their IDs at once.
+ *
+ * @author AccesoDatos
+ * @version 1.0
+ */
+
+public class ActorLookup {
+
+    /**
+     * The actors are the ones found, in the order their IDs were requested,
+     * each once even if its ID was requested more than once.
+     *
+     * The missing_ids are the requested IDs with no actor, in request order.
+     */
+
+    private List<Actor> actors;
+    private List<Integer> missing_ids;
+
+    /**
+     * Constructs a new empty `ActorLookup` object.
+     */
+
+    public ActorLookup() {
+    }
+
+    /**
+     * Constructs a new `ActorLookup` object with the specified values.
+     *
+     * @param actors      The actors found.
+     * @param missing_ids The requested IDs with no actor.
+     */
+
+    public ActorLookup(List<Actor> actors, List<Integer> missing_ids) {
+        this.actors = actors;
+        this.missing_ids = missing_ids;
+    }
+
+    /**
+     * Returns the actors found.
+     *
+     * @return The actors found, in request order.
+     */
+
+    public List<Actor> getActors() {
+        return actors;
+    }
+
+    /**
+     * Sets the actors found.
+     *
+     * @param actors The actors found, in request order.
+     */
+
+    public void setActors(List<Actor> actors) {
+        this.actors = actors;
+    }
+
+    /**
+     * Returns the requested IDs with no actor.
+     *
+     * @return The missing IDs, in request order.
+     */
+
+    public List<Integer> getMissing_ids() {
+        return missing_ids;
+    }
+
+    /**
+     * Sets the requested IDs with no actor.
+     *
+     * @param missing_ids The missing IDs, in request order.
+     */
+
+    public void setMissing_ids(List<Integer> missing_ids) {
+        this.missing_ids = missing_ids;
+    }
+
+    /**
+     * Returns a string representation of the lookup.
+     *
+     * @return A string representation of the lookup.
+     */
+
+    @Override
+    public String toString() {
+        return "ActorLookup [ actors=" + actors + ", missing_ids=" + missing_ids + " ]";
+    }
+}
@@ -0,0 +1,130 @@
+package com.accesodatos.springbootjdbctemplate.models;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * The actor page class is a model class that represents
+ * one keyset-paginated slice of the actor table.
+ *
+ * @author AccesoDatos
+ * @version 1.0
+ */
+
+public class ActorPage {
+
+    /**
+     * The actors are the rows of the page, ordered by actor_id.
+     *
+     * The next_cursor is the value to pass as the `after` parameter to fetch
+     * the following page, or null when this is the last page.
+     */
+
+    private List<Actor> actors;
+    private String next_cursor;
+
+    /**
+     * The version is the row count and latest last_update of the rows read
+     * for the page, including the one that decides the next cursor, from
+     * which the ETag of the page is built. It is not part of the response
+     * body.
+     */
+
+    private ActorTableVersion version;
+
+    /**
+     * Constructs a new empty `ActorPage` object.
+     */
+
+    public ActorPage() {
+    }
+
+    /**
+     * Constructs a new `ActorPage` object with the specified values.
+     *
+     * @param actors      The actors of the page.
+     * @param next_cursor The cursor of the next page, or null if there is none.
+     */
+
+    public ActorPage(List<Actor> actors, String next_cursor) {
+        this.actors = actors;
+        this.next_cursor = next_cursor;
+    }
+
+    /**
+     * Constructs a new `ActorPage` object with the specified values and the
+     * version of the rows read for it.
+     *
+     * @param actors      The actors of the page.
+     * @param next_cursor The cursor of the next page, or null if there is none.
+     * @param version     The version of the rows read for the page.
+     */
+
+    public ActorPage(List<Actor> actors, String next_cursor, ActorTableVersion version) {
+        this(actors, next_cursor);
+        this.version = version;
+    }
+
+    /**
+     * Returns the actors of the page.
+     *
+     * @return The actors of the page.
+     */
+
+    public List<Actor> getActors() {
+        return actors;
+    }
+
+    /**
+     * Sets the actors of the page.
+     *
+     * @param actors The actors of the page.
+     */
+
+    public void setActors(List<Actor> actors) {
+        this.actors = actors;
+    }
+
+    /**
+     * Returns the cursor of the next page.
+     *
+     * @return The cursor of the next page, or null if there is none.
+     */
+
+    public String getNext_cursor() {
+        return next_cursor;
+    }
+
+    /**
+     * Sets the cursor of the next page.
+     *
+     * @param next_cursor The cursor of the next page, or null if there is none.
+     */
+
+    public void setNext_cursor(String next_cursor) {
+        this.next_cursor = next_cursor;
+    }
+
+    /**
+     * Returns the version of the rows read for the page.
+     *
+     * @return The version of the page, or null if it was not computed.
+     */
+
+    @JsonIgnore
+    public ActorTableVersion getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns a string representation of the page.
+     *
+     * @return A string representation of the page.
+     */
+
+    @Override
+    public String toString() {
+        return "ActorPage [ actors=" + actors + ", next_cursor=" + next_cursor + " ]";
+    }
+}
@@ -0,0 +1,68 @@
+package com.accesodatos.springbootjdbctemplate.models;
+
+import java.time.LocalDateTime;
+
+/**
+ * The actor table version class is a model class that represents
+ * the state of the actor table, or of a range of it, used to
+ * validate cached collections without reading any actor.
+ *
+ * @author AccesoDatos
+ * @version 1.0
+ */
+
+public class ActorTableVersion {
+
+    /**
+     * The count is the number of rows in the actor table.
+     *
+     * The last_update is the latest last_update in the table, or null if the
+     * table is empty.
+     */
+
+    private long count;
+    private LocalDateTime last_update;
+
+    /**
+     * Constructs a new `ActorTableVersion` object with the specified values.
+     *
+     * @param count       The number of rows in the actor table.
+     * @param last_update The latest last_update in the table.
+     */
+
+    public ActorTableVersion(long count, LocalDateTime last_update) {
+        this.count = count;
+        this.last_update = last_update;
+    }
+
+    /**
+     * Returns the number of rows in the actor table.
+     *
+     * @return The number of rows in the actor table.
+     */
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the latest last_update in the table.
+     *
+     * @return The latest last_update in the table, or null if it is empty.
+     */
+
+    public LocalDateTime getLast_update() {
+        return last_update;
+    }
+
+    /**
+     * Returns a string representation of the table version.
+     *
+     * @return A string representation of the table version.
+     */
+
+    @Override
+    public String toString() {
+        return "ActorTableVersion [ count=" + count + ", last_update=" + last_update + " ]";
+    }
+}
@@ -0,0 +1,27 @@
+package com.accesodatos.springbootjdbctemplate.models;
+
+/**
+ * The update result enum represents the outcome of a conditional
+ * update of an actor.
+ *
+ * @author AccesoDatos
+ * @version 1.0
+ */
+
+public enum UpdateResult {
+
+    /**
+     * The actor was updated.
+     */
+    UPDATED,
+
+    /**
+     * No actor with the given id exists.
+     */
+    NOT_FOUND,
+
+    /**
+     * The actor was modified since the caller read it, so it was not updated.
+     */
+    CONFLICT
+}
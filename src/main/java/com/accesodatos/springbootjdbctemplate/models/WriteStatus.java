@@ -0,0 +1,27 @@
+package com.accesodatos.springbootjdbctemplate.models;
+
+/**
+ * The write status enum represents the progress of an actor insert
+ * accepted by the write-behind queue.
+ *
+ * @author AccesoDatos
+ * @version 1.0
+ */
+
+public enum WriteStatus {
+
+    /**
+     * The actor is waiting in the queue.
+     */
+    QUEUED,
+
+    /**
+     * The actor was inserted into the database.
+     */
+    WRITTEN,
+
+    /**
+     * The insert of the actor failed.
+     */
+    FAILED
+}
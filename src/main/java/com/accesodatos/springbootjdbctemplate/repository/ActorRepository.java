@@ -1,13 +1,51 @@
 package com.accesodatos.springbootjdbctemplate.repository;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.accesodatos.springbootjdbctemplate.models.Actor;
+import com.accesodatos.springbootjdbctemplate.models.ActorChange;
+import com.accesodatos.springbootjdbctemplate.models.ActorChangeType;
+import com.accesodatos.springbootjdbctemplate.models.ActorCount;
+import com.accesodatos.springbootjdbctemplate.models.ActorField;
+import com.accesodatos.springbootjdbctemplate.models.ActorTableVersion;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 
 /**
  * A class that implements the {@link JdbcRepository} interface
@@ -22,7 +60,16 @@ import com.accesodatos.springbootjdbctemplate.models.Actor;
  * it is a repository class and it uses the `@Autowired`
  * annotation to inject an instance of the `JdbcTemplate` class. The SQL
  * statements for performing the CRUD operations are defined as constant
- * strings in the class.
+ * strings in the class, and every query maps its rows with the shared
+ * {@link ActorRowMapper}. Methods that only read are annotated with
+ * {@link ReplicaRead} so they can be served by a read replica.
+ * 
+ * Every successful write publishes an {@link ActorChange} application event
+ * for the change feed, and deletes record a tombstone in the actor_tombstone
+ * table in the same transaction, so the feed can report them after the row
+ * is gone. The tombstone is dated by the database, on the same clock as
+ * last_update, and tombstones older than `actors.changes.tombstone-retention`
+ * are purged every `actors.changes.tombstone-purge-interval`.
  * 
  * @author AccesoDatos
  * 
@@ -36,6 +83,8 @@ import com.accesodatos.springbootjdbctemplate.models.Actor;
 @Repository
 public class ActorRepository implements JdbcRepository {
 
+    private static final Logger log = LoggerFactory.getLogger(ActorRepository.class);
+
     /**
      * An instance of the {@link JdbcTemplate} class provided by the Spring JDBC
      * framework, used for executing
@@ -44,78 +93,342 @@ public class ActorRepository implements JdbcRepository {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    /**
+     * The number of rows the driver fetches per round trip while streaming the
+     * actor table, so memory stays bounded whatever the table size.
+     */
+    @Value("${actors.stream.fetch-size:500}")
+    private int streamFetchSize;
+
+    /**
+     * A {@link TransactionTemplate} used to run each batch chunk in its own
+     * transaction.
+     */
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * The number of statements sent to the database in one JDBC batch.
+     */
+    @Value("${actors.batch.chunk-size:500}")
+    private int batchChunkSize;
+
+    /**
+     * The largest number of IDs looked up by one IN query.
+     */
+    @Value("${actors.multi-get.chunk-size:128}")
+    private int multiGetChunkSize;
+
+    /**
+     * How long the tombstone of a deleted actor is kept for the change feed.
+     */
+    @Value("${actors.changes.tombstone-retention:7d}")
+    private Duration tombstoneRetention;
+
+    /**
+     * How often expired tombstones are purged, or zero to never purge them.
+     */
+    @Value("${actors.changes.tombstone-purge-interval:1h}")
+    private Duration tombstonePurgeInterval;
+
+    private ScheduledExecutorService tombstonePurger;
+
+    /**
+     * The publisher of the {@link ActorChange} events.
+     */
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     /**
      * A constant string representing the SQL statement for finding all actors in
      * the database.
      */
-    private final String SQL_FIND_ALL_ACTORS = "SELECT * FROM actor";
+    private static final String SQL_FIND_ALL_ACTORS = "SELECT " + ActorRowMapper.COLUMNS + " FROM actor";
 
     /**
      * A constant string representing the SQL statement for inserting an actor in
      * the database.
      */
-    private final String SQL_INSERT_ACTOR = "INSERT INTO actor (first_name, last_name) VALUES (?, ?)";
+    private static final String SQL_INSERT_ACTOR = "INSERT INTO actor (first_name, last_name) VALUES (?, ?)";
 
     /**
      * A constant string representing the SQL statement for finding an actor by its
      * ID in the database.
      */
-    private final String SQL_FIND_ACTOR_BY_ID = "SELECT * FROM actor WHERE actor_id = ?";
+    private static final String SQL_FIND_ACTOR_BY_ID = "SELECT " + ActorRowMapper.COLUMNS
+            + " FROM actor WHERE actor_id = ?";
+
+    /**
+     * The assignment that advances last_update on every update. The column
+     * keeps microseconds (see `db/actor-last-update-precision.sql`), so
+     * updates in the same second still get distinct values and entity tags;
+     * the new value is at least one microsecond after the old one, so every
+     * update gives the row a new version without dating it ahead of the
+     * clock.
+     */
+    static final String SET_NEXT_LAST_UPDATE = "last_update = GREATEST(CURRENT_TIMESTAMP(6),"
+            + " TIMESTAMPADD(MICROSECOND, 1, last_update))";
 
     /**
      * A constant string representing the SQL statement for updating an actor in the
      * database.
      */
-    private final String SQL_UPDATE_ACTOR = "UPDATE actor SET first_name = ?, last_name = ? WHERE actor_id = ?";
+    private static final String SQL_UPDATE_ACTOR = "UPDATE actor SET first_name = ?, last_name = ?, "
+            + SET_NEXT_LAST_UPDATE + " WHERE actor_id = ?";
+
+    /**
+     * A constant string representing the SQL statement for updating an actor in the
+     * database only if it has not been modified since it was read.
+     */
+    private static final String SQL_UPDATE_ACTOR_IF_UNCHANGED = "UPDATE actor SET first_name = ?, last_name = ?, "
+            + SET_NEXT_LAST_UPDATE + " WHERE actor_id = ? AND last_update = ?";
 
     /**
      * A constant string representing the SQL statement for deleting an actor from
      * the database.
      */
-    private final String SQL_DELETE_ACTOR = "DELETE FROM actor WHERE actor_id = ?";
+    private static final String SQL_DELETE_ACTOR = "DELETE FROM actor WHERE actor_id = ?";
 
     /**
      * A constant string representing the SQL statement for finding actors by their
      * first name in the database.
      */
-    private final String SQL_FIND_ACTOR_BY_STARTING_FIRSTNAME = "SELECT * FROM actor WHERE first_name LIKE ?";
+    private static final String SQL_FIND_ACTOR_BY_STARTING_FIRSTNAME = "SELECT " + ActorRowMapper.COLUMNS
+            + " FROM actor WHERE first_name LIKE ? ESCAPE '!'";
+
+    /**
+     * A constant string representing the SQL statement for finding the last
+     * update time of an actor by its ID in the database.
+     */
+    private static final String SQL_FIND_LAST_UPDATE_BY_ID = "SELECT last_update FROM actor WHERE actor_id = ?";
+
+    /**
+     * A constant string representing the SQL statement for finding the row count
+     * and latest update time of the actor table.
+     */
+    private static final String SQL_FIND_TABLE_VERSION = "SELECT COUNT(*), MAX(last_update) FROM actor";
+
+    /**
+     * A constant string representing the SQL statement for finding the row count
+     * and latest update time of one keyset page of actors, read through the
+     * primary key index.
+     */
+    private static final String SQL_FIND_VERSION_AFTER = "SELECT COUNT(*), MAX(last_update) FROM "
+            + "(SELECT last_update FROM actor WHERE actor_id > ? ORDER BY actor_id LIMIT ?) page";
+
+    /**
+     * A constant string representing the SQL statement for recording that an
+     * actor was deleted now, replacing an older tombstone of the same ID.
+     */
+    private static final String SQL_INSERT_TOMBSTONE = "INSERT INTO actor_tombstone (actor_id, deleted_at)"
+            + " VALUES (?, CURRENT_TIMESTAMP(6)) ON DUPLICATE KEY UPDATE deleted_at = CURRENT_TIMESTAMP(6)";
+
+    /**
+     * A constant string representing the SQL statement for reading the time
+     * the database recorded for a tombstone.
+     */
+    private static final String SQL_FIND_DELETED_AT = "SELECT deleted_at FROM actor_tombstone WHERE actor_id = ?";
+
+    /**
+     * A constant string representing the SQL statement for deleting the
+     * tombstones older than a number of seconds.
+     */
+    private static final String SQL_DELETE_EXPIRED_TOMBSTONES = "DELETE FROM actor_tombstone"
+            + " WHERE deleted_at < TIMESTAMPADD(SECOND, -?, CURRENT_TIMESTAMP(6))";
+
+    /**
+     * A constant string representing the SQL statement for finding the changes
+     * after a keyset position of (time of the change, actor_id): the actors
+     * updated since and the tombstones recorded since. Each branch seeks
+     * through its time index and stops after limit rows, and changes from the
+     * last seconds that may still be committing are left out.
+     */
+    private static final String SQL_FIND_CHANGES_AFTER = "(SELECT actor_id, first_name, last_name,"
+            + " last_update AS changed_at, 0 AS deleted FROM actor"
+            + " WHERE last_update >= ? AND (last_update > ? OR actor_id > ?)"
+            + " AND last_update <= TIMESTAMPADD(SECOND, -?, CURRENT_TIMESTAMP(6))"
+            + " ORDER BY last_update, actor_id LIMIT ?)"
+            + " UNION ALL"
+            + " (SELECT actor_id, NULL, NULL, deleted_at, 1 FROM actor_tombstone"
+            + " WHERE deleted_at >= ? AND (deleted_at > ? OR actor_id > ?)"
+            + " AND deleted_at <= TIMESTAMPADD(SECOND, -?, CURRENT_TIMESTAMP(6))"
+            + " ORDER BY deleted_at, actor_id LIMIT ?)"
+            + " ORDER BY changed_at, actor_id LIMIT ?";
+
+    /**
+     * Maps a row of the change feed query.
+     */
+    private static final RowMapper<ActorChange> CHANGE_MAPPER = (resultSet, rowNum) -> new ActorChange(
+            resultSet.getInt(5) == 1 ? ActorChangeType.DELETED : ActorChangeType.UPDATED,
+            resultSet.getInt(1),
+            resultSet.getString(2),
+            resultSet.getString(3),
+            resultSet.getObject(4, LocalDateTime.class));
+
+    /**
+     * Maps the single row of a COUNT(*), MAX(last_update) query.
+     */
+    private static final RowMapper<ActorTableVersion> VERSION_MAPPER = (resultSet,
+            rowNum) -> new ActorTableVersion(resultSet.getLong(1), resultSet.getObject(2, LocalDateTime.class));
+
+    /**
+     * A constant string representing the SQL statement for finding one keyset
+     * page of actors whose first and last names start with the given prefixes,
+     * in first name order so the first_name index serves both the range and the
+     * ordering.
+     */
+    private static final String SQL_FIND_ACTORS_BY_FIRST_NAME_PREFIX = "SELECT " + ActorRowMapper.COLUMNS
+            + " FROM actor WHERE first_name LIKE ? ESCAPE '!' AND last_name LIKE ? ESCAPE '!'"
+            + " AND (first_name > ? OR (first_name = ? AND actor_id > ?))"
+            + " ORDER BY first_name, actor_id LIMIT ?";
+
+    /**
+     * A constant string representing the SQL statement for finding one keyset
+     * page of actors whose last names start with the given prefix, in last name
+     * order so the last_name index serves both the range and the ordering.
+     */
+    private static final String SQL_FIND_ACTORS_BY_LAST_NAME_PREFIX = "SELECT " + ActorRowMapper.COLUMNS
+            + " FROM actor WHERE last_name LIKE ? ESCAPE '!'"
+            + " AND (last_name > ? OR (last_name = ? AND actor_id > ?))"
+            + " ORDER BY last_name, actor_id LIMIT ?";
+
+    /**
+     * A constant string representing the SQL statement for finding one keyset
+     * page of actors in the database.
+     */
+    private static final String SQL_FIND_ACTORS_AFTER = "SELECT " + ActorRowMapper.COLUMNS
+            + " FROM actor WHERE actor_id > ? ORDER BY actor_id LIMIT ?";
+
+    /**
+     * A constant string representing the start of the SQL statement for finding
+     * actors by a list of IDs, completed with one placeholder per ID.
+     */
+    private static final String SQL_FIND_ACTORS_BY_IDS = "SELECT " + ActorRowMapper.COLUMNS
+            + " FROM actor WHERE actor_id IN (";
+
+    /**
+     * A constant string representing the SQL statement for counting the actors
+     * grouped by the first letters of their first name, ignoring case.
+     */
+    private static final String SQL_COUNT_BY_FIRST_NAME_PREFIX = "SELECT UPPER(SUBSTRING(first_name, 1, ?))"
+            + " AS name_prefix, COUNT(*) FROM actor GROUP BY name_prefix ORDER BY name_prefix";
+
+    /**
+     * A constant string representing the SQL statement for counting the actors
+     * grouped by the date of their last update.
+     */
+    private static final String SQL_COUNT_BY_LAST_UPDATE_DATE = "SELECT CAST(last_update AS DATE)"
+            + " AS update_date, COUNT(*) FROM actor GROUP BY update_date ORDER BY update_date";
+
+    /**
+     * Maps a row of the count queries.
+     */
+    private static final RowMapper<ActorCount> COUNT_MAPPER = (resultSet, rowNum) -> new ActorCount(
+            resultSet.getString(1), resultSet.getLong(2));
+
+    /**
+     * The statements run on the request paths of the API, which the connection
+     * warm-up prepares on every pooled connection so the driver's statement
+     * cache holds them before the first request. The multi-get IN lists are
+     * added by {@link #hotStatements(int)}, since their shapes depend on the
+     * chunk size.
+     */
+    public static final List<String> HOT_STATEMENTS = List.of(SQL_FIND_ACTOR_BY_ID, SQL_FIND_ALL_ACTORS,
+            SQL_FIND_ACTORS_AFTER, SQL_FIND_ACTOR_BY_STARTING_FIRSTNAME, SQL_FIND_ACTORS_BY_FIRST_NAME_PREFIX,
+            SQL_FIND_ACTORS_BY_LAST_NAME_PREFIX, SQL_FIND_LAST_UPDATE_BY_ID, SQL_FIND_TABLE_VERSION,
+            SQL_FIND_VERSION_AFTER, SQL_INSERT_ACTOR, SQL_UPDATE_ACTOR, SQL_UPDATE_ACTOR_IF_UNCHANGED,
+            SQL_DELETE_ACTOR);
+
+    /**
+     * Returns the {@link #HOT_STATEMENTS} followed by every padded IN list
+     * {@link #findAllByIds(int[])} can run: one per power of two below the
+     * chunk size, and one of the chunk size.
+     *
+     * @param multiGetChunkSize the value of `actors.multi-get.chunk-size`
+     * @return the statements to prepare on every connection
+     */
+    public static List<String> hotStatements(int multiGetChunkSize) {
+        List<String> statements = new ArrayList<>(HOT_STATEMENTS);
+        for (int size = 1; size < multiGetChunkSize; size <<= 1) {
+            statements.add(findActorsByIdsSql(size));
+        }
+        statements.add(findActorsByIdsSql(multiGetChunkSize));
+        return statements;
+    }
 
     /**
      * Implementation of the save method from JdbcRepository to insert an actor
      * into the actor table in the database.
      * 
+     * The generated actor_id is read back with the insert through the JDBC
+     * generated keys. The last_update is set by the database, on the same
+     * clock as updates and the change feed, and MySQL cannot return it as a
+     * generated key, so it is read back from the primary by the actor_id.
+     * 
      * @param actor the actor to be inserted into the database
-     * @return the number of rows affected by the database operation
+     * @return the inserted actor, with its actor_id and last_update
      */
     @Override
-    public int save(Actor actor) {
-        return jdbcTemplate.update(SQL_INSERT_ACTOR,
-                new Object[] {
-                        actor.getFirst_name(),
-                        actor.getLast_name()
-                });
+    public Actor save(Actor actor) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SQL_INSERT_ACTOR,
+                    new String[] { "actor_id" });
+            statement.setString(1, actor.getFirst_name());
+            statement.setString(2, actor.getLast_name());
+            return statement;
+        }, keyHolder);
+        int actor_id = keyHolder.getKeyAs(Number.class).intValue();
+        LocalDateTime last_update = jdbcTemplate.queryForObject(SQL_FIND_LAST_UPDATE_BY_ID, LocalDateTime.class,
+                actor_id);
+        Actor saved = new Actor(actor_id, actor.getFirst_name(), actor.getLast_name(), last_update);
+        publish(ActorChangeType.INSERTED, saved.getActor_id(), saved.getFirst_name(), saved.getLast_name(),
+                last_update);
+        return saved;
     }
 
     /**
      * Implementation of the update method from JdbcRepository to update an actor
-     * in the actor table in the database.
+     * in the actor table in the database with a single statement.
      * 
      * @param actor the actor to be updated in the database
-     * @return the number of rows affected by the database operation
+     * @return the number of rows affected by the database operation, which is 0
+     *         if no actor with that ID exists
      */
     @Override
     public int update(Actor actor) {
-        Actor existingActor = findById(actor.getActor_id());
-        if (existingActor != null) {
-            return jdbcTemplate.update(SQL_UPDATE_ACTOR,
-                    new Object[] {
-                            actor.getFirst_name(),
-                            actor.getLast_name(),
-                            actor.getActor_id()
-                    });
-        } else {
-            return 0;
+        int rows = jdbcTemplate.update(SQL_UPDATE_ACTOR,
+                new Object[] {
+                        actor.getFirst_name(),
+                        actor.getLast_name(),
+                        actor.getActor_id()
+                });
+        if (rows > 0) {
+            publish(ActorChangeType.UPDATED, actor.getActor_id(), actor.getFirst_name(), actor.getLast_name(), null);
+        }
+        return rows;
+    }
+
+    /**
+     * Implementation of the updateIfUnchanged method from JdbcRepository to
+     * update an actor only while its last_update still has the given value.
+     * 
+     * @param actor       the actor to be updated in the database
+     * @param last_update the last_update value the caller last read
+     * @return the number of rows affected by the database operation, which is 0
+     *         if the actor does not exist or was modified since
+     */
+    @Override
+    public int updateIfUnchanged(Actor actor, LocalDateTime last_update) {
+        int rows = jdbcTemplate.update(SQL_UPDATE_ACTOR_IF_UNCHANGED,
+                actor.getFirst_name(),
+                actor.getLast_name(),
+                actor.getActor_id(),
+                last_update);
+        if (rows > 0) {
+            publish(ActorChangeType.UPDATED, actor.getActor_id(), actor.getFirst_name(), actor.getLast_name(), null);
         }
+        return rows;
     }
 
     /**
@@ -124,30 +437,44 @@ public class ActorRepository implements JdbcRepository {
      * 
      * @param actor_id the ID of the actor to be found in the database
      * @return the actor with the specified ID, or null if no actor with that ID
+     *         exists; any other database error is propagated to the caller
      */
     @Override
+    @ReplicaRead
     public Actor findById(int actor_id) {
         try {
             Actor actor = jdbcTemplate.queryForObject(SQL_FIND_ACTOR_BY_ID,
-                    BeanPropertyRowMapper.newInstance(Actor.class),
+                    ActorRowMapper.INSTANCE,
                     actor_id);
             return actor;
-        } catch (Exception e) {
-            e.printStackTrace();
+        } catch (EmptyResultDataAccessException e) {
             return null;
         }
     }
 
     /**
      * Implementation of the deleteById method from JdbcRepository to delete an
-     * actor from the actor table in the database by its ID.
+     * actor from the actor table in the database by its ID, recording its
+     * tombstone in the same transaction. The time the database gave the
+     * tombstone is read back for the published change.
      * 
      * @param actor_id the ID of the actor to be deleted from the database
      * @return the number of rows affected by the database operation
      */
     @Override
     public int deleteById(int actor_id) {
-        return jdbcTemplate.update(SQL_DELETE_ACTOR, actor_id);
+        LocalDateTime deleted_at = transactionTemplate.execute(status -> {
+            if (jdbcTemplate.update(SQL_DELETE_ACTOR, actor_id) == 0) {
+                return null;
+            }
+            jdbcTemplate.update(SQL_INSERT_TOMBSTONE, actor_id);
+            return jdbcTemplate.queryForObject(SQL_FIND_DELETED_AT, LocalDateTime.class, actor_id);
+        });
+        if (deleted_at == null) {
+            return 0;
+        }
+        publish(ActorChangeType.DELETED, actor_id, null, null, deleted_at);
+        return 1;
     }
 
     /**
@@ -157,9 +484,10 @@ public class ActorRepository implements JdbcRepository {
      * @return a list of all actors in the database
      */
     @Override
+    @ReplicaRead
     public List<Actor> findAll() {
         return jdbcTemplate.query(SQL_FIND_ALL_ACTORS,
-                BeanPropertyRowMapper.newInstance(Actor.class));
+                ActorRowMapper.INSTANCE);
     }
 
     /**
@@ -172,9 +500,533 @@ public class ActorRepository implements JdbcRepository {
      *         the specified string
      */
     @Override
+    @ReplicaRead
     public List<Actor> findActorByFirstName(String first_name) {
         return jdbcTemplate.query(SQL_FIND_ACTOR_BY_STARTING_FIRSTNAME,
-                BeanPropertyRowMapper.newInstance(Actor.class), first_name + "%");
+                ActorRowMapper.INSTANCE, prefixPattern(first_name));
+    }
+
+    /**
+     * Implementation of the findAllAfter method from JdbcRepository to find one
+     * page of actors using the primary key as the cursor, so the database seeks
+     * directly to the page instead of skipping rows.
+     * 
+     * @param actor_id the ID after which the page starts
+     * @param limit    the maximum number of actors in the page
+     * @return a list of at most limit actors ordered by ID
+     */
+    @Override
+    @ReplicaRead
+    public List<Actor> findAllAfter(int actor_id, int limit) {
+        return jdbcTemplate.query(SQL_FIND_ACTORS_AFTER,
+                ActorRowMapper.INSTANCE, actor_id, limit);
+    }
+
+    /**
+     * Implementation of the streamAll method from JdbcRepository to pass every
+     * actor in the actor table to the consumer as it comes off the result set.
+     * 
+     * The statement is forward-only and uses a bounded fetch size, and rows are
+     * handled through a {@link RowCallbackHandler} so no list is ever built.
+     * 
+     * @param consumer the consumer that receives each actor
+     */
+    @Override
+    @ReplicaRead
+    public void streamAll(Consumer<Actor> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SQL_FIND_ALL_ACTORS,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(streamFetchSize);
+            return statement;
+        }, (RowCallbackHandler) resultSet -> consumer
+                .accept(ActorRowMapper.INSTANCE.mapRow(resultSet, resultSet.getRow())));
+    }
+
+    /**
+     * Implementation of the saveAll method from JdbcRepository to insert many
+     * actors into the actor table using JDBC batches. The generated IDs are
+     * read back with each batch, set on the inserted actors and published with
+     * the change events.
+     * 
+     * @param actors the actors to be inserted into the database
+     * @return the number of rows affected for each actor
+     */
+    @Override
+    public int[] saveAll(List<Actor> actors) {
+        int[] actor_ids = new int[actors.size()];
+        int[] rows = batchUpdate(SQL_INSERT_ACTOR, actors, (statement, actor) -> {
+            statement.setString(1, actor.getFirst_name());
+            statement.setString(2, actor.getLast_name());
+        }, actor_ids, null);
+        for (int i = 0; i < rows.length; i++) {
+            if (rows[i] == Statement.EXECUTE_FAILED) {
+                continue;
+            }
+            actors.get(i).setActor_id(actor_ids[i]);
+            if (actor_ids[i] > 0) {
+                publish(ActorChangeType.INSERTED, actor_ids[i], actors.get(i).getFirst_name(),
+                        actors.get(i).getLast_name(), null);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Implementation of the updateAll method from JdbcRepository to update many
+     * actors in the actor table using JDBC batches.
+     * 
+     * @param actors the actors to be updated in the database
+     * @return the number of rows affected for each actor
+     */
+    @Override
+    public int[] updateAll(List<Actor> actors) {
+        int[] rows = batchUpdate(SQL_UPDATE_ACTOR, actors, (statement, actor) -> {
+            statement.setString(1, actor.getFirst_name());
+            statement.setString(2, actor.getLast_name());
+            statement.setInt(3, actor.getActor_id());
+        });
+        for (int i = 0; i < rows.length; i++) {
+            if (rows[i] != 0 && rows[i] != Statement.EXECUTE_FAILED) {
+                Actor actor = actors.get(i);
+                publish(ActorChangeType.UPDATED, actor.getActor_id(), actor.getFirst_name(), actor.getLast_name(),
+                        null);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Implementation of the deleteAllById method from JdbcRepository to delete
+     * many actors from the actor table using JDBC batches, recording the
+     * tombstones of each chunk in the chunk's transaction.
+     * 
+     * @param actor_ids the IDs of the actors to be deleted from the database
+     * @return the number of rows affected for each ID
+     */
+    @Override
+    public int[] deleteAllById(List<Integer> actor_ids) {
+        int[] rows = batchUpdate(SQL_DELETE_ACTOR, actor_ids,
+                (statement, actor_id) -> statement.setInt(1, actor_id), null, (chunk, counts) -> {
+                    List<Integer> deleted = new ArrayList<>(chunk.size());
+                    for (int i = 0; i < counts.length; i++) {
+                        if (counts[i] != 0) {
+                            deleted.add(chunk.get(i));
+                        }
+                    }
+                    jdbcTemplate.batchUpdate(SQL_INSERT_TOMBSTONE, deleted, deleted.size(),
+                            (statement, actor_id) -> statement.setInt(1, actor_id));
+                });
+        for (int i = 0; i < rows.length; i++) {
+            if (rows[i] != 0 && rows[i] != Statement.EXECUTE_FAILED) {
+                publish(ActorChangeType.DELETED, actor_ids.get(i), null, null, null);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Executes the statement once per item, sending the items to the database
+     * in chunks of the configured size. Each chunk runs in its own transaction,
+     * so a failing chunk is rolled back without undoing the chunks before it,
+     * and its rows are reported as {@link Statement#EXECUTE_FAILED}.
+     * 
+     * @param sql    the statement to execute for each item
+     * @param items  the items to bind to the statement
+     * @param setter the setter binding one item to the statement
+     * @return the number of rows affected for each item
+     */
+    private <T> int[] batchUpdate(String sql, List<T> items, ParameterizedPreparedStatementSetter<T> setter) {
+        return batchUpdate(sql, items, setter, null, null);
+    }
+
+    /**
+     * Executes the statement once per item in chunks, as
+     * {@link #batchUpdate(String, List, ParameterizedPreparedStatementSetter)}
+     * does, optionally reading back generated IDs and running more statements
+     * in each chunk's transaction.
+     * 
+     * @param sql       the statement to execute for each item
+     * @param items     the items to bind to the statement
+     * @param setter    the setter binding one item to the statement
+     * @param actor_ids an array receiving the generated actor_id of each item,
+     *                  or null if no keys are generated
+     * @param inChunk   a callback receiving each chunk and its counts inside the
+     *                  chunk's transaction, or null
+     * @return the number of rows affected for each item
+     */
+    private <T> int[] batchUpdate(String sql, List<T> items, ParameterizedPreparedStatementSetter<T> setter,
+            int[] actor_ids, BiConsumer<List<T>, int[]> inChunk) {
+        int[] results = new int[items.size()];
+        for (int from = 0; from < items.size(); from += batchChunkSize) {
+            int to = Math.min(from + batchChunkSize, items.size());
+            int offset = from;
+            List<T> chunk = items.subList(from, to);
+            BatchPreparedStatementSetter batch = new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement statement, int i) throws SQLException {
+                    setter.setValues(statement, chunk.get(i));
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return chunk.size();
+                }
+            };
+            try {
+                int[] counts = transactionTemplate.execute(status -> {
+                    int[] chunkCounts;
+                    if (actor_ids == null) {
+                        chunkCounts = jdbcTemplate.batchUpdate(sql, batch);
+                    } else {
+                        KeyHolder keyHolder = new GeneratedKeyHolder();
+                        chunkCounts = jdbcTemplate.batchUpdate(
+                                connection -> connection.prepareStatement(sql, new String[] { "actor_id" }), batch,
+                                keyHolder);
+                        List<Map<String, Object>> keys = keyHolder.getKeyList();
+                        for (int i = 0; i < keys.size(); i++) {
+                            actor_ids[offset + i] = ((Number) keys.get(i).values().iterator().next()).intValue();
+                        }
+                    }
+                    if (inChunk != null) {
+                        inChunk.accept(chunk, chunkCounts);
+                    }
+                    return chunkCounts;
+                });
+                System.arraycopy(counts, 0, results, from, counts.length);
+            } catch (DataAccessException e) {
+                log.warn("Batch of rows {} to {} failed and was rolled back", from, to - 1, e);
+                Arrays.fill(results, from, to, Statement.EXECUTE_FAILED);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Implementation of the findByNamePrefix method from JdbcRepository to find
+     * one keyset page of actors by name prefix.
+     * 
+     * The prefixes are escaped, so `%` and `_` in the input match literally and
+     * every search is an index range scan that stops after limit rows.
+     * 
+     * @param first_name the first name prefix, or null
+     * @param last_name  the last name prefix, or null
+     * @param after_name the ordering name of the last actor of the previous page
+     * @param after_id   the ID of the last actor of the previous page
+     * @param limit      the maximum number of actors in the page
+     * @return a list of at most limit matching actors
+     */
+    @Override
+    @ReplicaRead
+    public List<Actor> findByNamePrefix(String first_name, String last_name, String after_name, int after_id,
+            int limit) {
+        return findByNamePrefix(ActorRowMapper.COLUMNS, ActorRowMapper.INSTANCE, first_name, last_name, after_name,
+                after_id, limit);
+    }
+
+    /**
+     * Implementation of the findFieldsByNamePrefix method from JdbcRepository
+     * to find one keyset page of actors by name prefix, selecting only the
+     * given columns.
+     * 
+     * @param fields     the columns to select
+     * @param first_name the first name prefix, or null
+     * @param last_name  the last name prefix, or null
+     * @param after_name the ordering name of the last actor of the previous page
+     * @param after_id   the ID of the last actor of the previous page
+     * @param limit      the maximum number of actors in the page
+     * @return a list of at most limit rows holding the selected columns
+     */
+    @Override
+    @ReplicaRead
+    public List<Map<String, Object>> findFieldsByNamePrefix(Set<ActorField> fields, String first_name,
+            String last_name, String after_name, int after_id, int limit) {
+        return findByNamePrefix(columns(fields), fieldsMapper(fields), first_name, last_name, after_name, after_id,
+                limit);
+    }
+
+    /**
+     * Runs the keyset search by name prefix with the given select list.
+     */
+    private <T> List<T> findByNamePrefix(String columns, RowMapper<T> mapper, String first_name, String last_name,
+            String after_name, int after_id, int limit) {
+        if (first_name != null) {
+            return jdbcTemplate.query(select(SQL_FIND_ACTORS_BY_FIRST_NAME_PREFIX, columns), mapper,
+                    prefixPattern(first_name), prefixPattern(last_name == null ? "" : last_name),
+                    after_name, after_name, after_id, limit);
+        }
+        return jdbcTemplate.query(select(SQL_FIND_ACTORS_BY_LAST_NAME_PREFIX, columns), mapper,
+                prefixPattern(last_name), after_name, after_name, after_id, limit);
+    }
+
+    /**
+     * Implementation of the findLastUpdateById method from JdbcRepository to
+     * read only the last update time of an actor, through the primary key.
+     * 
+     * @param actor_id the ID of the actor
+     * @return the last update time, or null if no actor with that ID exists
+     */
+    @Override
+    @ReplicaRead
+    public LocalDateTime findLastUpdateById(int actor_id) {
+        List<LocalDateTime> last_update = jdbcTemplate.query(SQL_FIND_LAST_UPDATE_BY_ID,
+                (resultSet, rowNum) -> resultSet.getObject(1, LocalDateTime.class), actor_id);
+        return last_update.isEmpty() ? null : last_update.get(0);
+    }
+
+    /**
+     * Implementation of the findTableVersion method from JdbcRepository to read
+     * the row count and latest update time of the actor table in one query.
+     * 
+     * @return the version of the actor table
+     */
+    @Override
+    @ReplicaRead
+    public ActorTableVersion findTableVersion() {
+        return jdbcTemplate.queryForObject(SQL_FIND_TABLE_VERSION, VERSION_MAPPER);
+    }
+
+    /**
+     * Implementation of the findVersionAfter method from JdbcRepository to read
+     * the row count and latest update time of one keyset page of actors, without
+     * reading the actors themselves.
+     * 
+     * @param actor_id the ID after which the page starts
+     * @param limit    the maximum number of actors in the page
+     * @return the version of the page
+     */
+    @Override
+    @ReplicaRead
+    public ActorTableVersion findVersionAfter(int actor_id, int limit) {
+        return jdbcTemplate.queryForObject(SQL_FIND_VERSION_AFTER, VERSION_MAPPER, actor_id, limit);
+    }
+
+    /**
+     * Implementation of the findChangesAfter method from JdbcRepository to read
+     * one page of the change feed, merging updated actors and tombstones.
+     * 
+     * @param changed_at     the time of the last change already seen
+     * @param actor_id       the actor ID of the last change already seen
+     * @param settle_seconds how many of the most recent seconds to leave out
+     * @param limit          the maximum number of changes to return
+     * @return a list of at most limit changes
+     */
+    @Override
+    @ReplicaRead
+    public List<ActorChange> findChangesAfter(LocalDateTime changed_at, int actor_id, int settle_seconds,
+            int limit) {
+        return jdbcTemplate.query(SQL_FIND_CHANGES_AFTER, CHANGE_MAPPER,
+                changed_at, changed_at, actor_id, settle_seconds, limit,
+                changed_at, changed_at, actor_id, settle_seconds, limit,
+                limit);
+    }
+
+    /**
+     * Implementation of the findAllByIds method from JdbcRepository to find
+     * many actors by ID with as few queries as possible.
+     * 
+     * The distinct IDs are looked up in chunks of at most
+     * `actors.multi-get.chunk-size` with one `IN (...)` query each. Each IN list
+     * is padded to the next power of two by repeating its last ID, so the
+     * lookups share a handful of statement texts that the driver and the
+     * database can keep prepared instead of one per list length.
+     * 
+     * @param actor_ids the IDs of the actors to be found, possibly repeated
+     * @return the actors found, each once, in the order of their first ID in
+     *         actor_ids
+     */
+    @Override
+    @ReplicaRead
+    public List<Actor> findAllByIds(int[] actor_ids) {
+        int[] distinct = Arrays.stream(actor_ids).distinct().toArray();
+        Map<Integer, Actor> found = new HashMap<>();
+        for (int from = 0; from < distinct.length; from += multiGetChunkSize) {
+            int to = Math.min(from + multiGetChunkSize, distinct.length);
+            int size = Math.min(to - from == 1 ? 1 : Integer.highestOneBit(to - from - 1) << 1, multiGetChunkSize);
+            Object[] args = new Object[size];
+            for (int i = 0; i < size; i++) {
+                args[i] = distinct[Math.min(from + i, to - 1)];
+            }
+            jdbcTemplate.query(findActorsByIdsSql(size),
+                    (RowCallbackHandler) resultSet -> {
+                        Actor actor = ActorRowMapper.INSTANCE.mapRow(resultSet, 0);
+                        found.put(actor.getActor_id(), actor);
+                    }, args);
+        }
+        List<Actor> actors = new ArrayList<>(found.size());
+        for (int actor_id : distinct) {
+            Actor actor = found.get(actor_id);
+            if (actor != null) {
+                actors.add(actor);
+            }
+        }
+        return actors;
+    }
+
+    /**
+     * Implementation of the findFieldsAfter method from JdbcRepository to find
+     * one page of actors by primary key, selecting only the given columns.
+     * 
+     * @param fields   the columns to select
+     * @param actor_id the ID after which the page starts
+     * @param limit    the maximum number of actors in the page
+     * @return a list of at most limit rows holding the selected columns
+     */
+    @Override
+    @ReplicaRead
+    public List<Map<String, Object>> findFieldsAfter(Set<ActorField> fields, int actor_id, int limit) {
+        return jdbcTemplate.query(select(SQL_FIND_ACTORS_AFTER, columns(fields)), fieldsMapper(fields), actor_id,
+                limit);
+    }
+
+    /**
+     * Implementation of the countByFirstNamePrefix method from JdbcRepository
+     * to count the actors by first name prefix in a GROUP BY query, so only the
+     * counts leave the database.
+     * 
+     * @param length the number of letters of the prefix
+     * @return the count of each prefix, ordered by prefix
+     */
+    @Override
+    @ReplicaRead
+    public List<ActorCount> countByFirstNamePrefix(int length) {
+        return jdbcTemplate.query(SQL_COUNT_BY_FIRST_NAME_PREFIX, COUNT_MAPPER, length);
+    }
+
+    /**
+     * Implementation of the countByLastUpdateDate method from JdbcRepository to
+     * count the actors by last update date in a GROUP BY query.
+     * 
+     * @return the count of each date, ordered by date
+     */
+    @Override
+    @ReplicaRead
+    public List<ActorCount> countByLastUpdateDate() {
+        return jdbcTemplate.query(SQL_COUNT_BY_LAST_UPDATE_DATE, COUNT_MAPPER);
+    }
+
+    /**
+     * Returns the select list of the given columns, in column order.
+     * 
+     * @param fields the columns to select
+     * @return the comma separated column names
+     */
+    private static String columns(Set<ActorField> fields) {
+        StringBuilder columns = new StringBuilder();
+        for (ActorField field : fields) {
+            if (columns.length() > 0) {
+                columns.append(", ");
+            }
+            columns.append(field.column());
+        }
+        return columns.toString();
+    }
+
+    /**
+     * Replaces the full actor select list of one of the actor queries.
+     * 
+     * @param sql     the query selecting {@link ActorRowMapper#COLUMNS}
+     * @param columns the select list to use instead
+     * @return the query selecting the given columns
+     */
+    private static String select(String sql, String columns) {
+        return columns.equals(ActorRowMapper.COLUMNS) ? sql : sql.replace(ActorRowMapper.COLUMNS, columns);
     }
 
+    /**
+     * Returns a mapper reading the given columns, selected in column order,
+     * into a map from column name to value.
+     * 
+     * @param fields the selected columns
+     * @return the row mapper
+     */
+    private static RowMapper<Map<String, Object>> fieldsMapper(Set<ActorField> fields) {
+        ActorField[] selected = fields.toArray(new ActorField[0]);
+        return (resultSet, rowNum) -> {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (int i = 0; i < selected.length; i++) {
+                row.put(selected[i].column(), switch (selected[i]) {
+                    case ACTOR_ID -> resultSet.getInt(i + 1);
+                    case LAST_UPDATE -> resultSet.getObject(i + 1, LocalDateTime.class);
+                    default -> resultSet.getString(i + 1);
+                });
+            }
+            return row;
+        };
+    }
+
+    /**
+     * Schedules the purge of expired tombstones, the first one right away.
+     */
+    @PostConstruct
+    void startTombstonePurge() {
+        if (tombstonePurgeInterval.isZero()) {
+            return;
+        }
+        tombstonePurger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "actor-tombstone-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        tombstonePurger.scheduleWithFixedDelay(() -> {
+            try {
+                purgeTombstones();
+            } catch (RuntimeException e) {
+                log.warn("Purging expired actor tombstones failed", e);
+            }
+        }, 0, tombstonePurgeInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the purge of expired tombstones.
+     */
+    @PreDestroy
+    void stopTombstonePurge() {
+        if (tombstonePurger != null) {
+            tombstonePurger.shutdownNow();
+        }
+    }
+
+    /**
+     * Deletes the tombstones older than `actors.changes.tombstone-retention`.
+     * The change feed no longer reports those deletes, so a client resuming
+     * from an older token has to read the table again.
+     * 
+     * @return the number of tombstones deleted
+     */
+    public int purgeTombstones() {
+        return jdbcTemplate.update(SQL_DELETE_EXPIRED_TOMBSTONES, tombstoneRetention.toSeconds());
+    }
+
+    /**
+     * Publishes an {@link ActorChange} event for a successful write.
+     * 
+     * @param type       the kind of mutation
+     * @param actor_id   the ID of the changed actor
+     * @param first_name the first name of the actor, or null if deleted
+     * @param last_name  the last name of the actor, or null if deleted
+     * @param changed_at the time of the change, or null if the database set it
+     */
+    private void publish(ActorChangeType type, int actor_id, String first_name, String last_name,
+            LocalDateTime changed_at) {
+        eventPublisher.publishEvent(new ActorChange(type, actor_id, first_name, last_name, changed_at));
+    }
+
+    /**
+     * Turns user input into a LIKE pattern matching values that start with it,
+     * escaping the LIKE wildcards with `!`.
+     * 
+     * @param prefix the prefix typed by the user
+     * @return the LIKE pattern
+     */
+    static String prefixPattern(String prefix) {
+        return prefix.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+    }
+
+    /**
+     * Returns the multi-get query with an IN list of the given size.
+     */
+    private static String findActorsByIdsSql(int size) {
+        return SQL_FIND_ACTORS_BY_IDS + String.join(", ", Collections.nCopies(size, "?")) + ")";
+    }
 }
@@ -0,0 +1,61 @@
+package com.accesodatos.springbootjdbctemplate.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+import org.springframework.jdbc.core.RowMapper;
+
+import com.accesodatos.springbootjdbctemplate.models.Actor;
+
+/**
+ * A stateless {@link RowMapper} that maps a row of the actor table to an
+ * {@link Actor}.
+ *
+ * Every actor query selects {@link #COLUMNS} in this exact order, so the
+ * mapper reads each column by its fixed index and calls the constructor
+ * directly, with no metadata lookup or reflection per row. A single shared
+ * instance is used by all queries.
+ *
+ * @author AccesoDatos
+ *
+ * @see ActorRepository
+ * @see Actor
+ */
+public final class ActorRowMapper implements RowMapper<Actor> {
+
+    /**
+     * The shared instance of the mapper.
+     */
+    public static final ActorRowMapper INSTANCE = new ActorRowMapper();
+
+    /**
+     * The column list every actor query must select, in this order.
+     */
+    public static final String COLUMNS = "actor_id, first_name, last_name, last_update";
+
+    private static final int ACTOR_ID = 1;
+    private static final int FIRST_NAME = 2;
+    private static final int LAST_NAME = 3;
+    private static final int LAST_UPDATE = 4;
+
+    private ActorRowMapper() {
+    }
+
+    /**
+     * Maps the current row of the result set to an actor.
+     *
+     * @param resultSet the result set positioned on the row to map
+     * @param rowNum    the number of the current row
+     * @return the actor read from the row
+     * @throws SQLException if a column cannot be read
+     */
+    @Override
+    public Actor mapRow(ResultSet resultSet, int rowNum) throws SQLException {
+        return new Actor(
+                resultSet.getInt(ACTOR_ID),
+                resultSet.getString(FIRST_NAME),
+                resultSet.getString(LAST_NAME),
+                resultSet.getObject(LAST_UPDATE, LocalDateTime.class));
+    }
+}
@@ -0,0 +1,428 @@
+package com.accesodatos.springbootjdbctemplate.repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import com.accesodatos.springbootjdbctemplate.models.Actor;
+import com.accesodatos.springbootjdbctemplate.models.ActorTableVersion;
+
+/**
+ * An immutable in-memory copy of the actor table.
+ *
+ * Actors are kept in a dense array indexed by actor_id, which the
+ * `SMALLINT UNSIGNED` key keeps below 65536 entries, so a lookup by ID is a
+ * single array read with no hashing or boxing. The same actors are also kept
+ * in ID order and sorted by first name and by last name, each then by ID,
+ * where a prefix search is a binary search for the start of the range
+ * followed by a scan that stops at the first name past the prefix.
+ *
+ * Names are compared ignoring case, as the default MySQL collation does.
+ * Every change produces a new snapshot; an existing one is never modified,
+ * so readers need no locking. A single-row change copies the arrays and
+ * moves the one actor into place in each sorted index with a binary search,
+ * so it costs linear time instead of sorting the indexes again.
+ *
+ * @author AccesoDatos
+ *
+ * @see SnapshotActorRepository
+ */
+final class ActorSnapshot {
+
+    private static final Comparator<Actor> BY_ID = Comparator.comparingInt(Actor::getActor_id);
+
+    private static final Comparator<Actor> BY_FIRST_NAME = Comparator
+            .comparing(Actor::getFirst_name, String.CASE_INSENSITIVE_ORDER)
+            .thenComparingInt(Actor::getActor_id);
+
+    private static final Comparator<Actor> BY_LAST_NAME = Comparator
+            .comparing(Actor::getLast_name, String.CASE_INSENSITIVE_ORDER)
+            .thenComparingInt(Actor::getActor_id);
+
+    /**
+     * The actors indexed by actor_id, with null for missing IDs.
+     */
+    private final Actor[] byId;
+
+    private final Actor[] inIdOrder;
+
+    private final Actor[] byFirstName;
+
+    private final Actor[] byLastName;
+
+    private final List<Actor> all;
+
+    private final ActorTableVersion version;
+
+    private ActorSnapshot(Actor[] byId, Actor[] inIdOrder, Actor[] byFirstName, Actor[] byLastName,
+            LocalDateTime last_update) {
+        this.byId = byId;
+        this.inIdOrder = inIdOrder;
+        this.byFirstName = byFirstName;
+        this.byLastName = byLastName;
+        this.all = Collections.unmodifiableList(Arrays.asList(inIdOrder));
+        this.version = new ActorTableVersion(inIdOrder.length, last_update);
+    }
+
+    /**
+     * Builds a snapshot of the given actors.
+     *
+     * @param actors every actor of the table
+     * @return the snapshot
+     */
+    static ActorSnapshot of(List<Actor> actors) {
+        int size = 0;
+        for (Actor actor : actors) {
+            size = Math.max(size, actor.getActor_id() + 1);
+        }
+        Actor[] byId = new Actor[size];
+        for (Actor actor : actors) {
+            byId[actor.getActor_id()] = actor;
+        }
+        List<Actor> present = new ArrayList<>();
+        for (Actor actor : byId) {
+            if (actor != null) {
+                present.add(actor);
+            }
+        }
+        Actor[] inIdOrder = present.toArray(new Actor[0]);
+        Actor[] byFirstName = inIdOrder.clone();
+        Arrays.sort(byFirstName, BY_FIRST_NAME);
+        Actor[] byLastName = inIdOrder.clone();
+        Arrays.sort(byLastName, BY_LAST_NAME);
+        return new ActorSnapshot(byId, inIdOrder, byFirstName, byLastName, latest(inIdOrder));
+    }
+
+    /**
+     * Returns a copy of this snapshot with the actor added or replaced.
+     *
+     * @param actor the current state of the actor
+     * @return the new snapshot
+     */
+    ActorSnapshot with(Actor actor) {
+        Actor previous = get(actor.getActor_id());
+        Actor[] copy = Arrays.copyOf(byId, Math.max(byId.length, actor.getActor_id() + 1));
+        copy[actor.getActor_id()] = actor;
+        LocalDateTime last_update = version.getLast_update();
+        if (last_update == null || actor.getLast_update().isAfter(last_update)) {
+            last_update = actor.getLast_update();
+        } else if (previous != null && previous.getLast_update().equals(last_update)) {
+            last_update = null;
+        }
+        Actor[] ids = insert(previous == null ? inIdOrder : remove(inIdOrder, BY_ID, previous), BY_ID, actor);
+        return new ActorSnapshot(copy, ids,
+                insert(previous == null ? byFirstName : remove(byFirstName, BY_FIRST_NAME, previous), BY_FIRST_NAME,
+                        actor),
+                insert(previous == null ? byLastName : remove(byLastName, BY_LAST_NAME, previous), BY_LAST_NAME,
+                        actor),
+                last_update == null ? latest(ids) : last_update);
+    }
+
+    /**
+     * Returns a copy of this snapshot with the actors added or replaced. The
+     * actors are sorted among themselves and merged into each index in one
+     * pass, so a batch costs about as much as a single change.
+     *
+     * @param actors the current state of the actors; the last one of an ID
+     *               wins
+     * @return the new snapshot
+     */
+    ActorSnapshot withAll(Collection<Actor> actors) {
+        Map<Integer, Actor> added = new LinkedHashMap<>();
+        int size = byId.length;
+        for (Actor actor : actors) {
+            added.put(actor.getActor_id(), actor);
+            size = Math.max(size, actor.getActor_id() + 1);
+        }
+        Actor[] copy = Arrays.copyOf(byId, size);
+        Set<Actor> replaced = Collections.newSetFromMap(new IdentityHashMap<>());
+        LocalDateTime last_update = version.getLast_update();
+        for (Actor actor : added.values()) {
+            Actor previous = copy[actor.getActor_id()];
+            if (previous != null) {
+                replaced.add(previous);
+                if (previous.getLast_update().equals(version.getLast_update())) {
+                    last_update = null;
+                }
+            }
+            copy[actor.getActor_id()] = actor;
+        }
+        Actor[] batch = added.values().toArray(new Actor[0]);
+        Actor[] ids = merge(inIdOrder, replaced, batch, BY_ID);
+        if (last_update != null) {
+            LocalDateTime newest = latest(batch);
+            last_update = newest != null && newest.isAfter(last_update) ? newest : last_update;
+        }
+        return new ActorSnapshot(copy, ids, merge(byFirstName, replaced, batch, BY_FIRST_NAME),
+                merge(byLastName, replaced, batch, BY_LAST_NAME), last_update == null ? latest(ids) : last_update);
+    }
+
+    /**
+     * Returns a copy of this snapshot without the actor.
+     *
+     * @param actor_id the ID of the removed actor
+     * @return the new snapshot, or this one if it has no such actor
+     */
+    ActorSnapshot without(int actor_id) {
+        if (get(actor_id) == null) {
+            return this;
+        }
+        Actor previous = byId[actor_id];
+        Actor[] copy = byId.clone();
+        copy[actor_id] = null;
+        Actor[] ids = remove(inIdOrder, BY_ID, previous);
+        LocalDateTime last_update = version.getLast_update();
+        return new ActorSnapshot(copy, ids, remove(byFirstName, BY_FIRST_NAME, previous),
+                remove(byLastName, BY_LAST_NAME, previous),
+                previous.getLast_update().equals(last_update) ? latest(ids) : last_update);
+    }
+
+    /**
+     * Returns a copy of this snapshot without the actors, removed from each
+     * index in one pass like {@link #withAll(Collection)} adds them.
+     *
+     * @param actor_ids the IDs of the removed actors
+     * @return the new snapshot, or this one if it has none of them
+     */
+    ActorSnapshot withoutAll(Collection<Integer> actor_ids) {
+        Actor[] copy = byId.clone();
+        Set<Actor> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+        LocalDateTime last_update = version.getLast_update();
+        for (int actor_id : actor_ids) {
+            Actor previous = get(actor_id);
+            if (previous != null && removed.add(previous)) {
+                copy[actor_id] = null;
+                if (previous.getLast_update().equals(last_update)) {
+                    last_update = null;
+                }
+            }
+        }
+        if (removed.isEmpty()) {
+            return this;
+        }
+        Actor[] none = new Actor[0];
+        Actor[] ids = merge(inIdOrder, removed, none, BY_ID);
+        return new ActorSnapshot(copy, ids, merge(byFirstName, removed, none, BY_FIRST_NAME),
+                merge(byLastName, removed, none, BY_LAST_NAME), last_update == null ? latest(ids) : last_update);
+    }
+
+    /**
+     * Returns the actor with the given ID.
+     *
+     * @param actor_id the ID of the actor
+     * @return the actor, or null if there is none
+     */
+    Actor get(int actor_id) {
+        return actor_id >= 0 && actor_id < byId.length ? byId[actor_id] : null;
+    }
+
+    /**
+     * Returns the actors with the given IDs.
+     *
+     * @param actor_ids the IDs of the actors, possibly repeated
+     * @return the actors found, each once, in the order of their first ID in
+     *         actor_ids
+     */
+    List<Actor> getAll(int[] actor_ids) {
+        List<Actor> actors = new ArrayList<>(actor_ids.length);
+        Arrays.stream(actor_ids).distinct().mapToObj(this::get).filter(Objects::nonNull).forEach(actors::add);
+        return actors;
+    }
+
+    /**
+     * Returns every actor in ID order.
+     *
+     * @return an unmodifiable list of the actors
+     */
+    List<Actor> all() {
+        return all;
+    }
+
+    /**
+     * Returns the row count and latest last update time of the snapshot.
+     *
+     * @return the version of the table
+     */
+    ActorTableVersion version() {
+        return version;
+    }
+
+    /**
+     * Returns up to limit actors with an ID greater than the given one.
+     *
+     * @param actor_id the ID after which the page starts
+     * @param limit    the maximum number of actors
+     * @return the actors in ID order
+     */
+    List<Actor> after(int actor_id, int limit) {
+        int from = lowerBound(inIdOrder, actor -> actor.getActor_id() <= actor_id);
+        return all.subList(from, Math.min(from + limit, inIdOrder.length));
+    }
+
+    /**
+     * Returns the row count and latest last update time of the actors
+     * {@link #after(int, int)} returns.
+     *
+     * @param actor_id the ID after which the page starts
+     * @param limit    the maximum number of actors
+     * @return the version of the page
+     */
+    ActorTableVersion versionAfter(int actor_id, int limit) {
+        List<Actor> page = after(actor_id, limit);
+        LocalDateTime last_update = null;
+        for (Actor actor : page) {
+            if (last_update == null || actor.getLast_update().isAfter(last_update)) {
+                last_update = actor.getLast_update();
+            }
+        }
+        return new ActorTableVersion(page.size(), last_update);
+    }
+
+    /**
+     * Returns one keyset page of actors whose first and last names start with
+     * the given prefixes, in first name order, or, without a first name prefix,
+     * whose last names start with the last name prefix, in last name order.
+     *
+     * @param first_name the first name prefix, or null
+     * @param last_name  the last name prefix, or null
+     * @param after_name the ordering name of the last actor of the previous page
+     * @param after_id   the ID of the last actor of the previous page
+     * @param limit      the maximum number of actors
+     * @return the matching actors
+     */
+    List<Actor> findByNamePrefix(String first_name, String last_name, String after_name, int after_id,
+            int limit) {
+        if (first_name != null) {
+            return scan(byFirstName, Actor::getFirst_name, first_name, after_name, after_id,
+                    actor -> last_name == null || startsWith(actor.getLast_name(), last_name), limit);
+        }
+        return scan(byLastName, Actor::getLast_name, last_name, after_name, after_id, actor -> true, limit);
+    }
+
+    /**
+     * Returns every actor whose first name starts with the given prefix.
+     *
+     * @param first_name the first name prefix
+     * @return the matching actors in first name order
+     */
+    List<Actor> findByFirstNamePrefix(String first_name) {
+        return scan(byFirstName, Actor::getFirst_name, first_name, "", 0, actor -> true, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Scans one name index from the first actor past both the prefix start and
+     * the keyset position, until the names no longer start with the prefix.
+     */
+    private static List<Actor> scan(Actor[] sorted, Function<Actor, String> name, String prefix,
+            String after_name, int after_id, Predicate<Actor> filter, int limit) {
+        int from = lowerBound(sorted, actor -> {
+            String value = name.apply(actor);
+            int order = String.CASE_INSENSITIVE_ORDER.compare(value, after_name);
+            return String.CASE_INSENSITIVE_ORDER.compare(value, prefix) < 0 || order < 0
+                    || (order == 0 && actor.getActor_id() <= after_id);
+        });
+        List<Actor> actors = new ArrayList<>();
+        for (int i = from; i < sorted.length && actors.size() < limit; i++) {
+            if (!startsWith(name.apply(sorted[i]), prefix)) {
+                break;
+            }
+            if (filter.test(sorted[i])) {
+                actors.add(sorted[i]);
+            }
+        }
+        return actors;
+    }
+
+    /**
+     * Returns the index of the first actor for which the predicate is false,
+     * where the predicate is true for a leading run of the array.
+     */
+    private static int lowerBound(Actor[] sorted, Predicate<Actor> before) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (before.test(sorted[middle])) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns a copy of the sorted array with the actor inserted in order.
+     */
+    private static Actor[] insert(Actor[] sorted, Comparator<Actor> order, Actor actor) {
+        int index = -Arrays.binarySearch(sorted, actor, order) - 1;
+        Actor[] copy = new Actor[sorted.length + 1];
+        System.arraycopy(sorted, 0, copy, 0, index);
+        copy[index] = actor;
+        System.arraycopy(sorted, index, copy, index + 1, sorted.length - index);
+        return copy;
+    }
+
+    /**
+     * Returns a copy of the sorted array without the actor, which it holds.
+     */
+    private static Actor[] remove(Actor[] sorted, Comparator<Actor> order, Actor actor) {
+        int index = Arrays.binarySearch(sorted, actor, order);
+        Actor[] copy = new Actor[sorted.length - 1];
+        System.arraycopy(sorted, 0, copy, 0, index);
+        System.arraycopy(sorted, index + 1, copy, index, copy.length - index);
+        return copy;
+    }
+
+    /**
+     * Returns a copy of the sorted array without the removed actors and with
+     * the added ones merged in order.
+     */
+    private static Actor[] merge(Actor[] sorted, Set<Actor> removed, Actor[] added, Comparator<Actor> order) {
+        Actor[] extra = added.clone();
+        Arrays.sort(extra, order);
+        Actor[] merged = new Actor[sorted.length - removed.size() + extra.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (k < merged.length) {
+            if (i < sorted.length && removed.contains(sorted[i])) {
+                i++;
+            } else if (j == extra.length || (i < sorted.length && order.compare(sorted[i], extra[j]) < 0)) {
+                merged[k++] = sorted[i++];
+            } else {
+                merged[k++] = extra[j++];
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Returns the latest last update time of the actors, or null if there are
+     * none.
+     */
+    private static LocalDateTime latest(Actor[] actors) {
+        LocalDateTime last_update = null;
+        for (Actor actor : actors) {
+            if (last_update == null || actor.getLast_update().isAfter(last_update)) {
+                last_update = actor.getLast_update();
+            }
+        }
+        return last_update;
+    }
+
+    private static boolean startsWith(String value, String prefix) {
+        return value.regionMatches(true, 0, prefix, 0, prefix.length());
+    }
+}
@@ -0,0 +1,386 @@
+package com.accesodatos.springbootjdbctemplate.repository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.accesodatos.springbootjdbctemplate.config.DataSourceRoute;
+import com.accesodatos.springbootjdbctemplate.models.Actor;
+import com.accesodatos.springbootjdbctemplate.models.ActorChange;
+import com.accesodatos.springbootjdbctemplate.models.ActorCount;
+import com.accesodatos.springbootjdbctemplate.models.ActorField;
+import com.accesodatos.springbootjdbctemplate.models.ActorTableVersion;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * A class that implements the {@link JdbcRepository} interface
+ * as a read-through cache in front of {@link ActorRepository}.
+ *
+ * Lookups by ID, one at a time or many at once, are served from a bounded
+ * Caffeine cache, which evicts by size using W-TinyLFU and by age using a
+ * per-entry TTL. Misses are cached too, with a shorter TTL, so repeated
+ * lookups of unknown IDs do not reach the database. Every write through
+ * this class invalidates the entries it may have made stale; all other
+ * methods delegate unchanged. The cache counters are published as the
+ * `cache.*` meters tagged `cache=actors`.
+ *
+ * With `actors.read-write-split.enabled=true` the cache only keeps actors
+ * read from the primary, so a replica that lags cannot leave a stale row
+ * behind: misses are loaded in a read-only transaction, which keeps them on
+ * the primary, and lookups that must see the primary, pinned for
+ * read-your-writes or inside a transaction, bypass the cache.
+ *
+ * The class is annotated with `@Primary` so it is the repository injected
+ * into the service layer, and it can be switched off with
+ * `actors.cache.enabled=false`. It is also left out in snapshot mode, where
+ * `SnapshotActorRepository` serves every read from memory.
+ *
+ * @author AccesoDatos
+ *
+ * @see JdbcRepository
+ * @see ActorRepository
+ */
+
+@Repository
+@Primary
+@ConditionalOnExpression("${actors.cache.enabled:true} and !${actors.snapshot.enabled:false}")
+public class CachingActorRepository implements JdbcRepository {
+
+    /**
+     * The repository that performs the actual database operations.
+     */
+    @Autowired
+    private ActorRepository actorRepository;
+
+    /**
+     * The cache of actors by ID, where an empty value records a miss.
+     */
+    private final Cache<Integer, Optional<Actor>> cache;
+
+    /**
+     * Whether lookups may be served by a read replica.
+     */
+    private final boolean readWriteSplit;
+
+    /**
+     * Runs the loads of cache misses in a read-only transaction, which keeps
+     * them on the primary when reads go to replicas.
+     */
+    private final TransactionTemplate primaryReads;
+
+    /**
+     * Constructs a new `CachingActorRepository` with the configured bounds.
+     *
+     * @param maximumSize the maximum number of cached IDs
+     * @param ttl         how long a found actor stays cached
+     * @param negativeTtl how long a missing ID stays cached
+     * @param readWriteSplit whether lookups may be served by a read replica
+     * @param transactionManager the transaction manager of the misses loaded
+     *                           from the primary
+     * @param meterRegistry the registry the cache counters are published to
+     */
+    public CachingActorRepository(@Value("${actors.cache.maximum-size:10000}") long maximumSize,
+            @Value("${actors.cache.ttl:10m}") Duration ttl,
+            @Value("${actors.cache.negative-ttl:30s}") Duration negativeTtl,
+            @Value("${actors.read-write-split.enabled:false}") boolean readWriteSplit,
+            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.readWriteSplit = readWriteSplit;
+        this.primaryReads = new TransactionTemplate(transactionManager);
+        this.primaryReads.setReadOnly(true);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<Integer, Optional<Actor>>() {
+                    @Override
+                    public long expireAfterCreate(Integer actor_id, Optional<Actor> actor, long currentTime) {
+                        return (actor.isPresent() ? ttl : negativeTtl).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Integer actor_id, Optional<Actor> actor, long currentTime,
+                            long currentDuration) {
+                        return expireAfterCreate(actor_id, actor, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Integer actor_id, Optional<Actor> actor, long currentTime,
+                            long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "actors");
+    }
+
+    /**
+     * Inserts the actor and caches it under its new ID, which replaces a miss
+     * cached for that ID before the row existed.
+     *
+     * @param actor the actor to be inserted into the database
+     * @return the inserted actor, with its actor_id and last_update
+     */
+    @Override
+    public Actor save(Actor actor) {
+        Actor saved = actorRepository.save(actor);
+        cache.put(saved.getActor_id(), Optional.of(saved));
+        return saved;
+    }
+
+    /**
+     * Updates the actor and invalidates its cached entry.
+     *
+     * @param actor the actor to be updated in the database
+     * @return the number of rows affected by the database operation
+     */
+    @Override
+    public int update(Actor actor) {
+        int rows = actorRepository.update(actor);
+        cache.invalidate(actor.getActor_id());
+        return rows;
+    }
+
+    /**
+     * Updates the actor if it is unchanged and invalidates its cached entry.
+     *
+     * @param actor       the actor to be updated in the database
+     * @param last_update the last_update value the caller last read
+     * @return the number of rows affected by the database operation
+     */
+    @Override
+    public int updateIfUnchanged(Actor actor, LocalDateTime last_update) {
+        int rows = actorRepository.updateIfUnchanged(actor, last_update);
+        cache.invalidate(actor.getActor_id());
+        return rows;
+    }
+
+    /**
+     * Returns the actor with the given ID from the cache, loading it from the
+     * database on a miss. With the read/write split, a lookup that must see
+     * the primary skips the cache, and misses are loaded from the primary.
+     *
+     * @param actor_id the ID of the actor to be found
+     * @return the actor with the specified ID, or null if no actor with that ID
+     */
+    @Override
+    public Actor findById(int actor_id) {
+        if (readWriteSplit && DataSourceRoute.isPrimaryRequired()) {
+            return actorRepository.findById(actor_id);
+        }
+        return cache.get(actor_id, this::load).orElse(null);
+    }
+
+    /**
+     * Deletes the actor and invalidates its cached entry.
+     *
+     * @param actor_id the ID of the actor to be deleted from the database
+     * @return the number of rows affected by the database operation
+     */
+    @Override
+    public int deleteById(int actor_id) {
+        int rows = actorRepository.deleteById(actor_id);
+        cache.invalidate(actor_id);
+        return rows;
+    }
+
+    @Override
+    public List<Actor> findAll() {
+        return actorRepository.findAll();
+    }
+
+    @Override
+    public List<Actor> findActorByFirstName(String first_name) {
+        return actorRepository.findActorByFirstName(first_name);
+    }
+
+    @Override
+    public List<Actor> findAllAfter(int actor_id, int limit) {
+        return actorRepository.findAllAfter(actor_id, limit);
+    }
+
+    @Override
+    public void streamAll(Consumer<Actor> consumer) {
+        actorRepository.streamAll(consumer);
+    }
+
+    @Override
+    public List<Actor> findByNamePrefix(String first_name, String last_name, String after_name, int after_id,
+            int limit) {
+        return actorRepository.findByNamePrefix(first_name, last_name, after_name, after_id, limit);
+    }
+
+    @Override
+    public LocalDateTime findLastUpdateById(int actor_id) {
+        return actorRepository.findLastUpdateById(actor_id);
+    }
+
+    @Override
+    public ActorTableVersion findTableVersion() {
+        return actorRepository.findTableVersion();
+    }
+
+    @Override
+    public ActorTableVersion findVersionAfter(int actor_id, int limit) {
+        return actorRepository.findVersionAfter(actor_id, limit);
+    }
+
+    @Override
+    public List<ActorChange> findChangesAfter(LocalDateTime changed_at, int actor_id, int settle_seconds,
+            int limit) {
+        return actorRepository.findChangesAfter(changed_at, actor_id, settle_seconds, limit);
+    }
+
+    /**
+     * Returns the actors with the given IDs from the cache, loading all the
+     * uncached IDs with one call to the database and caching the actors found
+     * and the IDs missing. As in {@link #findById(int)}, a lookup that must see
+     * the primary skips the cache.
+     *
+     * @param actor_ids the IDs of the actors to be found, possibly repeated
+     * @return the actors found, each once, in the order of their first ID in
+     *         actor_ids
+     */
+    @Override
+    public List<Actor> findAllByIds(int[] actor_ids) {
+        if (readWriteSplit && DataSourceRoute.isPrimaryRequired()) {
+            return actorRepository.findAllByIds(actor_ids);
+        }
+        List<Integer> ids = Arrays.stream(actor_ids).distinct().boxed().toList();
+        Map<Integer, Optional<Actor>> cached = cache.getAll(ids, this::load);
+        List<Actor> actors = new ArrayList<>(ids.size());
+        for (Integer actor_id : ids) {
+            cached.get(actor_id).ifPresent(actors::add);
+        }
+        return actors;
+    }
+
+    @Override
+    public List<Map<String, Object>> findFieldsAfter(Set<ActorField> fields, int actor_id, int limit) {
+        return actorRepository.findFieldsAfter(fields, actor_id, limit);
+    }
+
+    @Override
+    public List<Map<String, Object>> findFieldsByNamePrefix(Set<ActorField> fields, String first_name,
+            String last_name, String after_name, int after_id, int limit) {
+        return actorRepository.findFieldsByNamePrefix(fields, first_name, last_name, after_name, after_id, limit);
+    }
+
+    @Override
+    public List<ActorCount> countByFirstNamePrefix(int length) {
+        return actorRepository.countByFirstNamePrefix(length);
+    }
+
+    @Override
+    public List<ActorCount> countByLastUpdateDate() {
+        return actorRepository.countByLastUpdateDate();
+    }
+
+    /**
+     * Inserts the actors and drops the cached misses.
+     *
+     * @param actors the actors to be inserted into the database
+     * @return the number of rows affected for each actor
+     */
+    @Override
+    public int[] saveAll(List<Actor> actors) {
+        int[] rows = actorRepository.saveAll(actors);
+        evictMisses();
+        return rows;
+    }
+
+    /**
+     * Updates the actors and invalidates their cached entries.
+     *
+     * @param actors the actors to be updated in the database
+     * @return the number of rows affected for each actor
+     */
+    @Override
+    public int[] updateAll(List<Actor> actors) {
+        int[] rows = actorRepository.updateAll(actors);
+        actors.forEach(actor -> cache.invalidate(actor.getActor_id()));
+        return rows;
+    }
+
+    /**
+     * Deletes the actors and invalidates their cached entries.
+     *
+     * @param actor_ids the IDs of the actors to be deleted from the database
+     * @return the number of rows affected for each ID
+     */
+    @Override
+    public int[] deleteAllById(List<Integer> actor_ids) {
+        int[] rows = actorRepository.deleteAllById(actor_ids);
+        cache.invalidateAll(actor_ids);
+        return rows;
+    }
+
+    /**
+     * Returns the hit, miss and eviction counters of the cache.
+     *
+     * @return a snapshot of the cache statistics
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Returns the approximate number of cached IDs.
+     *
+     * @return the estimated cache size
+     */
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Loads the actor with the given ID, as an empty value if it is not
+     * found. With the read/write split it is read from the primary.
+     */
+    private Optional<Actor> load(Integer actor_id) {
+        return readWriteSplit
+                ? primaryReads.execute(status -> Optional.ofNullable(actorRepository.findById(actor_id)))
+                : Optional.ofNullable(actorRepository.findById(actor_id));
+    }
+
+    /**
+     * Loads the actors with the given IDs, mapping each ID not found to an
+     * empty value. With the read/write split they are read from the primary.
+     */
+    private Map<Integer, Optional<Actor>> load(Set<? extends Integer> actor_ids) {
+        Map<Integer, Optional<Actor>> loaded = new HashMap<>();
+        actor_ids.forEach(actor_id -> loaded.put(actor_id, Optional.empty()));
+        int[] ids = loaded.keySet().stream().mapToInt(Integer::intValue).toArray();
+        List<Actor> actors = readWriteSplit
+                ? primaryReads.execute(status -> actorRepository.findAllByIds(ids))
+                : actorRepository.findAllByIds(ids);
+        actors.forEach(actor -> loaded.put(actor.getActor_id(), Optional.of(actor)));
+        return loaded;
+    }
+
+    /**
+     * Removes every cached miss.
+     */
+    private void evictMisses() {
+        cache.asMap().values().removeIf(Optional::isEmpty);
+    }
+}
@@ -1,8 +1,16 @@
 package com.accesodatos.springbootjdbctemplate.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import com.accesodatos.springbootjdbctemplate.models.Actor;
+import com.accesodatos.springbootjdbctemplate.models.ActorChange;
+import com.accesodatos.springbootjdbctemplate.models.ActorCount;
+import com.accesodatos.springbootjdbctemplate.models.ActorField;
+import com.accesodatos.springbootjdbctemplate.models.ActorTableVersion;
 
 /**
  * This interface defines the methods for a JDBC repository
@@ -17,9 +25,9 @@ public interface JdbcRepository {
      * Saves the given {@link Actor} object to the database.
      *
      * @param actor The actor to be saved.
-     * @return The number of rows affected.
+     * @return The saved actor, with its generated actor_id and its last_update.
      */
-    int save(Actor actor);
+    Actor save(Actor actor);
 
     /**
      * Updates the given {@link Actor} object in the database.
@@ -29,6 +37,17 @@ public interface JdbcRepository {
      */
     int update(Actor actor);
 
+    /**
+     * Updates the given {@link Actor} object in the database only if its
+     * last update time still equals the given one.
+     *
+     * @param actor       The actor to be updated.
+     * @param last_update The last update time the caller last read.
+     * @return The number of rows affected, 0 if the actor is missing or was
+     *         modified in the meantime.
+     */
+    int updateIfUnchanged(Actor actor, LocalDateTime last_update);
+
     /**
      * Retrieves the {@link Actor} object with the given actor ID from the database.
      *
@@ -38,7 +57,8 @@ public interface JdbcRepository {
     Actor findById(int actor_id);
 
     /**
-     * Deletes the {@link Actor} object with the given actor ID from the database.
+     * Deletes the {@link Actor} object with the given actor ID from the database
+     * and records a tombstone for the change feed.
      *
      * @param actor_id The ID of the actor to delete.
      * @return The number of rows affected.
@@ -60,4 +80,169 @@ public interface JdbcRepository {
      * @return A list of actors with the given first name.
      */
     List<Actor> findActorByFirstName(String first_name);
+
+    /**
+     * Retrieves at most {@code limit} {@link Actor} objects whose ID is greater
+     * than the given one, ordered by actor ID.
+     *
+     * @param actor_id The ID after which the page starts.
+     * @param limit    The maximum number of actors to retrieve.
+     * @return A list of actors ordered by ID.
+     */
+    List<Actor> findAllAfter(int actor_id, int limit);
+
+    /**
+     * Passes every {@link Actor} stored in the database to the given consumer,
+     * one row at a time, without collecting them in memory.
+     *
+     * @param consumer The consumer that receives each actor.
+     */
+    void streamAll(Consumer<Actor> consumer);
+
+    /**
+     * Saves the given {@link Actor} objects to the database using JDBC batches.
+     * The generated actor_id is set on every actor that was inserted.
+     *
+     * @param actors The actors to be saved.
+     * @return The number of rows affected for each actor, in order, or
+     *         {@link java.sql.Statement#EXECUTE_FAILED} for actors whose batch
+     *         failed.
+     */
+    int[] saveAll(List<Actor> actors);
+
+    /**
+     * Updates the given {@link Actor} objects in the database using JDBC batches.
+     *
+     * @param actors The actors to be updated.
+     * @return The number of rows affected for each actor, in order, or
+     *         {@link java.sql.Statement#EXECUTE_FAILED} for actors whose batch
+     *         failed.
+     */
+    int[] updateAll(List<Actor> actors);
+
+    /**
+     * Deletes the {@link Actor} objects with the given actor IDs from the
+     * database using JDBC batches, recording a tombstone for each deleted actor.
+     *
+     * @param actor_ids The IDs of the actors to delete.
+     * @return The number of rows affected for each ID, in order, or
+     *         {@link java.sql.Statement#EXECUTE_FAILED} for IDs whose batch
+     *         failed.
+     */
+    int[] deleteAllById(List<Integer> actor_ids);
+
+    /**
+     * Retrieves at most {@code limit} {@link Actor} objects whose names start
+     * with the given prefixes, ordered by the searched name and then by ID.
+     *
+     * When a first name prefix is given the results are ordered by first name,
+     * otherwise by last name. Paging continues after the given name and ID.
+     *
+     * @param first_name The first name prefix, or null.
+     * @param last_name  The last name prefix, or null.
+     * @param after_name The ordering name of the last actor of the previous page.
+     * @param after_id   The ID of the last actor of the previous page.
+     * @param limit      The maximum number of actors to retrieve.
+     * @return A list of matching actors.
+     */
+    List<Actor> findByNamePrefix(String first_name, String last_name, String after_name, int after_id, int limit);
+
+    /**
+     * Retrieves only the last update time of the {@link Actor} with the given
+     * actor ID.
+     *
+     * @param actor_id The ID of the actor.
+     * @return The last update time, or {@code null} if no such actor was found.
+     */
+    LocalDateTime findLastUpdateById(int actor_id);
+
+    /**
+     * Retrieves the row count and the latest last update time of the actor
+     * table, which change whenever any actor is inserted, updated or deleted.
+     *
+     * @return The version of the actor table.
+     */
+    ActorTableVersion findTableVersion();
+
+    /**
+     * Retrieves the row count and the latest last update time of the first
+     * {@code limit} actors with an ID greater than the given one, in ID order.
+     *
+     * @param actor_id The ID after which the range starts.
+     * @param limit    The maximum number of actors in the range.
+     * @return The version of the range of actors.
+     */
+    ActorTableVersion findVersionAfter(int actor_id, int limit);
+
+    /**
+     * Retrieves the changes to the actor table after the given position,
+     * ordered by the time of the change and then by actor ID: the actors whose
+     * last update time is later, and the actors deleted since, as recorded by
+     * {@link #deleteById(int)} and {@link #deleteAllById(List)}.
+     *
+     * Changes from the last {@code settle_seconds} are left out, so a change
+     * committed late with an earlier time is not skipped by a client that has
+     * already moved past it.
+     *
+     * @param changed_at     The time of the last change already seen.
+     * @param actor_id       The actor ID of the last change already seen.
+     * @param settle_seconds How many of the most recent seconds to leave out.
+     * @param limit          The maximum number of changes to return.
+     * @return A list of at most {@code limit} changes.
+     */
+    List<ActorChange> findChangesAfter(LocalDateTime changed_at, int actor_id, int settle_seconds, int limit);
+
+    /**
+     * Retrieves the actors with the given IDs.
+     *
+     * @param actor_ids The IDs of the actors to find, in any order and possibly
+     *                  repeated.
+     * @return The actors found, each once, in the order their IDs first appear
+     *         in {@code actor_ids}.
+     */
+    List<Actor> findAllByIds(int[] actor_ids);
+
+    /**
+     * Retrieves only the given columns of the first {@code limit} actors with an
+     * ID greater than the given one, in ID order.
+     *
+     * @param fields   The columns to read.
+     * @param actor_id The ID after which the page starts.
+     * @param limit    The maximum number of actors to return.
+     * @return A list of at most {@code limit} rows, each mapping the selected
+     *         column names to their values.
+     */
+    List<Map<String, Object>> findFieldsAfter(Set<ActorField> fields, int actor_id, int limit);
+
+    /**
+     * Retrieves only the given columns of one keyset page of the actors that
+     * {@link #findByNamePrefix(String, String, String, int, int)} returns.
+     *
+     * @param fields     The columns to read.
+     * @param first_name The first name prefix, or {@code null}.
+     * @param last_name  The last name prefix, or {@code null}.
+     * @param after_name The ordering name of the last actor of the previous page.
+     * @param after_id   The ID of the last actor of the previous page.
+     * @param limit      The maximum number of actors to return.
+     * @return A list of at most {@code limit} rows, each mapping the selected
+     *         column names to their values.
+     */
+    List<Map<String, Object>> findFieldsByNamePrefix(Set<ActorField> fields, String first_name, String last_name,
+            String after_name, int after_id, int limit);
+
+    /**
+     * Counts the actors grouped by the first letters of their first name,
+     * ignoring case.
+     *
+     * @param length The number of letters of the prefix.
+     * @return The count of each upper case prefix, ordered by prefix.
+     */
+    List<ActorCount> countByFirstNamePrefix(int length);
+
+    /**
+     * Counts the actors grouped by the date of their last update.
+     *
+     * @return The count of each date, ordered by date.
+     */
+    List<ActorCount> countByLastUpdateDate();
 }
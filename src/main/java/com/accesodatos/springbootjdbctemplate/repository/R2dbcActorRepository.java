@@ -0,0 +1,172 @@
+package com.accesodatos.springbootjdbctemplate.repository;
+
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.accesodatos.springbootjdbctemplate.models.Actor;
+
+import io.r2dbc.spi.Readable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * A class that implements the {@link ReactiveRepository} interface with
+ * R2DBC, running the same SQL as {@link ActorRepository} without blocking a
+ * thread while the database works.
+ *
+ * Queries that return many rows emit each actor as the driver decodes it and
+ * pull further rows only as the subscriber requests them, so a slow client
+ * slows the query down instead of buffering the table in memory.
+ *
+ * Deletes record the tombstone the change feed reports in the same R2DBC
+ * transaction, managed locally so it does not replace the JDBC transaction
+ * manager, and dated by the database as in {@link ActorRepository}.
+ *
+ * The class is only created in a reactive web application, which is what
+ * the `reactive` profile starts.
+ *
+ * @author AccesoDatos
+ *
+ * @see ReactiveRepository
+ * @see ActorRepository
+ */
+
+@Repository
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+public class R2dbcActorRepository implements ReactiveRepository {
+
+    /**
+     * Maps a row that selected {@link ActorRowMapper#COLUMNS} to an actor.
+     * The ID is read as a {@link Number} because drivers decode the
+     * `SMALLINT` column to different types.
+     */
+    private static final Function<Readable, Actor> ACTOR_MAPPER = row -> new Actor(
+            row.get(0, Number.class).intValue(),
+            row.get(1, String.class),
+            row.get(2, String.class),
+            row.get(3, LocalDateTime.class));
+
+    private static final String SQL_FIND_ALL_ACTORS = "SELECT " + ActorRowMapper.COLUMNS + " FROM actor";
+
+    private static final String SQL_INSERT_ACTOR = "INSERT INTO actor (first_name, last_name) "
+            + "VALUES (:first_name, :last_name)";
+
+    private static final String SQL_FIND_ACTOR_BY_ID = "SELECT " + ActorRowMapper.COLUMNS
+            + " FROM actor WHERE actor_id = :actor_id";
+
+    private static final String SQL_UPDATE_ACTOR = "UPDATE actor SET first_name = :first_name, "
+            + "last_name = :last_name, " + ActorRepository.SET_NEXT_LAST_UPDATE + " WHERE actor_id = :actor_id";
+
+    private static final String SQL_DELETE_ACTOR = "DELETE FROM actor WHERE actor_id = :actor_id";
+
+    private static final String SQL_INSERT_TOMBSTONE = "INSERT INTO actor_tombstone (actor_id, deleted_at)"
+            + " VALUES (:actor_id, CURRENT_TIMESTAMP(6)) ON DUPLICATE KEY UPDATE deleted_at = CURRENT_TIMESTAMP(6)";
+
+    private static final String SQL_FIND_ACTOR_BY_STARTING_FIRSTNAME = "SELECT " + ActorRowMapper.COLUMNS
+            + " FROM actor WHERE first_name LIKE :first_name ESCAPE '!'";
+
+    private static final String SQL_FIND_ACTORS_AFTER = "SELECT " + ActorRowMapper.COLUMNS
+            + " FROM actor WHERE actor_id > :actor_id ORDER BY actor_id LIMIT :limit";
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Runs the delete and its tombstone in one R2DBC transaction.
+     */
+    private final TransactionalOperator transactionalOperator;
+
+    /**
+     * Constructs a new `R2dbcActorRepository`.
+     *
+     * @param databaseClient the client the statements are run with
+     */
+    public R2dbcActorRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+        this.transactionalOperator = TransactionalOperator
+                .create(new R2dbcTransactionManager(databaseClient.getConnectionFactory()));
+    }
+
+    /**
+     * Inserts an actor and reads back its generated actor_id. As in
+     * {@link ActorRepository#save(Actor)}, the last_update is set by the
+     * database and read back with the row.
+     *
+     * @param actor the actor to be inserted into the database
+     * @return the inserted actor, with its actor_id and last_update
+     */
+    @Override
+    public Mono<Actor> save(Actor actor) {
+        return databaseClient.sql(SQL_INSERT_ACTOR)
+                .bind("first_name", actor.getFirst_name())
+                .bind("last_name", actor.getLast_name())
+                .filter(statement -> statement.returnGeneratedValues("actor_id"))
+                .map(row -> row.get(0, Number.class).intValue())
+                .one()
+                .flatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Integer> update(Actor actor) {
+        return databaseClient.sql(SQL_UPDATE_ACTOR)
+                .bind("first_name", actor.getFirst_name())
+                .bind("last_name", actor.getLast_name())
+                .bind("actor_id", actor.getActor_id())
+                .fetch()
+                .rowsUpdated()
+                .map(Long::intValue);
+    }
+
+    @Override
+    public Mono<Actor> findById(int actor_id) {
+        return databaseClient.sql(SQL_FIND_ACTOR_BY_ID)
+                .bind("actor_id", actor_id)
+                .map(ACTOR_MAPPER)
+                .one();
+    }
+
+    @Override
+    public Mono<Integer> deleteById(int actor_id) {
+        Mono<Integer> delete = databaseClient.sql(SQL_DELETE_ACTOR)
+                .bind("actor_id", actor_id)
+                .fetch()
+                .rowsUpdated()
+                .map(Long::intValue)
+                .flatMap(rows -> rows == 0 ? Mono.just(rows)
+                        : databaseClient.sql(SQL_INSERT_TOMBSTONE)
+                                .bind("actor_id", actor_id)
+                                .then()
+                                .thenReturn(rows));
+        return transactionalOperator.transactional(delete);
+    }
+
+    @Override
+    public Flux<Actor> findAll() {
+        return databaseClient.sql(SQL_FIND_ALL_ACTORS)
+                .map(ACTOR_MAPPER)
+                .all();
+    }
+
+    @Override
+    public Flux<Actor> findActorByFirstName(String first_name) {
+        return databaseClient.sql(SQL_FIND_ACTOR_BY_STARTING_FIRSTNAME)
+                .bind("first_name", ActorRepository.prefixPattern(first_name))
+                .map(ACTOR_MAPPER)
+                .all();
+    }
+
+    @Override
+    public Flux<Actor> findAllAfter(int actor_id, int limit) {
+        return databaseClient.sql(SQL_FIND_ACTORS_AFTER)
+                .bind("actor_id", actor_id)
+                .bind("limit", limit)
+                .map(ACTOR_MAPPER)
+                .all();
+    }
+}
@@ -0,0 +1,77 @@
+package com.accesodatos.springbootjdbctemplate.repository;
+
+import com.accesodatos.springbootjdbctemplate.models.Actor;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The non-blocking counterpart of {@link JdbcRepository}, returning
+ * {@link Mono} and {@link Flux} instead of blocking on the database.
+ *
+ * @author AccesoDatos
+ * @version 1.0
+ */
+public interface ReactiveRepository {
+
+    /**
+     * Saves the given {@link Actor} object to the database.
+     *
+     * @param actor The actor to be saved.
+     * @return The saved actor, with its generated actor_id and its last_update.
+     */
+    Mono<Actor> save(Actor actor);
+
+    /**
+     * Updates the given {@link Actor} object in the database.
+     *
+     * @param actor The actor to be updated.
+     * @return The number of rows affected.
+     */
+    Mono<Integer> update(Actor actor);
+
+    /**
+     * Retrieves the {@link Actor} object with the given actor ID from the
+     * database.
+     *
+     * @param actor_id The ID of the actor to be retrieved.
+     * @return The actor, or an empty {@link Mono} if no such actor was found.
+     */
+    Mono<Actor> findById(int actor_id);
+
+    /**
+     * Deletes the {@link Actor} object with the given actor ID from the
+     * database and records a tombstone for the change feed.
+     *
+     * @param actor_id The ID of the actor to be deleted.
+     * @return The number of rows affected.
+     */
+    Mono<Integer> deleteById(int actor_id);
+
+    /**
+     * Retrieves all {@link Actor} objects from the database, emitting each one
+     * as it is read and only as fast as the subscriber requests them.
+     *
+     * @return All actors, in ID order.
+     */
+    Flux<Actor> findAll();
+
+    /**
+     * Retrieves the {@link Actor} objects whose first name starts with the given
+     * text.
+     *
+     * @param first_name The first name prefix to search for.
+     * @return The matching actors.
+     */
+    Flux<Actor> findActorByFirstName(String first_name);
+
+    /**
+     * Retrieves at most {@code limit} {@link Actor} objects with an ID greater
+     * than the given one, ordered by ID.
+     *
+     * @param actor_id The ID after which the page starts.
+     * @param limit    The maximum number of actors to return.
+     * @return The page of actors.
+     */
+    Flux<Actor> findAllAfter(int actor_id, int limit);
+}
@@ -0,0 +1,23 @@
+package com.accesodatos.springbootjdbctemplate.repository;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a repository method that only reads, so it may be served by a read
+ * replica when the read/write split is enabled.
+ *
+ * Methods without this annotation always run on the primary.
+ *
+ * @author AccesoDatos
+ *
+ * @see com.accesodatos.springbootjdbctemplate.config.ReadWriteSplitConfig
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReplicaRead {
+}
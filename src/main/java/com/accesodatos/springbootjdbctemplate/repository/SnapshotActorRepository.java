@@ -0,0 +1,463 @@
+package com.accesodatos.springbootjdbctemplate.repository;
+
+import java.time.Duration;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.accesodatos.springbootjdbctemplate.models.Actor;
+import com.accesodatos.springbootjdbctemplate.models.ActorChange;
+import com.accesodatos.springbootjdbctemplate.models.ActorCount;
+import com.accesodatos.springbootjdbctemplate.models.ActorField;
+import com.accesodatos.springbootjdbctemplate.models.ActorTableVersion;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * A class that implements the {@link JdbcRepository} interface by serving
+ * every read of the actor table from an in-memory {@link ActorSnapshot}.
+ *
+ * The whole table is loaded when the application starts and again every
+ * `actors.snapshot.refresh-interval`, which picks up writes made by other
+ * instances. Writes go through to {@link ActorRepository} and then publish a
+ * new snapshot: an insert or update, batches included, patches the snapshot
+ * with the rows as the primary now has them, and a delete removes the rows.
+ * Snapshots are immutable and swapped atomically, so reads never lock or see
+ * a half applied change. Patches are applied one at a time: the row of an
+ * update is re-read under the lock, and a patch never replaces a row with one
+ * of an older last_update, so concurrent writes cannot land out of order. A
+ * periodic reload that overlaps a patch is discarded and retried so it cannot
+ * bring back an older row; writes never wait for one.
+ *
+ * The change feed still reads the database, since it needs the tombstones.
+ *
+ * The class replaces `CachingActorRepository` as the `@Primary` repository
+ * when `actors.snapshot.enabled=true`. The size of the snapshot is published
+ * as the `actors.snapshot.size` gauge.
+ *
+ * @author AccesoDatos
+ *
+ * @see ActorSnapshot
+ * @see ActorRepository
+ */
+
+@Repository
+@Primary
+@ConditionalOnProperty(name = "actors.snapshot.enabled", havingValue = "true")
+public class SnapshotActorRepository implements JdbcRepository {
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotActorRepository.class);
+
+    /**
+     * How many times a reload is retried when writes overlap it.
+     */
+    private static final int RELOAD_ATTEMPTS = 3;
+
+    /**
+     * The repository that performs the actual database operations.
+     */
+    @Autowired
+    private ActorRepository actorRepository;
+
+    /**
+     * Runs the reads that patch the snapshot after a write in a transaction,
+     * which keeps them on the primary when reads go to replicas.
+     */
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * The interval of the full reloads, or zero to only load at startup.
+     */
+    @Value("${actors.snapshot.refresh-interval:5m}")
+    private Duration refreshInterval;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * The snapshot reads are served from; replaced, never modified.
+     */
+    private volatile ActorSnapshot snapshot;
+
+    /**
+     * The number of patches published, used to detect reloads that overlap
+     * a write.
+     */
+    private final AtomicLong patches = new AtomicLong();
+
+    private ScheduledExecutorService refresher;
+
+    /**
+     * Loads the table and schedules the periodic reloads.
+     */
+    @PostConstruct
+    void start() {
+        reload();
+        Gauge.builder("actors.snapshot.size", this, repository -> repository.snapshot.all().size())
+                .register(meterRegistry);
+        if (!refreshInterval.isZero()) {
+            refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "actor-snapshot-refresh");
+                thread.setDaemon(true);
+                return thread;
+            });
+            refresher.scheduleWithFixedDelay(() -> {
+                try {
+                    reload();
+                } catch (RuntimeException e) {
+                    log.warn("Actor snapshot reload failed; serving the previous snapshot", e);
+                }
+            }, refreshInterval.toMillis(), refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stops the periodic reloads.
+     */
+    @PreDestroy
+    void stop() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+
+    /**
+     * Inserts the actor and adds it to the snapshot.
+     *
+     * @param actor the actor to be inserted into the database
+     * @return the inserted actor, with its actor_id and last_update
+     */
+    @Override
+    public Actor save(Actor actor) {
+        Actor saved = actorRepository.save(actor);
+        patch(current -> withNewest(current, saved));
+        return saved;
+    }
+
+    /**
+     * Updates the actor and patches the snapshot with its new row.
+     *
+     * @param actor the actor to be updated in the database
+     * @return the number of rows affected by the database operation
+     */
+    @Override
+    public int update(Actor actor) {
+        int rows = actorRepository.update(actor);
+        if (rows > 0) {
+            refresh(actor.getActor_id());
+        }
+        return rows;
+    }
+
+    /**
+     * Updates the actor if it is unchanged and patches the snapshot with its
+     * new row.
+     *
+     * @param actor       the actor to be updated in the database
+     * @param last_update the last_update value the caller last read
+     * @return the number of rows affected by the database operation
+     */
+    @Override
+    public int updateIfUnchanged(Actor actor, LocalDateTime last_update) {
+        int rows = actorRepository.updateIfUnchanged(actor, last_update);
+        if (rows > 0) {
+            refresh(actor.getActor_id());
+        }
+        return rows;
+    }
+
+    /**
+     * Returns the actor with the given ID from the snapshot.
+     *
+     * @param actor_id the ID of the actor to be found
+     * @return the actor with the specified ID, or null if no actor with that ID
+     */
+    @Override
+    public Actor findById(int actor_id) {
+        return snapshot.get(actor_id);
+    }
+
+    /**
+     * Deletes the actor and removes it from the snapshot.
+     *
+     * @param actor_id the ID of the actor to be deleted from the database
+     * @return the number of rows affected by the database operation
+     */
+    @Override
+    public int deleteById(int actor_id) {
+        int rows = actorRepository.deleteById(actor_id);
+        patch(current -> current.without(actor_id));
+        return rows;
+    }
+
+    @Override
+    public List<Actor> findAll() {
+        return snapshot.all();
+    }
+
+    @Override
+    public List<Actor> findActorByFirstName(String first_name) {
+        return snapshot.findByFirstNamePrefix(first_name);
+    }
+
+    @Override
+    public List<Actor> findAllAfter(int actor_id, int limit) {
+        return snapshot.after(actor_id, limit);
+    }
+
+    @Override
+    public void streamAll(Consumer<Actor> consumer) {
+        snapshot.all().forEach(consumer);
+    }
+
+    /**
+     * Inserts the actors and patches the snapshot with their new rows, so a
+     * bulk import inserting in chunks does not reload the table after each.
+     * Rows the driver returned no ID for are left to the next refresh.
+     *
+     * @param actors the actors to be inserted into the database
+     * @return the number of rows affected for each actor
+     */
+    @Override
+    public int[] saveAll(List<Actor> actors) {
+        int[] rows = actorRepository.saveAll(actors);
+        int[] actor_ids = new int[rows.length];
+        int inserted = 0;
+        for (int i = 0; i < rows.length; i++) {
+            if (rows[i] != Statement.EXECUTE_FAILED && actors.get(i).getActor_id() > 0) {
+                actor_ids[inserted++] = actors.get(i).getActor_id();
+            }
+        }
+        if (inserted > 0) {
+            refresh(Arrays.copyOf(actor_ids, inserted));
+        }
+        return rows;
+    }
+
+    /**
+     * Updates the actors and patches the snapshot with the rows of those that
+     * did not fail, as the primary now has them.
+     *
+     * @param actors the actors to be updated in the database
+     * @return the number of rows affected for each actor
+     */
+    @Override
+    public int[] updateAll(List<Actor> actors) {
+        int[] rows = actorRepository.updateAll(actors);
+        int[] actor_ids = new int[rows.length];
+        int updated = 0;
+        for (int i = 0; i < rows.length; i++) {
+            if (rows[i] != Statement.EXECUTE_FAILED) {
+                actor_ids[updated++] = actors.get(i).getActor_id();
+            }
+        }
+        if (updated > 0) {
+            refresh(Arrays.copyOf(actor_ids, updated));
+        }
+        return rows;
+    }
+
+    /**
+     * Deletes the actors and removes those that did not fail from the
+     * snapshot.
+     *
+     * @param actor_ids the IDs of the actors to be deleted from the database
+     * @return the number of rows affected for each ID
+     */
+    @Override
+    public int[] deleteAllById(List<Integer> actor_ids) {
+        int[] rows = actorRepository.deleteAllById(actor_ids);
+        List<Integer> deleted = new ArrayList<>();
+        for (int i = 0; i < rows.length; i++) {
+            if (rows[i] != Statement.EXECUTE_FAILED) {
+                deleted.add(actor_ids.get(i));
+            }
+        }
+        if (!deleted.isEmpty()) {
+            patch(current -> current.withoutAll(deleted));
+        }
+        return rows;
+    }
+
+    @Override
+    public List<Actor> findByNamePrefix(String first_name, String last_name, String after_name, int after_id,
+            int limit) {
+        return snapshot.findByNamePrefix(first_name, last_name, after_name, after_id, limit);
+    }
+
+    @Override
+    public LocalDateTime findLastUpdateById(int actor_id) {
+        Actor actor = snapshot.get(actor_id);
+        return actor == null ? null : actor.getLast_update();
+    }
+
+    @Override
+    public ActorTableVersion findTableVersion() {
+        return snapshot.version();
+    }
+
+    @Override
+    public ActorTableVersion findVersionAfter(int actor_id, int limit) {
+        return snapshot.versionAfter(actor_id, limit);
+    }
+
+    @Override
+    public List<ActorChange> findChangesAfter(LocalDateTime changed_at, int actor_id, int settle_seconds,
+            int limit) {
+        return actorRepository.findChangesAfter(changed_at, actor_id, settle_seconds, limit);
+    }
+
+    @Override
+    public List<Actor> findAllByIds(int[] actor_ids) {
+        return snapshot.getAll(actor_ids);
+    }
+
+    @Override
+    public List<Map<String, Object>> findFieldsAfter(Set<ActorField> fields, int actor_id, int limit) {
+        return project(fields, snapshot.after(actor_id, limit));
+    }
+
+    @Override
+    public List<Map<String, Object>> findFieldsByNamePrefix(Set<ActorField> fields, String first_name,
+            String last_name, String after_name, int after_id, int limit) {
+        return project(fields, snapshot.findByNamePrefix(first_name, last_name, after_name, after_id, limit));
+    }
+
+    /**
+     * Counts in the database: the GROUP BY reads the index instead of the
+     * snapshot walking every actor.
+     */
+    @Override
+    public List<ActorCount> countByFirstNamePrefix(int length) {
+        return actorRepository.countByFirstNamePrefix(length);
+    }
+
+    @Override
+    public List<ActorCount> countByLastUpdateDate() {
+        return actorRepository.countByLastUpdateDate();
+    }
+
+    /**
+     * Copies the given fields of each actor into a map, as
+     * {@link ActorRepository} reads them from the selected columns.
+     */
+    private static List<Map<String, Object>> project(Set<ActorField> fields, List<Actor> actors) {
+        List<Map<String, Object>> rows = new ArrayList<>(actors.size());
+        for (Actor actor : actors) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (ActorField field : fields) {
+                row.put(field.column(), field.get(actor));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * Patches the snapshot with the row of the actor as the primary has it,
+     * removing the actor if the row is gone. The row is read under the lock,
+     * so a later write cannot be patched in first and then overwritten.
+     *
+     * @param actor_id the ID of the written actor
+     */
+    private synchronized void refresh(int actor_id) {
+        Actor actor = transactionTemplate.execute(status -> actorRepository.findById(actor_id));
+        patch(current -> actor == null ? current.without(actor_id) : withNewest(current, actor));
+    }
+
+    /**
+     * Patches the snapshot with the rows of the written actors as the primary
+     * has them, read under the lock like a single row. Actors whose row is
+     * gone are removed, and rows older than the ones the snapshot holds are
+     * skipped.
+     *
+     * @param actor_ids the IDs of the written actors
+     */
+    private synchronized void refresh(int[] actor_ids) {
+        List<Actor> actors = transactionTemplate.execute(status -> actorRepository.findAllByIds(actor_ids));
+        patch(current -> {
+            Set<Integer> gone = new HashSet<>();
+            for (int actor_id : actor_ids) {
+                gone.add(actor_id);
+            }
+            List<Actor> newest = new ArrayList<>();
+            for (Actor actor : actors) {
+                gone.remove(actor.getActor_id());
+                Actor existing = current.get(actor.getActor_id());
+                if (existing == null || !existing.getLast_update().isAfter(actor.getLast_update())) {
+                    newest.add(actor);
+                }
+            }
+            return current.withAll(newest).withoutAll(gone);
+        });
+    }
+
+    /**
+     * Adds the actor to the snapshot unless it already holds a newer row of
+     * the same actor.
+     */
+    private static ActorSnapshot withNewest(ActorSnapshot current, Actor actor) {
+        Actor existing = current.get(actor.getActor_id());
+        if (existing != null && existing.getLast_update().isAfter(actor.getLast_update())) {
+            return current;
+        }
+        return current.with(actor);
+    }
+
+    /**
+     * Publishes a new snapshot derived from the current one.
+     *
+     * @param change the change applied to the current snapshot
+     */
+    private synchronized void patch(UnaryOperator<ActorSnapshot> change) {
+        patches.incrementAndGet();
+        snapshot = change.apply(snapshot);
+    }
+
+    /**
+     * Reads the whole table and publishes it as the new snapshot, unless a
+     * patch was published while it was being read, in which case the read is
+     * retried.
+     */
+    private void reload() {
+        for (int attempt = 1; attempt <= RELOAD_ATTEMPTS; attempt++) {
+            long seen = patches.get();
+            List<Actor> actors = new ArrayList<>();
+            actorRepository.streamAll(actors::add);
+            ActorSnapshot loaded = ActorSnapshot.of(actors);
+            synchronized (this) {
+                if (snapshot == null || patches.get() == seen) {
+                    snapshot = loaded;
+                    return;
+                }
+            }
+        }
+        log.warn("Actor snapshot reload skipped after {} overlapping writes; the next refresh retries it",
+                RELOAD_ATTEMPTS);
+    }
+}
@@ -0,0 +1,210 @@
+package com.accesodatos.springbootjdbctemplate.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.accesodatos.springbootjdbctemplate.models.ActorChange;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * The `ActorChangeNotifier` class pushes every {@link ActorChange} published
+ * by the repository to the clients subscribed to the change stream, as
+ * Server-Sent Events.
+ *
+ * Each event is named after the change type and carries the change as JSON.
+ * Changes with a known time also carry their change feed token as the event
+ * id, which a client can pass as `since` to the change feed after a
+ * reconnect.
+ *
+ * Every subscriber has its own queue of at most
+ * `actors.changes.subscriber-buffer` events, drained in the order the writes
+ * happened by a background thread of its own while it has events, so writers
+ * never wait for subscribers and a slow subscriber does not hold up the
+ * others. A subscriber whose queue is full is disconnected and has to catch
+ * up through the change feed.
+ *
+ * The number of subscribers is published as the `actors.changes.subscribers`
+ * gauge, and the subscribers disconnected for falling behind as the
+ * `actors.changes.slow-subscribers` counter.
+ *
+ * @author AccesoDatos
+ * @version 1.0
+ */
+@Service
+@ConditionalOnWebApplication(type = Type.SERVLET)
+public class ActorChangeNotifier {
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    private final ExecutorService sender = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "actor-change-notifier");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Duration timeout;
+
+    private final int bufferSize;
+
+    private final Counter slowSubscribers;
+
+    /**
+     * Constructs a new `ActorChangeNotifier`.
+     *
+     * @param timeout       how long a subscription stays open before the client
+     *                      has to reconnect
+     * @param bufferSize    how many events may wait for one subscriber
+     * @param meterRegistry the registry the subscriber meters are published to
+     */
+    public ActorChangeNotifier(@Value("${actors.changes.sse-timeout:30m}") Duration timeout,
+            @Value("${actors.changes.subscriber-buffer:256}") int bufferSize, MeterRegistry meterRegistry) {
+        this.timeout = timeout;
+        this.bufferSize = bufferSize;
+        Gauge.builder("actors.changes.subscribers", subscribers, List::size).register(meterRegistry);
+        this.slowSubscribers = meterRegistry.counter("actors.changes.slow-subscribers");
+    }
+
+    /**
+     * Opens a new subscription to the change stream.
+     *
+     * @return the emitter the changes are sent through
+     */
+    public SseEmitter subscribe() {
+        return subscribe(new SseEmitter(timeout.toMillis()));
+    }
+
+    /**
+     * Subscribes the given emitter to the change stream.
+     *
+     * @param emitter the emitter the changes are sent through
+     * @return the emitter
+     */
+    SseEmitter subscribe(SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    /**
+     * Queues a change for every subscriber.
+     *
+     * @param change the change published by the repository
+     */
+    @EventListener
+    public void onChange(ActorChange change) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        SseEmitter.SseEventBuilder event = SseEmitter.event().name(change.getType().name().toLowerCase());
+        if (change.getChanged_at() != null) {
+            event.id(ActorService.changeToken(change.getChanged_at(), change.getActor_id()));
+        }
+        Set<DataWithMediaType> data = event.data(change, MediaType.APPLICATION_JSON).build();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(data);
+        }
+    }
+
+    /**
+     * Closes every subscription and stops the sender threads.
+     */
+    @PreDestroy
+    public void close() {
+        sender.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    /**
+     * A subscription with its queue of events still to be sent.
+     */
+    private final class Subscriber implements Runnable {
+
+        private final SseEmitter emitter;
+
+        private final BlockingQueue<Set<DataWithMediaType>> events = new ArrayBlockingQueue<>(bufferSize);
+
+        /**
+         * Whether a sender thread is draining the queue.
+         */
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        /**
+         * Set when the queue overflowed, so the sender completes the emitter
+         * instead of the writer that published the change.
+         */
+        private volatile boolean overflowed;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        /**
+         * Queues an event and starts draining the queue if no thread is.
+         */
+        void offer(Set<DataWithMediaType> data) {
+            if (overflowed) {
+                return;
+            }
+            if (!events.offer(data)) {
+                overflowed = true;
+                subscribers.remove(this);
+                slowSubscribers.increment();
+            }
+            if (draining.compareAndSet(false, true)) {
+                sender.execute(this);
+            }
+        }
+
+        /**
+         * Sends the queued events until the queue is empty.
+         */
+        @Override
+        public void run() {
+            try {
+                Set<DataWithMediaType> data;
+                while (!overflowed && (data = events.poll()) != null) {
+                    emitter.send(data);
+                }
+                if (overflowed) {
+                    events.clear();
+                    emitter.complete();
+                    return;
+                }
+            } catch (IOException | IllegalStateException e) {
+                subscribers.remove(this);
+                return;
+            } finally {
+                draining.set(false);
+            }
+            if (!events.isEmpty() && draining.compareAndSet(false, true)) {
+                sender.execute(this);
+            }
+        }
+    }
+}
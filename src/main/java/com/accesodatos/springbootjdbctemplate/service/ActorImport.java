@@ -0,0 +1,199 @@
+package com.accesodatos.springbootjdbctemplate.service;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.accesodatos.springbootjdbctemplate.models.Actor;
+import com.accesodatos.springbootjdbctemplate.models.ActorImportError;
+import com.accesodatos.springbootjdbctemplate.models.ActorImportResult;
+import com.accesodatos.springbootjdbctemplate.repository.JdbcRepository;
+
+import io.micrometer.core.instrument.Counter;
+
+/**
+ * One bulk import of actors, fed a row at a time as the upload is parsed.
+ *
+ * Valid rows are buffered and inserted with
+ * {@link JdbcRepository#saveAll(List)} whenever `chunk-size` of them are
+ * waiting, so memory use does not grow with the upload and each chunk is
+ * committed before the next one is read. After each chunk the progress is
+ * logged and added to the `actors.import.rows` counter. Rows with a missing
+ * or too long name, rows the parser could not read and rows whose insert
+ * failed are counted as rejected; the first `max-errors` of them are
+ * reported with their line. An import that fails part way is ended with
+ * {@link #fail()}, which reports what the committed chunks imported and the
+ * line the import stopped at.
+ *
+ * Instances are created by {@link ActorService#startImport()} and are not
+ * thread-safe.
+ *
+ * @author AccesoDatos
+ * @version 1.0
+ */
+public class ActorImport {
+
+    private static final Logger log = LoggerFactory.getLogger(ActorImport.class);
+
+    /**
+     * The length of the name columns.
+     */
+    static final int MAX_NAME_LENGTH = 45;
+
+    private final JdbcRepository actorRepository;
+
+    private final int chunkSize;
+
+    private final int maxErrors;
+
+    private final Counter importedRows;
+
+    private final Counter rejectedRows;
+
+    private final List<Actor> pending;
+
+    private final List<Long> pendingLines;
+
+    private final List<ActorImportError> errors = new ArrayList<>();
+
+    private long imported;
+
+    private long rejected;
+
+    /**
+     * The last line added or rejected.
+     */
+    private long line;
+
+    ActorImport(JdbcRepository actorRepository, int chunkSize, int maxErrors, Counter importedRows,
+            Counter rejectedRows) {
+        this.actorRepository = actorRepository;
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+        this.importedRows = importedRows;
+        this.rejectedRows = rejectedRows;
+        this.pending = new ArrayList<>(chunkSize);
+        this.pendingLines = new ArrayList<>(chunkSize);
+    }
+
+    /**
+     * Validates a parsed row and queues it for insertion.
+     *
+     * @param line  the number of the row in the upload
+     * @param actor the parsed actor; only its names are imported
+     */
+    public void add(long line, Actor actor) {
+        this.line = Math.max(this.line, line);
+        String problem = validate(actor);
+        if (problem != null) {
+            reject(line, problem);
+            return;
+        }
+        pending.add(actor);
+        pendingLines.add(line);
+        if (pending.size() >= chunkSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Records a row that could not be parsed.
+     *
+     * @param line    the number of the row in the upload
+     * @param message why the row was rejected
+     */
+    public void reject(long line, String message) {
+        this.line = Math.max(this.line, line);
+        rejected++;
+        rejectedRows.increment();
+        if (errors.size() < maxErrors) {
+            errors.add(new ActorImportError(line, message));
+        }
+    }
+
+    /**
+     * Inserts the rows still queued and returns the outcome of the import.
+     *
+     * @return the counts of imported and rejected rows and the first errors
+     */
+    public ActorImportResult finish() {
+        flush();
+        log.info("Import finished: {} actors imported, {} rejected", imported, rejected);
+        return new ActorImportResult(imported, rejected, errors);
+    }
+
+    /**
+     * Ends an import that failed, dropping the rows still queued.
+     *
+     * @return the counts of the rows imported and rejected before the failure,
+     *         and the first line of the chunk that failed or, if none did, the
+     *         line after the last one read
+     */
+    public ActorImportResult fail() {
+        return fail(line + 1);
+    }
+
+    /**
+     * Ends an import whose upload could not be read at a line, rejecting the
+     * line and dropping the rows still queued.
+     *
+     * @param line    the number of the line that could not be read
+     * @param message why the line could not be read
+     * @return the counts of the rows imported and rejected before the failure,
+     *         and the first line of the chunk that failed or, if none did, the
+     *         line that could not be read
+     */
+    public ActorImportResult fail(long line, String message) {
+        reject(line, message);
+        return fail(line);
+    }
+
+    private ActorImportResult fail(long next) {
+        long failed_line = pending.isEmpty() ? next : pendingLines.get(0);
+        pending.clear();
+        pendingLines.clear();
+        log.warn("Import failed at line {}: {} actors imported, {} rejected", failed_line, imported, rejected);
+        return new ActorImportResult(imported, rejected, errors, failed_line);
+    }
+
+    private void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        int[] rows = actorRepository.saveAll(pending);
+        int inserted = 0;
+        for (int i = 0; i < rows.length; i++) {
+            if (rows[i] == Statement.EXECUTE_FAILED) {
+                reject(pendingLines.get(i), "Insert failed");
+            } else {
+                inserted++;
+            }
+        }
+        imported += inserted;
+        importedRows.increment(inserted);
+        pending.clear();
+        pendingLines.clear();
+        log.info("Import progress: {} actors imported, {} rejected", imported, rejected);
+    }
+
+    /**
+     * Returns why the actor cannot be imported, or null if it can.
+     */
+    static String validate(Actor actor) {
+        String problem = validateName("first_name", actor.getFirst_name());
+        return problem != null ? problem : validateName("last_name", actor.getLast_name());
+    }
+
+    private static String validateName(String field, String value) {
+        if (value == null || value.isBlank()) {
+            return field + " is missing";
+        }
+        if (value.length() > MAX_NAME_LENGTH) {
+            return field + " is longer than " + MAX_NAME_LENGTH + " characters";
+        }
+        return null;
+    }
+}
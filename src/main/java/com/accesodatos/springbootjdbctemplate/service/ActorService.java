@@ -1,12 +1,42 @@
 package com.accesodatos.springbootjdbctemplate.service;
 
+import java.nio.charset.StandardCharsets;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.IntUnaryOperator;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.accesodatos.springbootjdbctemplate.config.DataSourceRoute;
 import com.accesodatos.springbootjdbctemplate.models.Actor;
-import com.accesodatos.springbootjdbctemplate.repository.ActorRepository;
+import com.accesodatos.springbootjdbctemplate.models.ActorBatchResult;
+import com.accesodatos.springbootjdbctemplate.models.ActorBatchRow;
+import com.accesodatos.springbootjdbctemplate.models.ActorChange;
+import com.accesodatos.springbootjdbctemplate.models.ActorChangePage;
+import com.accesodatos.springbootjdbctemplate.models.ActorCount;
+import com.accesodatos.springbootjdbctemplate.models.ActorField;
+import com.accesodatos.springbootjdbctemplate.models.ActorLookup;
+import com.accesodatos.springbootjdbctemplate.models.ActorPage;
+import com.accesodatos.springbootjdbctemplate.models.ActorProjectionPage;
+import com.accesodatos.springbootjdbctemplate.models.ActorTableVersion;
+import com.accesodatos.springbootjdbctemplate.models.UpdateResult;
+import com.accesodatos.springbootjdbctemplate.repository.JdbcRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 
 /**
  * The `ActorService` class provides methods for performing
@@ -14,7 +44,15 @@ import com.accesodatos.springbootjdbctemplate.repository.ActorRepository;
  * 
  * The @Service annotation is used to indicate that this
  * class is a service class and it uses the @Autowired annotation
- * to inject an instance of the `ActorRepository` class.
+ * to inject the primary `JdbcRepository`, which is the caching
+ * `CachingActorRepository` unless the actor cache is disabled.
+ *
+ * Lookups by id and by name prefix go through a {@link SingleFlight}, so
+ * concurrent identical lookups share one repository call and its result. It
+ * can be switched off with `actors.single-flight.enabled=false`. Lookups that
+ * must see the primary, because the client just wrote or a transaction is
+ * active, never share a call, since the shared one may have read a replica
+ * or missed the transaction's own writes.
  *
  * @author AccesoDatos
  * @version 1.0
@@ -23,11 +61,77 @@ import com.accesodatos.springbootjdbctemplate.repository.ActorRepository;
 public class ActorService {
 
     /**
-     * An instance of `ActorRepository` for performing database operations on
+     * An instance of `JdbcRepository` for performing database operations on
      * actors.
      */
     @Autowired
-    ActorRepository actorRepository;
+    JdbcRepository actorRepository;
+
+    /**
+     * The largest page size a client may request.
+     */
+    @Value("${actors.page.max-limit:1000}")
+    int maxPageLimit;
+
+    /**
+     * The largest number of ids a client may look up at once.
+     */
+    @Value("${actors.multi-get.max-ids:1000}")
+    int maxLookupIds;
+
+    /**
+     * How long the change feed waits before reporting a change, so changes
+     * committed out of order within that time are not skipped.
+     */
+    @Value("${actors.changes.settle-time:2s}")
+    Duration changesSettleTime;
+
+    /**
+     * Whether concurrent identical lookups share one repository call.
+     */
+    @Value("${actors.single-flight.enabled:true}")
+    boolean singleFlightEnabled;
+
+    /**
+     * The number of imported rows inserted at a time.
+     */
+    @Value("${actors.import.chunk-size:1000}")
+    int importChunkSize;
+
+    /**
+     * The number of rejected rows an import reports.
+     */
+    @Value("${actors.import.max-errors:100}")
+    int importMaxErrors;
+
+    /**
+     * The arguments of a prefix search, identifying identical searches.
+     */
+    private record SearchKey(String first_name, String last_name, String after_name, int after_id, int limit) {
+    }
+
+    private final SingleFlight<Integer, Actor> findByIdFlight;
+
+    private final SingleFlight<SearchKey, List<Actor>> searchFlight;
+
+    private final Counter importedRows;
+
+    private final Counter rejectedRows;
+
+    /**
+     * Constructs a new `ActorService`.
+     *
+     * @param meterRegistry the registry the single-flight and import counters
+     *                      are published to
+     */
+    public ActorService(MeterRegistry meterRegistry) {
+        this.findByIdFlight = new SingleFlight<>("findById", meterRegistry);
+        this.searchFlight = new SingleFlight<>("findByNamePrefix", meterRegistry);
+        this.importedRows = Counter.builder("actors.import.rows").tag("outcome", "imported")
+                .description("The rows of bulk imports inserted").register(meterRegistry);
+        this.rejectedRows = Counter.builder("actors.import.rows").tag("outcome", "rejected")
+                .description("The rows of bulk imports left out").register(meterRegistry);
+    }
 
     /**
      * Retrieves a list of all actors from the database.
@@ -42,9 +146,14 @@ public class ActorService {
      * Creates a new actor in the database.
      *
      * @param actor The actor to be created.
-     * @return The id of the created actor.
+     * @return The created actor, with its id and last update time.
+     * @throws IllegalArgumentException if a name is missing or too long.
      */
-    public int createActor(Actor actor) {
+    public Actor createActor(Actor actor) {
+        String problem = ActorImport.validate(actor);
+        if (problem != null) {
+            throw new IllegalArgumentException(problem);
+        }
         return actorRepository.save(
                 new Actor(
                         actor.getFirst_name(),
@@ -58,7 +167,66 @@ public class ActorService {
      * @return The actor with the specified id.
      */
     public Actor findActorById(int actor_id) {
-        return actorRepository.findById(actor_id);
+        if (!mayShareLookup()) {
+            return actorRepository.findById(actor_id);
+        }
+        return findByIdFlight.execute(actor_id, () -> actorRepository.findById(actor_id));
+    }
+
+    /**
+     * Retrieves the actors with the given ids in one repository call, and the
+     * ids that have no actor.
+     *
+     * @param actor_ids The ids of the actors to be retrieved, in the order the
+     *                  client wants them.
+     * @return The actors found and the missing ids, both in request order.
+     * @throws IllegalArgumentException if there are no ids or more than the
+     *                                  configured maximum.
+     */
+    public ActorLookup findActorsByIds(int[] actor_ids) {
+        if (actor_ids.length == 0 || actor_ids.length > maxLookupIds) {
+            throw new IllegalArgumentException("Between 1 and " + maxLookupIds + " ids are required");
+        }
+        List<Actor> actors = actorRepository.findAllByIds(actor_ids);
+        Set<Integer> found = new HashSet<>();
+        actors.forEach(actor -> found.add(actor.getActor_id()));
+        List<Integer> missing = new ArrayList<>();
+        Arrays.stream(actor_ids).distinct().filter(actor_id -> !found.contains(actor_id)).forEach(missing::add);
+        return new ActorLookup(actors, missing);
+    }
+
+    /**
+     * Retrieves only the last update time of an actor, to validate a cached
+     * copy without reading the whole row.
+     *
+     * @param actor_id The id of the actor.
+     * @return The last update time, or null if the actor does not exist.
+     */
+    public LocalDateTime findActorLastUpdate(int actor_id) {
+        return actorRepository.findLastUpdateById(actor_id);
+    }
+
+    /**
+     * Retrieves the version of the whole actor table, to validate cached
+     * collections without reading any actor.
+     *
+     * @return The row count and latest update time of the actor table.
+     */
+    public ActorTableVersion findActorsVersion() {
+        return actorRepository.findTableVersion();
+    }
+
+    /**
+     * Retrieves the version of the page returned by
+     * {@link #findActorsPage(int, int)} for the same arguments, including the
+     * row that decides the next cursor.
+     *
+     * @param after The actor id after which the page starts.
+     * @param limit The maximum number of actors in the page.
+     * @return The row count and latest update time of the page.
+     */
+    public ActorTableVersion findActorsPageVersion(int after, int limit) {
+        return actorRepository.findVersionAfter(after, Math.min(limit, maxPageLimit) + 1);
     }
 
     /**
@@ -75,19 +243,418 @@ public class ActorService {
      * Updates an existing actor in the database.
      *
      * @param actor The updated actor.
-     * @return `true` if the update was successful, `false` otherwise.
+     * @return `true` if the update was successful, `false` if no actor with
+     *         that id exists.
+     */
+    public boolean updateActor(Actor actor) {
+        return actorRepository.update(actor) > 0;
+    }
+
+    /**
+     * Updates an existing actor in the database only if it has not been
+     * modified since the caller read it.
+     * 
+     * The existence of the actor is only checked when the update does not
+     * apply, to tell a missing actor from a concurrent modification.
+     *
+     * @param actor       The updated actor.
+     * @param last_update The last update time the caller read.
+     * @return The outcome of the update.
+     */
+    public UpdateResult updateActorIfUnchanged(Actor actor, LocalDateTime last_update) {
+        if (actorRepository.updateIfUnchanged(actor, last_update) > 0) {
+            return UpdateResult.UPDATED;
+        }
+        return actorRepository.findById(actor.getActor_id()) == null ? UpdateResult.NOT_FOUND
+                : UpdateResult.CONFLICT;
+    }
+
+    /**
+     * Retrieves the actors whose first name starts with the given text, at
+     * most the configured maximum page size of them, as the first page of
+     * {@link #searchActors(String, String, String, int)}.
+     *
+     * @param first_name The first name prefix of the actors to be retrieved.
+     * @return The first page of actors, in first name order, and the cursor of
+     *         the next page if more actors match.
+     */
+    public ActorPage findActorByFirstName(String first_name) {
+        return searchActors(first_name, null, null, maxPageLimit);
+    }
+
+    /**
+     * Retrieves one keyset page of actors from the database.
+     * 
+     * One extra row is requested to find out whether another page follows
+     * without issuing a count query. The version of the rows read is the one
+     * {@link #findActorsPageVersion(int, int)} returns, so the page carries its
+     * ETag without a second query.
+     *
+     * @param after The actor id after which the page starts.
+     * @param limit The requested page size, capped at the configured maximum.
+     * @return The page of actors, its version and the cursor of the next page.
+     */
+    public ActorPage findActorsPage(int after, int limit) {
+        int pageSize = Math.min(limit, maxPageLimit);
+        List<Actor> actors = actorRepository.findAllAfter(after, pageSize + 1);
+        ActorTableVersion version = versionOf(actors);
+        if (actors.size() <= pageSize) {
+            return new ActorPage(actors, null, version);
+        }
+        List<Actor> page = actors.subList(0, pageSize);
+        return new ActorPage(page, String.valueOf(page.get(pageSize - 1).getActor_id()), version);
+    }
+
+    /**
+     * Retrieves one keyset page of actors whose names start with the given
+     * prefixes. Results are ordered by first name when a first name prefix is
+     * given and by last name otherwise.
+     *
+     * @param first_name The first name prefix, or null.
+     * @param last_name  The last name prefix, or null.
+     * @param after      The cursor returned with the previous page, or null.
+     * @param limit      The requested page size, capped at the configured maximum.
+     * @return The page of actors and the cursor of the next page.
+     * @throws IllegalArgumentException if the cursor is malformed.
+     */
+    public ActorPage searchActors(String first_name, String last_name, String after, int limit) {
+        int pageSize = Math.min(limit, maxPageLimit);
+        String after_name = "";
+        int after_id = 0;
+        if (after != null) {
+            String cursor = decodeSearchCursor(after);
+            after_id = Integer.parseInt(cursor.substring(0, cursor.indexOf(':')));
+            after_name = cursor.substring(cursor.indexOf(':') + 1);
+        }
+        SearchKey key = new SearchKey(first_name, last_name, after_name, after_id, pageSize + 1);
+        List<Actor> actors = mayShareLookup()
+                ? searchFlight.execute(key, () -> actorRepository.findByNamePrefix(key.first_name(),
+                        key.last_name(), key.after_name(), key.after_id(), key.limit()))
+                : actorRepository.findByNamePrefix(first_name, last_name, after_name, after_id, pageSize + 1);
+        if (actors.size() <= pageSize) {
+            return new ActorPage(actors, null);
+        }
+        List<Actor> page = actors.subList(0, pageSize);
+        Actor last = page.get(pageSize - 1);
+        String name = first_name != null ? last.getFirst_name() : last.getLast_name();
+        return new ActorPage(page, searchCursor(last.getActor_id(), name));
+    }
+
+    /**
+     * Retrieves one page of actors ordered by id, as
+     * {@link #findActorsPage(int, int)} does, reading only the given fields.
+     * The id and the last update time are always read to build the cursor
+     * and the version, and left out of the page unless they were requested.
+     *
+     * @param fields The fields to read.
+     * @param after  The actor id after which the page starts.
+     * @param limit  The requested page size, capped at the configured maximum.
+     * @return The page of projected actors, its version and the cursor of the
+     *         next page.
+     */
+    public ActorProjectionPage findActorsPage(Set<ActorField> fields, int after, int limit) {
+        int pageSize = Math.min(limit, maxPageLimit);
+        Set<ActorField> selected = with(with(fields, ActorField.ACTOR_ID), ActorField.LAST_UPDATE);
+        List<Map<String, Object>> rows = actorRepository.findFieldsAfter(selected, after, pageSize + 1);
+        LocalDateTime last_update = null;
+        for (Map<String, Object> row : rows) {
+            LocalDateTime row_update = (LocalDateTime) row.get(ActorField.LAST_UPDATE.column());
+            if (last_update == null || row_update.isAfter(last_update)) {
+                last_update = row_update;
+            }
+        }
+        ActorTableVersion version = new ActorTableVersion(rows.size(), last_update);
+        String next_cursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            next_cursor = String.valueOf(rows.get(pageSize - 1).get(ActorField.ACTOR_ID.column()));
+        }
+        return new ActorProjectionPage(retain(rows, fields), next_cursor, version);
+    }
+
+    /**
+     * Retrieves one keyset page of actors by name prefix, as
+     * {@link #searchActors(String, String, String, int)} does, reading only the
+     * given fields. The id and the ordering name are always read to build the
+     * cursor, and left out of the page unless they were requested.
+     *
+     * @param fields     The fields to read.
+     * @param first_name The first name prefix, or null.
+     * @param last_name  The last name prefix, or null.
+     * @param after      The cursor returned with the previous page, or null.
+     * @param limit      The requested page size, capped at the configured maximum.
+     * @return The page of projected actors and the cursor of the next page.
+     * @throws IllegalArgumentException if the cursor is malformed.
+     */
+    public ActorProjectionPage searchActors(Set<ActorField> fields, String first_name, String last_name,
+            String after, int limit) {
+        int pageSize = Math.min(limit, maxPageLimit);
+        String after_name = "";
+        int after_id = 0;
+        if (after != null) {
+            String cursor = decodeSearchCursor(after);
+            after_id = Integer.parseInt(cursor.substring(0, cursor.indexOf(':')));
+            after_name = cursor.substring(cursor.indexOf(':') + 1);
+        }
+        ActorField nameField = first_name != null ? ActorField.FIRST_NAME : ActorField.LAST_NAME;
+        Set<ActorField> selected = with(with(fields, ActorField.ACTOR_ID), nameField);
+        List<Map<String, Object>> rows = actorRepository.findFieldsByNamePrefix(selected, first_name, last_name,
+                after_name, after_id, pageSize + 1);
+        String next_cursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            Map<String, Object> last = rows.get(pageSize - 1);
+            next_cursor = searchCursor((Integer) last.get(ActorField.ACTOR_ID.column()),
+                    (String) last.get(nameField.column()));
+        }
+        return new ActorProjectionPage(retain(rows, fields), next_cursor);
+    }
+
+    /**
+     * Counts the actors by the first letters of their first name, ignoring
+     * case. The counting is done by the database.
+     *
+     * @param length The number of letters of the prefix.
+     * @return The count of each prefix, ordered by prefix.
+     * @throws IllegalArgumentException if the length is not between 1 and 45,
+     *                                  the length of the column.
+     */
+    public List<ActorCount> countActorsByFirstNamePrefix(int length) {
+        if (length < 1 || length > 45) {
+            throw new IllegalArgumentException("The prefix length must be between 1 and 45");
+        }
+        return actorRepository.countByFirstNamePrefix(length);
+    }
+
+    /**
+     * Counts the actors by the date of their last update. The counting is done
+     * by the database.
+     *
+     * @return The count of each date, ordered by date.
+     */
+    public List<ActorCount> countActorsByLastUpdateDate() {
+        return actorRepository.countByLastUpdateDate();
+    }
+
+    /**
+     * Returns the decoded search cursor, which is the id and the ordering name
+     * of the last actor separated by a colon.
      */
-    public Boolean updateActor(Actor actor) {
-        return actorRepository.update(actor) == 0;
+    private static String decodeSearchCursor(String after) {
+        String cursor = new String(Base64.getUrlDecoder().decode(after), StandardCharsets.UTF_8);
+        if (cursor.indexOf(':') < 0) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        return cursor;
     }
 
     /**
-     * Retrieves a list of actors with a specific first name from the database.
+     * Returns the row count and latest last update time of the given actors,
+     * as the version queries of the repository compute them for the same rows.
      *
-     * @param first_name The first name of the actors to be retrieved.
-     * @return A list of actors with the specified first name.
+     * @param actors The actors read.
+     * @return The version of the actors.
      */
-    public List<Actor> findActorByFirstName(String first_name) {
-        return actorRepository.findActorByFirstName(first_name);
+    public static ActorTableVersion versionOf(List<Actor> actors) {
+        LocalDateTime last_update = null;
+        for (Actor actor : actors) {
+            if (last_update == null || actor.getLast_update().isAfter(last_update)) {
+                last_update = actor.getLast_update();
+            }
+        }
+        return new ActorTableVersion(actors.size(), last_update);
+    }
+
+    /**
+     * Returns the search cursor pointing after the given actor.
+     */
+    private static String searchCursor(int actor_id, String name) {
+        String cursor = actor_id + ":" + name;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Set<ActorField> with(Set<ActorField> fields, ActorField field) {
+        Set<ActorField> selected = EnumSet.copyOf(fields);
+        selected.add(field);
+        return selected;
+    }
+
+    /**
+     * Removes the fields that were only read to build the cursor.
+     */
+    private static List<Map<String, Object>> retain(List<Map<String, Object>> rows, Set<ActorField> fields) {
+        for (ActorField field : ActorField.values()) {
+            if (!fields.contains(field)) {
+                rows.forEach(row -> row.remove(field.column()));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Retrieves the changes to the actors after the given token: the actors
+     * inserted or updated since, with their current names, and the actors
+     * deleted since. Without a token the feed starts from the beginning, so the
+     * first pages return every actor.
+     * 
+     * The token is the time of the change and the actor id of the last change
+     * returned, so the feed is a keyset over both and no change is returned
+     * twice. One extra row is requested to tell whether more changes follow.
+     *
+     * @param since The token returned with the previous page, or null.
+     * @param limit The requested page size, capped at the configured maximum.
+     * @return The page of changes and the token to continue from.
+     * @throws IllegalArgumentException if the token is malformed.
+     */
+    public ActorChangePage findChanges(String since, int limit) {
+        int pageSize = Math.min(limit, maxPageLimit);
+        LocalDateTime changed_at = LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC);
+        int actor_id = 0;
+        if (since != null) {
+            try {
+                String token = new String(Base64.getUrlDecoder().decode(since), StandardCharsets.UTF_8);
+                String[] parts = token.split(":");
+                changed_at = LocalDateTime.ofEpochSecond(Long.parseLong(parts[0]), Integer.parseInt(parts[1]),
+                        ZoneOffset.UTC);
+                actor_id = Integer.parseInt(parts[2]);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Malformed change token", e);
+            }
+        }
+        List<ActorChange> changes = actorRepository.findChangesAfter(changed_at, actor_id,
+                (int) changesSettleTime.toSeconds(), pageSize + 1);
+        boolean has_more = changes.size() > pageSize;
+        if (has_more) {
+            changes = changes.subList(0, pageSize);
+        }
+        if (!changes.isEmpty()) {
+            ActorChange last = changes.get(changes.size() - 1);
+            changed_at = last.getChanged_at();
+            actor_id = last.getActor_id();
+        }
+        return new ActorChangePage(changes, changeToken(changed_at, actor_id), has_more);
+    }
+
+    /**
+     * Tells whether the current lookup may share its repository call with
+     * concurrent identical lookups.
+     *
+     * @return true if single-flight is enabled and the lookup may be answered
+     *         from any connection
+     */
+    private boolean mayShareLookup() {
+        return singleFlightEnabled && !DataSourceRoute.isPrimaryRequired();
+    }
+
+    /**
+     * Encodes a position of the change feed as an opaque token.
+     *
+     * @param changed_at The time of the change.
+     * @param actor_id   The actor id of the change.
+     * @return The token.
+     */
+    public static String changeToken(LocalDateTime changed_at, int actor_id) {
+        String token = changed_at.toEpochSecond(ZoneOffset.UTC) + ":" + changed_at.getNano() + ":" + actor_id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Passes every actor in the database to the given consumer as it is read.
+     *
+     * @param consumer The consumer that receives each actor.
+     */
+    public void streamAllActors(Consumer<Actor> consumer) {
+        actorRepository.streamAll(consumer);
+    }
+
+    /**
+     * Starts a bulk import. The caller adds the rows as it parses them and
+     * finishes the import at the end of the upload.
+     *
+     * @return The import, inserting its rows in chunks.
+     */
+    public ActorImport startImport() {
+        return new ActorImport(actorRepository, importChunkSize, importMaxErrors, importedRows, rejectedRows);
+    }
+
+    /**
+     * Creates many actors in the database using batched inserts. Rows with a
+     * missing or too long name are reported as INVALID without being sent,
+     * so they cannot fail the batch of the valid rows.
+     *
+     * @param actors The actors to be created.
+     * @return The outcome of each row, with the generated id of each inserted
+     *         actor.
+     */
+    public ActorBatchResult createActors(List<Actor> actors) {
+        List<Actor> inserts = new ArrayList<>(actors.size());
+        List<Integer> indexes = new ArrayList<>(actors.size());
+        for (int i = 0; i < actors.size(); i++) {
+            Actor actor = actors.get(i);
+            if (ActorImport.validate(actor) == null) {
+                inserts.add(new Actor(actor.getFirst_name(), actor.getLast_name()));
+                indexes.add(i);
+            }
+        }
+        int[] counts = inserts.isEmpty() ? new int[0] : actorRepository.saveAll(inserts);
+        List<ActorBatchRow> rows = new ArrayList<>(actors.size());
+        for (int i = 0, insert = 0; i < actors.size(); i++) {
+            if (insert < indexes.size() && indexes.get(insert) == i) {
+                rows.add(toBatchRow(i, counts[insert], inserts.get(insert).getActor_id()));
+                insert++;
+            } else {
+                rows.add(new ActorBatchRow(i, 0, "INVALID"));
+            }
+        }
+        return new ActorBatchResult(rows);
+    }
+
+    /**
+     * Updates many existing actors in the database using batched updates.
+     *
+     * @param actors The updated actors.
+     * @return The outcome of each row.
+     */
+    public ActorBatchResult updateActors(List<Actor> actors) {
+        return toBatchResult(actorRepository.updateAll(actors), index -> actors.get(index).getActor_id());
+    }
+
+    /**
+     * Deletes many actors from the database using batched deletes.
+     *
+     * @param actor_ids The ids of the actors to be deleted.
+     * @return The outcome of each row.
+     */
+    public ActorBatchResult deleteActorsById(List<Integer> actor_ids) {
+        return toBatchResult(actorRepository.deleteAllById(actor_ids), actor_ids::get);
+    }
+
+    /**
+     * Turns the per-row counts of a batch into row outcomes. A count of
+     * {@link Statement#SUCCESS_NO_INFO} is reported by drivers that rewrite the
+     * batch into a multi-row statement and means the row was written.
+     *
+     * @param counts The number of rows affected for each row.
+     * @param ids    The actor id for each row.
+     * @return The outcome of each row.
+     */
+    private ActorBatchResult toBatchResult(int[] counts, IntUnaryOperator ids) {
+        List<ActorBatchRow> rows = new ArrayList<>(counts.length);
+        for (int i = 0; i < counts.length; i++) {
+            rows.add(toBatchRow(i, counts[i], ids.applyAsInt(i)));
+        }
+        return new ActorBatchResult(rows);
+    }
+
+    private static ActorBatchRow toBatchRow(int index, int count, int actor_id) {
+        String status;
+        if (count == Statement.EXECUTE_FAILED) {
+            status = "FAILED";
+        } else if (count == 0) {
+            status = "NOT_FOUND";
+        } else {
+            status = "OK";
+        }
+        return new ActorBatchRow(index, actor_id, status);
     }
-}
\ No newline at end of file
+}
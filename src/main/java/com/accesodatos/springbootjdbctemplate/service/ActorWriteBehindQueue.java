@@ -0,0 +1,271 @@
+package com.accesodatos.springbootjdbctemplate.service;
+
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import com.accesodatos.springbootjdbctemplate.models.Actor;
+import com.accesodatos.springbootjdbctemplate.models.WriteStatus;
+import com.accesodatos.springbootjdbctemplate.repository.JdbcRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * The `ActorWriteBehindQueue` class accepts actor inserts into a bounded
+ * in-memory queue and writes them to the database in the background.
+ *
+ * A single flusher thread takes the queued actors and inserts them with
+ * {@link JdbcRepository#saveAll(List)}, flushing when `batch-size` actors are
+ * waiting or `flush-interval` after the first one arrived, whichever comes
+ * first. Actors are validated before they are queued, and a batch that fails
+ * as a whole is retried one actor at a time. Each accepted actor gets a tracking id whose {@link WriteStatus} is
+ * kept for `status-ttl`. When the queue is full new actors are rejected, so
+ * callers can back off instead of the memory growing.
+ *
+ * On shutdown the queue stops accepting actors and the flusher writes every
+ * queued actor before the data source is closed.
+ *
+ * The queue is only created with `actors.write-behind.enabled=true`.
+ *
+ * @author AccesoDatos
+ * @version 1.0
+ */
+@Service
+@ConditionalOnProperty(name = "actors.write-behind.enabled", havingValue = "true")
+public class ActorWriteBehindQueue implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ActorWriteBehindQueue.class);
+
+    /**
+     * An actor waiting in the queue, with its tracking id.
+     */
+    private record PendingActor(String id, Actor actor) {
+    }
+
+    private final JdbcRepository actorRepository;
+
+    private final BlockingQueue<PendingActor> queue;
+
+    private final int batchSize;
+
+    private final Duration flushInterval;
+
+    private final Duration shutdownTimeout;
+
+    /**
+     * The status of every accepted actor, by tracking id.
+     */
+    private final Cache<String, WriteStatus> statuses;
+
+    private final Counter rejected;
+
+    private final Counter written;
+
+    private final Counter failed;
+
+    private volatile boolean running;
+
+    private Thread flusher;
+
+    /**
+     * Constructs a new `ActorWriteBehindQueue` with the configured bounds.
+     *
+     * @param actorRepository the repository the actors are inserted with
+     * @param capacity        the maximum number of queued actors
+     * @param batchSize       the maximum number of actors per insert batch
+     * @param flushInterval   how long the first queued actor may wait
+     * @param statusTtl       how long the status of an actor is kept
+     * @param shutdownTimeout how long shutdown waits for the queue to drain
+     * @param meterRegistry   the registry the queue meters are published to
+     */
+    public ActorWriteBehindQueue(JdbcRepository actorRepository,
+            @Value("${actors.write-behind.capacity:10000}") int capacity,
+            @Value("${actors.write-behind.batch-size:500}") int batchSize,
+            @Value("${actors.write-behind.flush-interval:50ms}") Duration flushInterval,
+            @Value("${actors.write-behind.status-ttl:10m}") Duration statusTtl,
+            @Value("${actors.write-behind.shutdown-timeout:30s}") Duration shutdownTimeout,
+            MeterRegistry meterRegistry) {
+        this.actorRepository = actorRepository;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.shutdownTimeout = shutdownTimeout;
+        this.statuses = Caffeine.newBuilder().expireAfterWrite(statusTtl).build();
+        meterRegistry.gaugeCollectionSize("actors.write-behind.queued", List.of(), queue);
+        this.rejected = meterRegistry.counter("actors.write-behind.actors", "result", "rejected");
+        this.written = meterRegistry.counter("actors.write-behind.actors", "result", "written");
+        this.failed = meterRegistry.counter("actors.write-behind.actors", "result", "failed");
+    }
+
+    /**
+     * Validates an actor and queues it for insertion, so that an actor that
+     * cannot be inserted is refused at once instead of failing its batch.
+     *
+     * @param actor the actor to be inserted
+     * @return the tracking id of the actor, or null if the queue is full or
+     *         shutting down
+     * @throws IllegalArgumentException if a name is missing or too long
+     */
+    public String enqueue(Actor actor) {
+        String problem = ActorImport.validate(actor);
+        if (problem != null) {
+            throw new IllegalArgumentException(problem);
+        }
+        PendingActor pending = new PendingActor(UUID.randomUUID().toString(),
+                new Actor(actor.getFirst_name(), actor.getLast_name()));
+        statuses.put(pending.id(), WriteStatus.QUEUED);
+        if (!running || !queue.offer(pending)) {
+            statuses.invalidate(pending.id());
+            rejected.increment();
+            return null;
+        }
+        return pending.id();
+    }
+
+    /**
+     * Returns the status of a queued actor.
+     *
+     * @param id the tracking id returned by {@link #enqueue(Actor)}
+     * @return the status, or null if the id is unknown or expired
+     */
+    public WriteStatus findStatus(String id) {
+        return statuses.getIfPresent(id);
+    }
+
+    /**
+     * Returns the number of actors waiting in the queue.
+     *
+     * @return the number of queued actors
+     */
+    public int size() {
+        return queue.size();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        flusher = new Thread(this::flushUntilStopped, "actor-write-behind");
+        flusher.start();
+    }
+
+    /**
+     * Stops accepting actors and waits for the flusher to write the queued
+     * ones.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            flusher.join(shutdownTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (flusher.isAlive() || !queue.isEmpty()) {
+            log.warn("Write-behind queue did not drain within {}, {} actors were not written", shutdownTimeout,
+                    queue.size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts the queue before the web server and stops it after the web server
+     * has finished its in-flight requests, so no accepted actor is lost.
+     *
+     * @return a phase below the phases of the web server lifecycles
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    /**
+     * Flushes batches until the queue is stopped, then drains it.
+     */
+    private void flushUntilStopped() {
+        List<PendingActor> batch = new ArrayList<>(batchSize);
+        try {
+            while (running) {
+                PendingActor first = queue.poll(flushInterval.toNanos(), TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + flushInterval.toNanos();
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingActor next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        while (queue.drainTo(batch, batchSize) > 0) {
+            flush(batch);
+        }
+    }
+
+    /**
+     * Inserts one batch of actors, records the status of each and clears the
+     * batch.
+     *
+     * When the batch fails as a whole, its actors are inserted one at a time,
+     * so a row the database refuses fails only itself and not the actors of
+     * other clients queued with it.
+     *
+     * @param batch the actors to be inserted
+     */
+    private void flush(List<PendingActor> batch) {
+        try {
+            int[] counts = actorRepository.saveAll(batch.stream().map(PendingActor::actor).toList());
+            for (int i = 0; i < counts.length; i++) {
+                record(batch.get(i), counts[i] != Statement.EXECUTE_FAILED);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Write-behind batch of {} actors failed, inserting them one at a time", batch.size(), e);
+            for (PendingActor pending : batch) {
+                try {
+                    actorRepository.save(pending.actor());
+                    record(pending, true);
+                } catch (RuntimeException rowFailure) {
+                    log.error("Write-behind insert of actor {} failed", pending.id(), rowFailure);
+                    record(pending, false);
+                }
+            }
+        } finally {
+            batch.clear();
+        }
+    }
+
+    private void record(PendingActor pending, boolean ok) {
+        statuses.put(pending.id(), ok ? WriteStatus.WRITTEN : WriteStatus.FAILED);
+        (ok ? written : failed).increment();
+    }
+}
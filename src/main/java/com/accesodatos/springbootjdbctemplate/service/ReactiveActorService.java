@@ -0,0 +1,120 @@
+package com.accesodatos.springbootjdbctemplate.service;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.stereotype.Service;
+
+import com.accesodatos.springbootjdbctemplate.models.Actor;
+import com.accesodatos.springbootjdbctemplate.models.ActorPage;
+import com.accesodatos.springbootjdbctemplate.repository.ReactiveRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The `ReactiveActorService` class is the non-blocking counterpart of
+ * {@link ActorService}, used by the WebFlux controller in the `reactive`
+ * profile.
+ *
+ * @author AccesoDatos
+ * @version 1.0
+ */
+@Service
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+public class ReactiveActorService {
+
+    /**
+     * An instance of `ReactiveRepository` for performing database operations
+     * on actors.
+     */
+    @Autowired
+    ReactiveRepository actorRepository;
+
+    /**
+     * The largest page size a client may request.
+     */
+    @Value("${actors.page.max-limit:1000}")
+    int maxPageLimit;
+
+    /**
+     * Retrieves all actors from the database as they are read.
+     *
+     * @return All actors.
+     */
+    public Flux<Actor> findAllActors() {
+        return actorRepository.findAll();
+    }
+
+    /**
+     * Creates a new actor in the database.
+     *
+     * @param actor The actor to be created.
+     * @return The created actor, with its id and last update time.
+     */
+    public Mono<Actor> createActor(Actor actor) {
+        return actorRepository.save(new Actor(actor.getFirst_name(), actor.getLast_name()));
+    }
+
+    /**
+     * Retrieves an actor with a specific id from the database.
+     *
+     * @param actor_id The id of the actor to be retrieved.
+     * @return The actor, or an empty {@link Mono} if it does not exist.
+     */
+    public Mono<Actor> findActorById(int actor_id) {
+        return actorRepository.findById(actor_id);
+    }
+
+    /**
+     * Deletes an actor with a specific id from the database.
+     *
+     * @param actor_id The id of the actor to be deleted.
+     * @return The number of deleted rows.
+     */
+    public Mono<Integer> deleteActorById(int actor_id) {
+        return actorRepository.deleteById(actor_id);
+    }
+
+    /**
+     * Updates an existing actor in the database.
+     *
+     * @param actor The actor with updated information.
+     * @return True if the actor was updated, false if it does not exist.
+     */
+    public Mono<Boolean> updateActor(Actor actor) {
+        return actorRepository.update(actor).map(rows -> rows > 0);
+    }
+
+    /**
+     * Retrieves the actors whose first name starts with the given text.
+     *
+     * @param first_name The first name prefix.
+     * @return The matching actors.
+     */
+    public Flux<Actor> findActorByFirstName(String first_name) {
+        return actorRepository.findActorByFirstName(first_name);
+    }
+
+    /**
+     * Retrieves one page of actors ordered by id, as
+     * {@link ActorService#findActorsPage(int, int)} does.
+     *
+     * @param after The actor id after which the page starts.
+     * @param limit The maximum number of actors in the page.
+     * @return The page of actors and the cursor of the next page.
+     */
+    public Mono<ActorPage> findActorsPage(int after, int limit) {
+        int pageSize = Math.min(limit, maxPageLimit);
+        return actorRepository.findAllAfter(after, pageSize + 1).collectList().map(actors -> {
+            if (actors.size() <= pageSize) {
+                return new ActorPage(actors, null);
+            }
+            List<Actor> page = actors.subList(0, pageSize);
+            return new ActorPage(page, String.valueOf(page.get(pageSize - 1).getActor_id()));
+        });
+    }
+}
@@ -0,0 +1,104 @@
+package com.accesodatos.springbootjdbctemplate.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * The `SingleFlight` class lets concurrent identical lookups share one call.
+ *
+ * The first caller for a key becomes the leader: it registers a future for
+ * the key, runs the lookup and completes the future with the result or the
+ * exception. Callers arriving with the same key while the lookup is in flight
+ * wait on that future instead of running their own. Once the lookup finishes
+ * the key is removed, so later callers start a fresh lookup and never see a
+ * stale result.
+ *
+ * The in-flight keys live in a {@link ConcurrentHashMap}, whose bins are
+ * locked independently and read without locking, so callers with different
+ * keys do not contend. Each call is counted in the `actors.single-flight`
+ * counter, tagged with the operation and whether it led or was coalesced.
+ *
+ * @author AccesoDatos
+ * @version 1.0
+ *
+ * @param <K> the type of the lookup key
+ * @param <V> the type of the lookup result
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter led;
+
+    private final Counter coalesced;
+
+    /**
+     * Constructs a new `SingleFlight` for one kind of lookup.
+     *
+     * @param operation     the name of the lookup, used as the meter tag
+     * @param meterRegistry the registry the counters are published to
+     */
+    public SingleFlight(String operation, MeterRegistry meterRegistry) {
+        this.led = Counter.builder("actors.single-flight")
+                .tag("operation", operation)
+                .tag("result", "led")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("actors.single-flight")
+                .tag("operation", operation)
+                .tag("result", "coalesced")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the result of the lookup for the key, sharing the call already
+     * in flight for the same key if there is one.
+     *
+     * @param key    the key identifying the lookup
+     * @param lookup the lookup to run if none is in flight
+     * @return the result of the lookup
+     */
+    public V execute(K key, Supplier<V> lookup) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> leader = inFlight.putIfAbsent(key, future);
+        if (leader != null) {
+            coalesced.increment();
+            try {
+                return leader.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw e;
+            }
+        }
+        led.increment();
+        try {
+            V value = lookup.get();
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * Returns the number of lookups in flight.
+     *
+     * @return the number of keys being looked up
+     */
+    public int inFlight() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,11 @@
+-- Tables and indexes the actor change feed relies on.
+-- Deleted actors leave a tombstone so the feed can report them;
+-- updated actors are found through the last_update index.
+CREATE TABLE actor_tombstone (
+    actor_id SMALLINT UNSIGNED NOT NULL,
+    deleted_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (actor_id),
+    KEY idx_actor_tombstone_deleted_at (deleted_at)
+);
+
+CREATE INDEX idx_actor_last_update ON actor (last_update);
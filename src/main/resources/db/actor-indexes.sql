@@ -0,0 +1,3 @@
+-- Indexes the actor search relies on. sakila ships idx_actor_last_name;
+-- prefix search by first name and full name needs the first_name index too.
+CREATE INDEX idx_actor_first_name ON actor (first_name);
@@ -0,0 +1,6 @@
+-- Microsecond precision for the actor versions.
+-- Every update gives last_update a new value; with whole seconds two
+-- updates in the same second would share one, so it keeps microseconds.
+ALTER TABLE actor MODIFY last_update TIMESTAMP(6) NOT NULL
+    DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6);
+ALTER TABLE actor_tombstone MODIFY deleted_at TIMESTAMP(6) NOT NULL;
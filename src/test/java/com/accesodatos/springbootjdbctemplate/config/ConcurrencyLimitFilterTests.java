@@ -0,0 +1,164 @@
+package com.accesodatos.springbootjdbctemplate.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ConcurrencyLimitFilterTests {
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	FilterRegistrationBean<ConcurrencyLimitFilter> registration;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	@Test
+	void shedsReadsOverTheLimitWithoutBlockingWrites() throws Exception {
+		AdaptiveConcurrencyLimit readLimit = registration.getFilter().getReadLimit();
+		int permits = 0;
+		while (readLimit.tryAcquire()) {
+			permits++;
+		}
+		try {
+			double rejected = meterRegistry.get("actors.concurrency.rejected").tag("operation", "read").counter()
+					.count();
+			mockMvc.perform(get("/api/v2/actors/1"))
+					.andExpect(status().isServiceUnavailable())
+					.andExpect(header().string("Retry-After", "1"));
+			assertEquals(rejected + 1,
+					meterRegistry.get("actors.concurrency.rejected").tag("operation", "read").counter().count());
+			assertEquals(permits, meterRegistry.get("actors.concurrency.in-flight").tag("operation", "read")
+					.gauge().value());
+
+			mockMvc.perform(put("/api/v2/actors/999").contentType(MediaType.APPLICATION_JSON)
+					.content("{\"first_name\":\"NOBODY\",\"last_name\":\"HERE\"}"))
+					.andExpect(status().isNotFound());
+		} finally {
+			for (int i = 0; i < permits; i++) {
+				readLimit.release();
+			}
+		}
+		mockMvc.perform(get("/api/v2/actors/1")).andExpect(status().isOk());
+	}
+
+	@Test
+	void shrinksTheLimitWhenLatencyRisesAndGrowsItBack() {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 2, 100);
+		for (int i = 0; i < 100; i++) {
+			saturate(limit, TimeUnit.MILLISECONDS.toNanos(5));
+		}
+		int steady = limit.getLimit();
+		assertTrue(steady > 20, "limit " + steady);
+
+		for (int i = 0; i < 20; i++) {
+			saturate(limit, TimeUnit.MILLISECONDS.toNanos(50));
+		}
+		int overloaded = limit.getLimit();
+		assertTrue(overloaded < steady / 2, "limit " + overloaded);
+
+		for (int i = 0; i < 200; i++) {
+			saturate(limit, TimeUnit.MILLISECONDS.toNanos(5));
+		}
+		assertTrue(limit.getLimit() > overloaded, "limit " + limit.getLimit());
+	}
+
+	@Test
+	void holdsThePermitOfAnAsyncRequestUntilItCompletes() throws Exception {
+		AdaptiveConcurrencyLimit readLimit = new AdaptiveConcurrencyLimit(10, 2, 100);
+		ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(readLimit, new AdaptiveConcurrencyLimit(10, 2, 100),
+				Duration.ofSeconds(1), List.of(), List.of(), new SimpleMeterRegistry());
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v2/actors/stream");
+		request.setAsyncSupported(true);
+		filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+
+		assertEquals(1, readLimit.getInFlight());
+		request.getAsyncContext().complete();
+		assertEquals(0, readLimit.getInFlight());
+		assertEquals(10, readLimit.getLimit());
+	}
+
+	@Test
+	void servesReadsWhileMoreSubscribersThanTheLimitWait() throws Exception {
+		AdaptiveConcurrencyLimit readLimit = registration.getFilter().getReadLimit();
+		int inFlight = readLimit.getInFlight();
+		List<MvcResult> subscribers = new ArrayList<>();
+		try {
+			for (int i = 0; i <= readLimit.getLimit(); i++) {
+				subscribers.add(mockMvc.perform(get("/api/v2/actors/changes/stream"))
+						.andExpect(request().asyncStarted())
+						.andReturn());
+			}
+			assertEquals(inFlight, readLimit.getInFlight());
+			mockMvc.perform(get("/api/v2/actors/1")).andExpect(status().isOk());
+		} finally {
+			subscribers.forEach(subscriber -> subscriber.getRequest().getAsyncContext().complete());
+		}
+	}
+
+	@Test
+	void probesTheLatencyWithoutLoadWithoutCuttingTheLimit() {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(50, 2, 50);
+		int lowest = limit.getLimit();
+		for (int i = 0; i < 200; i++) {
+			saturate(limit, TimeUnit.MILLISECONDS.toNanos(5));
+			lowest = Math.min(lowest, limit.getLimit());
+		}
+		assertEquals(50, lowest);
+	}
+
+	@Test
+	void backsOffOnFailuresDownToTheMinimum() {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 2, 100);
+		for (int i = 0; i < 50; i++) {
+			assertTrue(limit.tryAcquire());
+			limit.release(TimeUnit.MILLISECONDS.toNanos(5), true);
+		}
+		assertEquals(2, limit.getLimit());
+		assertTrue(limit.tryAcquire());
+		assertTrue(limit.tryAcquire());
+		assertFalse(limit.tryAcquire());
+	}
+
+	/**
+	 * Fills the limit and completes every call with the given latency.
+	 */
+	private static void saturate(AdaptiveConcurrencyLimit limit, long rttNanos) {
+		int admitted = 0;
+		while (limit.tryAcquire()) {
+			admitted++;
+		}
+		for (int i = 0; i < admitted; i++) {
+			limit.release(rttNanos, false);
+		}
+	}
+
+}
@@ -0,0 +1,30 @@
+package com.accesodatos.springbootjdbctemplate.config;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+class ConnectionGateDataSourceTests {
+
+	ConnectionGateDataSource dataSource = new ConnectionGateDataSource(
+			new DriverManagerDataSource("jdbc:h2:mem:gate"), 1, Duration.ofMillis(50));
+
+	@Test
+	void rejectsCallersBeyondThePoolSizeUntilAConnectionIsClosed() throws Exception {
+		Connection first = dataSource.getConnection();
+
+		assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+
+		first.close();
+		first.close();
+		try (Connection second = dataSource.getConnection()) {
+			assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+		}
+	}
+
+}
@@ -0,0 +1,48 @@
+package com.accesodatos.springbootjdbctemplate.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.accesodatos.springbootjdbctemplate.repository.ActorRepository;
+import com.zaxxer.hikari.HikariDataSource;
+
+@SpringBootTest(properties = { "actors.datasource.pool.auto-size=true", "actors.datasource.pool.database-cores=1",
+		"actors.datasource.pool.expected-concurrency=200", "actors.datasource.warm-up.enabled=true" })
+class ConnectionWarmUpTests {
+
+	@Autowired
+	HikariDataSource dataSource;
+
+	@Autowired
+	ConnectionWarmUp warmUp;
+
+	@Test
+	void sizesThePoolAndOpensEveryConnectionAtStartup() {
+		assertEquals(3, dataSource.getMaximumPoolSize());
+		assertEquals(3, dataSource.getMinimumIdle());
+		assertEquals(3, dataSource.getHikariPoolMXBean().getTotalConnections());
+		assertEquals(ConnectionWarmUp.StatementReuse.UNKNOWN, warmUp.getStatementReuse());
+	}
+
+	@Test
+	void capsThePoolAtTheExpectedConcurrency() {
+		assertEquals(17, ConnectionPoolConfig.poolSize(8, 1, 200));
+		assertEquals(12, ConnectionPoolConfig.poolSize(8, 1, 12));
+		assertEquals(2, ConnectionPoolConfig.poolSize(0, 0, 1));
+	}
+
+	@Test
+	void preparesEveryPaddedMultiGetList() {
+		List<String> statements = ActorRepository.hotStatements(100);
+		assertEquals(ActorRepository.HOT_STATEMENTS.size() + 8, statements.size());
+		assertTrue(statements.get(statements.size() - 1).endsWith("?" + ", ?".repeat(99) + ")"));
+		assertTrue(statements.get(statements.size() - 2).endsWith("?" + ", ?".repeat(63) + ")"));
+	}
+
+}
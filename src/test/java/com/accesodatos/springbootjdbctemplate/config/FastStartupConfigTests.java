@@ -0,0 +1,23 @@
+package com.accesodatos.springbootjdbctemplate.config;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+
+@SpringBootTest(properties = { "spring.main.lazy-initialization=true", "actors.snapshot.enabled=true" })
+class FastStartupConfigTests {
+
+	@Autowired
+	ConfigurableApplicationContext context;
+
+	@Test
+	void createsOnlyTheBeansWithStartupWorkEagerly() {
+		assertTrue(context.getBeanFactory().containsSingleton("snapshotActorRepository"));
+		assertFalse(context.getBeanFactory().containsSingleton("actorService"));
+	}
+
+}
@@ -0,0 +1,89 @@
+package com.accesodatos.springbootjdbctemplate.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.accesodatos.springbootjdbctemplate.repository.ActorRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest(properties = "actors.query.findAll.max-rows=3")
+class QuerySettingsTests {
+
+	@Autowired
+	ActorRepository actorRepository;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	@Test
+	void appliesThePerMethodSettingsToTheStatements() {
+		assertTrue(jdbcTemplate instanceof QuerySettingsJdbcTemplate);
+		assertEquals(3, actorRepository.findAll().size());
+		assertEquals(10, actorRepository.findAllAfter(0, 100).size());
+
+		QuerySettings previous = QuerySettings.bind(new QuerySettings("sum", Duration.ofSeconds(1), 0, 0));
+		try {
+			assertThrows(QueryTimeoutException.class,
+					() -> jdbcTemplate.queryForObject("SELECT SUM(\"X\") FROM SYSTEM_RANGE(1, 2000000000)", Long.class));
+		} finally {
+			QuerySettings.restore(previous);
+		}
+	}
+
+	@Test
+	void countsTheStatementsCancelledForADepartedClient() throws Exception {
+		QueryCancellation cancellation = new QueryCancellation();
+		QueryCancellation previous = QueryCancellation.bind(cancellation);
+		ExecutorService canceller = Executors.newSingleThreadExecutor();
+		try {
+			double cancelled = cancellations();
+			long start = System.nanoTime();
+			assertThrows(DataAccessException.class, () -> actorRepository.streamAll(actor -> {
+				canceller.execute(() -> {
+					try {
+						Thread.sleep(200);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					cancellation.cancel();
+				});
+				jdbcTemplate.queryForObject("SELECT SUM(\"X\") FROM SYSTEM_RANGE(1, 2000000000)", Long.class);
+			}));
+			assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10));
+			assertEquals(cancelled + 1, cancellations());
+
+			assertThrows(UncheckedIOException.class, () -> actorRepository.streamAll(actor -> {
+				throw new UncheckedIOException(new IOException("Broken pipe"));
+			}));
+			assertEquals(cancelled + 1, cancellations());
+		} finally {
+			canceller.shutdownNow();
+			QueryCancellation.bind(previous);
+		}
+	}
+
+	private double cancellations() {
+		Counter counter = meterRegistry.find("actors.query.cancellations").tag("method", "streamAll").counter();
+		return counter == null ? 0 : counter.count();
+	}
+}
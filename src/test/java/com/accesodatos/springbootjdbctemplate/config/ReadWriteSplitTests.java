@@ -0,0 +1,153 @@
+package com.accesodatos.springbootjdbctemplate.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.jayway.jsonpath.JsonPath;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import jakarta.servlet.http.Cookie;
+
+@SpringBootTest(properties = {
+		"actors.read-write-split.enabled=true",
+		"spring.datasource.url=jdbc:h2:mem:primary;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+		"actors.read-write-split.replica-urls=jdbc:h2:mem:replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;"
+				+ "DB_CLOSE_ON_EXIT=FALSE;INIT=RUNSCRIPT FROM 'classpath:schema.sql'\\\\;RUNSCRIPT FROM 'classpath:data.sql',"
+				+ "jdbc:h2:tcp://localhost:1/unreachable" })
+@AutoConfigureMockMvc
+class ReadWriteSplitTests {
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	ReadWriteRoutingDataSource dataSource;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	@Test
+	void readsFromHealthyReplicaUnlessTheClientJustWrote() throws Exception {
+		assertEquals(1, dataSource.getHealthyReplicas());
+
+		MvcResult created = mockMvc.perform(post("/api/v2/actors")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"first_name\":\"UMA\",\"last_name\":\"WOOD\"}"))
+				.andExpect(status().isCreated())
+				.andReturn();
+		int actor_id = JsonPath.read(created.getResponse().getContentAsString(), "$.actor_id");
+		Cookie cookie = created.getResponse().getCookie(ReadYourWritesFilter.COOKIE);
+		assertNotNull(cookie);
+
+		mockMvc.perform(get("/api/v2/actors/search").param("first_name", "UMA"))
+				.andExpect(status().isNoContent());
+		mockMvc.perform(get("/api/v2/actors/search").param("first_name", "UMA").cookie(cookie))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].actor_id").value(actor_id));
+		mockMvc.perform(get("/api/v2/actors/" + actor_id).cookie(cookie))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.first_name").value("UMA"));
+		mockMvc.perform(get("/api/v2/actors/1"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.first_name").value("PENELOPE"));
+	}
+
+	@Test
+	void servesReadsPinnedToThePrimaryPastTheCache() throws Exception {
+		mockMvc.perform(get("/api/v2/actors/2"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.first_name").value("NICK"));
+
+		MvcResult updated = mockMvc.perform(put("/api/v2/actors/2")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"first_name\":\"NICKY\",\"last_name\":\"WAHLBERG\"}"))
+				.andExpect(status().isOk())
+				.andReturn();
+		Cookie cookie = updated.getResponse().getCookie(ReadYourWritesFilter.COOKIE);
+		assertNotNull(cookie);
+
+		mockMvc.perform(get("/api/v2/actors/2").cookie(cookie))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.first_name").value("NICKY"));
+		// the miss is loaded from the primary, and cached
+		mockMvc.perform(get("/api/v2/actors/2"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.first_name").value("NICKY"));
+		long findById = databaseCalls("findById");
+		mockMvc.perform(get("/api/v2/actors/2"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.first_name").value("NICKY"));
+		assertEquals(findById, databaseCalls("findById"));
+	}
+
+	@Test
+	void streamsFromThePrimaryWithinTheWindow() throws Exception {
+		MvcResult created = mockMvc.perform(post("/api/v2/actors")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"first_name\":\"VIVIEN\",\"last_name\":\"BERGEN\"}"))
+				.andExpect(status().isCreated())
+				.andReturn();
+		Cookie cookie = created.getResponse().getCookie(ReadYourWritesFilter.COOKIE);
+
+		assertFalse(stream(get("/api/v2/actors/stream")).contains("VIVIEN"));
+		assertTrue(stream(get("/api/v2/actors/stream").cookie(cookie)).contains("VIVIEN"));
+	}
+
+	private String stream(MockHttpServletRequestBuilder request) throws Exception {
+		MvcResult result = mockMvc.perform(request).andExpect(request().asyncStarted()).andReturn();
+		return mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+	}
+
+	private long databaseCalls(String method) {
+		Timer timer = meterRegistry.find("actors.repository").tag("repository", "ActorRepository")
+				.tag("method", method).timer();
+		return timer == null ? 0 : timer.count();
+	}
+
+	@Test
+	void sharesOnlyLookupsThatMayReadAReplica() throws Exception {
+		Cookie cookie = new Cookie(ReadYourWritesFilter.COOKIE, Long.toString(System.currentTimeMillis() + 60000));
+		double led = sharedLookups();
+		mockMvc.perform(get("/api/v2/actors/3").cookie(cookie)).andExpect(status().isOk());
+		mockMvc.perform(get("/api/v2/actors/search").param("first_name", "ED").cookie(cookie))
+				.andExpect(status().isOk());
+		assertEquals(led, sharedLookups());
+
+		mockMvc.perform(get("/api/v2/actors/search").param("first_name", "ED")).andExpect(status().isOk());
+		assertEquals(led + 1, sharedLookups());
+	}
+
+	private double sharedLookups() {
+		return meterRegistry.find("actors.single-flight").tag("result", "led").counters().stream()
+				.mapToDouble(Counter::count).sum();
+	}
+
+	@Test
+	void publishesThePoolMetricsOfThePrimaryAndTheReplicas() {
+		assertNotNull(meterRegistry.find("hikaricp.connections").tag("pool", "primary").gauge());
+		assertNotNull(meterRegistry.find("hikaricp.connections").tag("pool", "replica-0").gauge());
+	}
+
+}
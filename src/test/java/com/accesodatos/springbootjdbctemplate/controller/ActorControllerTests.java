@@ -0,0 +1,595 @@
+package com.accesodatos.springbootjdbctemplate.controller;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.accesodatos.springbootjdbctemplate.models.Actor;
+import com.accesodatos.springbootjdbctemplate.repository.ActorRepository;
+import com.accesodatos.springbootjdbctemplate.service.ActorService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.jayway.jsonpath.JsonPath;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ActorControllerTests {
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	@Autowired
+	ActorService actorService;
+
+	@Autowired
+	ActorRepository actorRepository;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	ActorController actorController;
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void leavesAStreamThatFailsPartWayIncomplete() throws Exception {
+		ActorService failing = mock(ActorService.class);
+		doAnswer(invocation -> {
+			((Consumer<Actor>) invocation.getArgument(0)).accept(new Actor(1, "PENELOPE", "GUINESS", null));
+			throw new QueryTimeoutException("Statement cancelled");
+		}).when(failing).streamAllActors(any());
+		ReflectionTestUtils.setField(actorController, "actorService", failing);
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		try {
+			StreamingResponseBody body = actorController.streamAllActors(new HttpHeaders()).getBody();
+			assertThrows(QueryTimeoutException.class, () -> body.writeTo(output));
+		} finally {
+			ReflectionTestUtils.setField(actorController, "actorService", actorService);
+		}
+		String json = output.toString(StandardCharsets.UTF_8);
+		assertTrue(json.startsWith("[{\"actor_id\":1"), json);
+		assertFalse(json.endsWith("]"), json);
+	}
+
+	@Test
+	void pagesThroughActorsByKeyset() throws Exception {
+		mockMvc.perform(get("/api/v2/actors").param("limit", "4"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.actors", hasSize(4)))
+				.andExpect(jsonPath("$.actors[0].actor_id").value(1))
+				.andExpect(jsonPath("$.next_cursor").value("4"));
+
+		mockMvc.perform(get("/api/v2/actors").param("after", "8").param("limit", "4"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.actors", hasSize(2)))
+				.andExpect(jsonPath("$.actors[0].actor_id").value(9))
+				.andExpect(jsonPath("$.next_cursor").value(nullValue()));
+	}
+
+	@Test
+	void rejectsInvalidPageLimit() throws Exception {
+		mockMvc.perform(get("/api/v2/actors").param("limit", "0"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void streamsAllActorsAsJsonArray() throws Exception {
+		MvcResult result = mockMvc.perform(get("/api/v2/actors/stream"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		mockMvc.perform(asyncDispatch(result))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(10)))
+				.andExpect(jsonPath("$[9].first_name").value("CHRISTIAN"));
+	}
+
+	@Test
+	void negotiatesBinaryAndNdjsonEncodings() throws Exception {
+		ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+		MvcResult result = mockMvc.perform(get("/api/v2/actors/stream").accept(MediaType.APPLICATION_CBOR))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		byte[] body = mockMvc.perform(asyncDispatch(result))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+				.andReturn().getResponse().getContentAsByteArray();
+		JsonNode actors = cbor.readTree(body);
+		assertEquals(10, actors.size());
+		assertEquals("CHRISTIAN", actors.get(9).get("first_name").asText());
+
+		result = mockMvc.perform(get("/api/v2/actors/stream").accept(MediaType.APPLICATION_NDJSON))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		String lines = mockMvc.perform(asyncDispatch(result))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		assertEquals(10, lines.lines().count());
+		assertTrue(lines.lines().allMatch(line -> line.startsWith("{\"actor_id\":")));
+
+		mockMvc.perform(get("/api/v2/actors/stream").accept(MediaType.APPLICATION_XML))
+				.andExpect(status().isNotAcceptable());
+
+		MediaType smile = MediaType.parseMediaType("application/x-jackson-smile");
+		body = mockMvc.perform(get("/api/v2/actors/5").accept(smile))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(smile))
+				.andReturn().getResponse().getContentAsByteArray();
+		assertEquals("JOHNNY", new ObjectMapper(new SmileFactory()).readTree(body).get("first_name").asText());
+	}
+
+	@Test
+	void servesRepeatedLookupsFromCache() throws Exception {
+		mockMvc.perform(get("/api/v2/actors/3")).andExpect(status().isOk());
+		mockMvc.perform(get("/api/v2/actors/3"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.last_name").value("CHASE"))
+				.andExpect(jsonPath("$.last_update").isString());
+		mockMvc.perform(get("/api/v2/actors/999")).andExpect(status().isNotFound());
+		mockMvc.perform(get("/api/v2/actors/999")).andExpect(status().isNotFound());
+
+		mockMvc.perform(get("/api/v2/actors/cache/stats"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.hits").value(greaterThanOrEqualTo(2)));
+	}
+
+	@Test
+	void looksUpManyActorsInRequestOrderFromCache() throws Exception {
+		mockMvc.perform(get("/api/v2/actors").param("ids", "7,2,999,7,5"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.actors[*].actor_id").value(contains(7, 2, 5)))
+				.andExpect(jsonPath("$.actors[0].first_name").value("GRACE"))
+				.andExpect(jsonPath("$.missing_ids").value(contains(999)));
+
+		Timer timer = meterRegistry.find("actors.repository")
+				.tags("repository", "ActorRepository", "method", "findAllByIds").timer();
+		long calls = timer.count();
+		mockMvc.perform(get("/api/v2/actors").param("ids", "5").param("ids", "999").param("ids", "2"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.actors[*].actor_id").value(contains(5, 2)))
+				.andExpect(jsonPath("$.missing_ids").value(contains(999)));
+		assertEquals(calls, timer.count());
+
+		mockMvc.perform(get("/api/v2/actors").param("ids", "")).andExpect(status().isBadRequest());
+		mockMvc.perform(get("/api/v2/actors").param("ids", "1,x")).andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void projectsSelectedFieldsAndCountsInTheDatabase() throws Exception {
+		mockMvc.perform(get("/api/v2/actors").param("fields", "first_name").param("limit", "2"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.actors[*].first_name").value(contains("PENELOPE", "NICK")))
+				.andExpect(jsonPath("$.actors[0].actor_id").doesNotExist())
+				.andExpect(jsonPath("$.actors[0].last_update").doesNotExist())
+				.andExpect(jsonPath("$.next_cursor").value("2"));
+
+		MvcResult page = mockMvc.perform(get("/api/v2/actors/search").param("first_name", "J")
+				.param("fields", "last_name").param("limit", "2"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.actors[*].last_name").value(contains("DAVIS", "SWANK")))
+				.andExpect(jsonPath("$.actors[0].first_name").doesNotExist())
+				.andReturn();
+		String cursor = JsonPath.read(page.getResponse().getContentAsString(), "$.next_cursor");
+		mockMvc.perform(get("/api/v2/actors/search").param("first_name", "J").param("fields", "actor_id,last_name")
+				.param("after", cursor))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.actors[*].actor_id").value(contains(5)))
+				.andExpect(jsonPath("$.actors[0].last_name").value("LOLLOBRIGIDA"));
+		mockMvc.perform(get("/api/v2/actors").param("fields", "first_name,salary"))
+				.andExpect(status().isBadRequest());
+
+		mockMvc.perform(get("/api/v2/actors/counts/first-name"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[*].group").value(contains("B", "C", "E", "G", "J", "M", "N", "P")))
+				.andExpect(jsonPath("$[4].count").value(3));
+		mockMvc.perform(get("/api/v2/actors/counts/first-name").param("prefix_length", "0"))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(get("/api/v2/actors/counts/last-update-date"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].count").value(10));
+	}
+
+	@Test
+	@Transactional
+	void exportsCsvAndImportsCsvAndNdjsonUploads() throws Exception {
+		MvcResult result = mockMvc.perform(get("/api/v2/actors/stream").accept("text/csv"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		String csv = mockMvc.perform(asyncDispatch(result))
+				.andExpect(status().isOk())
+				.andExpect(header().string("Content-Type", "text/csv;charset=UTF-8"))
+				.andReturn().getResponse().getContentAsString();
+		String[] lines = csv.split("\r\n");
+		assertEquals(11, lines.length);
+		assertEquals("actor_id,first_name,last_name,last_update", lines[0]);
+		assertTrue(lines[7].startsWith("7,GRACE,MOSTEL,"), lines[7]);
+
+		mockMvc.perform(post("/api/v2/actors/import").contentType("text/csv").content(csv))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.imported").value(10))
+				.andExpect(jsonPath("$.rejected").value(0));
+
+		mockMvc.perform(post("/api/v2/actors/import").contentType("text/csv")
+				.content("last_name,first_name\n\"O'NEIL, JR\",\"SAY \"\"HI\"\"\"\r\nSOLO\n,EMPTY\n"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.imported").value(1))
+				.andExpect(jsonPath("$.rejected").value(2))
+				.andExpect(jsonPath("$.errors[0].line").value(3))
+				.andExpect(jsonPath("$.errors[1].message").value("last_name is missing"));
+		mockMvc.perform(get("/api/v2/actors/search").param("first_name", "SAY \"HI\""))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].last_name").value("O'NEIL, JR"));
+
+		mockMvc.perform(post("/api/v2/actors/import").contentType(MediaType.APPLICATION_NDJSON)
+				.content("{\"first_name\":\"ANNA\",\"last_name\":\"LINE\"}\n\n{not json}\n"
+						+ "{\"first_name\":\"" + "X".repeat(46) + "\",\"last_name\":\"LONG\"}\n"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.imported").value(1))
+				.andExpect(jsonPath("$.errors[*].line").value(contains(3, 4)));
+
+		mockMvc.perform(post("/api/v2/actors/import").contentType("text/csv").content("name\nANNA\n"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.imported").value(0))
+				.andExpect(jsonPath("$.failed_line").value(1));
+
+		mockMvc.perform(post("/api/v2/actors/import").contentType("text/csv")
+				.content("first_name,last_name\nANNA,LINE\n\nBOB,\"STRAY\n" + "ZED,ZETA\n".repeat(200)))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.imported").value(0))
+				.andExpect(jsonPath("$.failed_line").value(2))
+				.andExpect(jsonPath("$.errors[0].line").value(4))
+				.andExpect(jsonPath("$.errors[0].message").value("Record longer than 1024 characters"));
+		mockMvc.perform(post("/api/v2/actors/import").contentType("text/csv")
+				.content("first_name,last_name\nANNA,\"LINE"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.failed_line").value(2))
+				.andExpect(jsonPath("$.errors[0].message").value("Unclosed quoted field"));
+	}
+
+	@Test
+	@Transactional
+	void reportsPerRowResultsOfBatchWrites() throws Exception {
+		String created = mockMvc.perform(post("/api/v2/actors/batch")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("[{\"first_name\":\"ZERO\",\"last_name\":\"CAGE\"},{\"first_name\":\"\",\"last_name\":\"NONE\"},"
+						+ "{\"first_name\":\"KARL\",\"last_name\":\"BERRY\"}]"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.succeeded").value(2))
+				.andExpect(jsonPath("$.rows", hasSize(3)))
+				.andExpect(jsonPath("$.rows[1].status").value("INVALID"))
+				.andExpect(jsonPath("$.rows[1].actor_id").value(0))
+				.andReturn().getResponse().getContentAsString();
+		int zero = JsonPath.read(created, "$.rows[0].actor_id");
+		int karl = JsonPath.read(created, "$.rows[2].actor_id");
+		assertEquals("ZERO", actorRepository.findById(zero).getFirst_name());
+		assertEquals("KARL", actorRepository.findById(karl).getFirst_name());
+
+		mockMvc.perform(put("/api/v2/actors/batch")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("[{\"actor_id\":1,\"first_name\":\"PENNY\",\"last_name\":\"GUINESS\"},{\"actor_id\":999,\"first_name\":\"NO\",\"last_name\":\"ONE\"}]"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.succeeded").value(1))
+				.andExpect(jsonPath("$.rows[0].status").value("OK"))
+				.andExpect(jsonPath("$.rows[1].actor_id").value(999))
+				.andExpect(jsonPath("$.rows[1].status").value("NOT_FOUND"));
+	}
+
+	@Test
+	void timesRepositoryCalls() throws Exception {
+		mockMvc.perform(get("/api/v2/actors").param("limit", "2")).andExpect(status().isOk());
+
+		Timer timer = meterRegistry.find("actors.repository")
+				.tags("repository", "ActorRepository", "method", "findAllAfter")
+				.timer();
+		assertNotNull(timer);
+		assertTrue(timer.count() > 0);
+		assertNotNull(meterRegistry.find("actors.repository.rows").tag("method", "findAllAfter").summary());
+		assertNotNull(meterRegistry.find("cache.gets").tag("cache", "actors").meter());
+	}
+
+	@Test
+	@Transactional
+	void updatesWithSingleStatementAndOptimisticConcurrency() throws Exception {
+		String body = "{\"first_name\":\"NICHOLAS\",\"last_name\":\"WAHLBERG\"}";
+		mockMvc.perform(put("/api/v2/actors/999").contentType(MediaType.APPLICATION_JSON).content(body))
+				.andExpect(status().isNotFound());
+
+		String etag = mockMvc.perform(get("/api/v2/actors/2"))
+				.andExpect(status().isOk())
+				.andExpect(header().exists(HttpHeaders.ETAG))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		mockMvc.perform(put("/api/v2/actors/2").header(HttpHeaders.IF_MATCH, etag)
+				.contentType(MediaType.APPLICATION_JSON).content(body))
+				.andExpect(status().isOk());
+		mockMvc.perform(put("/api/v2/actors/2").header(HttpHeaders.IF_MATCH, etag)
+				.contentType(MediaType.APPLICATION_JSON).content(body))
+				.andExpect(status().isPreconditionFailed());
+
+		String current = mockMvc.perform(get("/api/v2/actors/2"))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		mockMvc.perform(put("/api/v2/actors/2").header(HttpHeaders.IF_MATCH, current)
+				.contentType(MediaType.APPLICATION_JSON).content(body))
+				.andExpect(status().isOk());
+		mockMvc.perform(put("/api/v2/actors/2").header(HttpHeaders.IF_MATCH, current)
+				.contentType(MediaType.APPLICATION_JSON).content(body))
+				.andExpect(status().isPreconditionFailed());
+		assertEquals(1, jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM actor WHERE actor_id = 2 AND last_update <= CURRENT_TIMESTAMP(6)", Integer.class));
+		mockMvc.perform(put("/api/v2/actors/999").header(HttpHeaders.IF_MATCH, "\"999-0.0\"")
+				.contentType(MediaType.APPLICATION_JSON).content(body))
+				.andExpect(status().isNotFound());
+		mockMvc.perform(put("/api/v2/actors/2").contentType(MediaType.APPLICATION_JSON).content(body))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	void searchesByEscapedNamePrefixInPages() throws Exception {
+		String cursor = JsonPath.read(mockMvc.perform(get("/api/v2/actors/search")
+				.param("first_name", "J").param("limit", "2"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.actors[0].first_name").value("JENNIFER"))
+				.andExpect(jsonPath("$.actors[1].first_name").value("JOE"))
+				.andReturn().getResponse().getContentAsString(), "$.next_cursor");
+
+		mockMvc.perform(get("/api/v2/actors/search").param("first_name", "J").param("after", cursor))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.actors", hasSize(1)))
+				.andExpect(jsonPath("$.actors[0].first_name").value("JOHNNY"))
+				.andExpect(jsonPath("$.next_cursor").value(nullValue()));
+
+		mockMvc.perform(get("/api/v2/actors/search").param("name", "ED CH"))
+				.andExpect(jsonPath("$.actors", hasSize(1)))
+				.andExpect(jsonPath("$.actors[0].last_name").value("CHASE"));
+		mockMvc.perform(get("/api/v2/actors/search").param("last_name", "GU"))
+				.andExpect(jsonPath("$.actors[0].first_name").value("PENELOPE"));
+		mockMvc.perform(get("/api/v2/actors/search").param("first_name", "%").param("limit", "5"))
+				.andExpect(jsonPath("$.actors", hasSize(0)));
+		mockMvc.perform(get("/api/v2/actors/search").param("first_name", "_"))
+				.andExpect(status().isNoContent());
+
+		Object maxPageLimit = ReflectionTestUtils.getField(actorService, "maxPageLimit");
+		ReflectionTestUtils.setField(actorService, "maxPageLimit", 2);
+		try {
+			String link = mockMvc.perform(get("/api/v2/actors/search").param("first_name", "J"))
+					.andExpect(status().isOk())
+					.andExpect(jsonPath("$", hasSize(2)))
+					.andExpect(jsonPath("$[1].first_name").value("JOE"))
+					.andReturn().getResponse().getHeader(HttpHeaders.LINK);
+			mockMvc.perform(get(URI.create(link.substring(1, link.indexOf('>')))))
+					.andExpect(jsonPath("$.actors", hasSize(1)))
+					.andExpect(jsonPath("$.actors[0].first_name").value("JOHNNY"));
+		} finally {
+			ReflectionTestUtils.setField(actorService, "maxPageLimit", maxPageLimit);
+		}
+	}
+
+	@Test
+	void answersConditionalGetsWithNotModified() throws Exception {
+		MvcResult actor = mockMvc.perform(get("/api/v2/actors/5"))
+				.andExpect(status().isOk())
+				.andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+				.andReturn();
+		String etag = actor.getResponse().getHeader(HttpHeaders.ETAG);
+
+		mockMvc.perform(get("/api/v2/actors/5").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string(HttpHeaders.ETAG, etag))
+				.andExpect(content().string(""));
+		mockMvc.perform(get("/api/v2/actors/5").header(HttpHeaders.IF_NONE_MATCH, "\"5-0.0\""))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.first_name").value("JOHNNY"));
+		mockMvc.perform(get("/api/v2/actors/5").header(HttpHeaders.IF_MODIFIED_SINCE,
+				actor.getResponse().getHeader(HttpHeaders.LAST_MODIFIED)))
+				.andExpect(status().isNotModified());
+		mockMvc.perform(get("/api/v2/actors/999").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotFound());
+
+		long versionReads = versionReads();
+		String pageTag = mockMvc.perform(get("/api/v2/actors").param("limit", "3"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		mockMvc.perform(get("/api/v2/actors")).andExpect(status().isOk());
+		assertEquals(versionReads, versionReads());
+		mockMvc.perform(get("/api/v2/actors").param("limit", "3").header(HttpHeaders.IF_NONE_MATCH, pageTag))
+				.andExpect(status().isNotModified());
+		mockMvc.perform(get("/api/v2/actors").param("limit", "4").header(HttpHeaders.IF_NONE_MATCH, pageTag))
+				.andExpect(status().isOk());
+
+		String allTag = mockMvc.perform(get("/api/v2/actors"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		mockMvc.perform(get("/api/v2/actors/stream").header(HttpHeaders.IF_NONE_MATCH, "W/" + allTag))
+				.andExpect(status().isNotModified());
+	}
+
+	@Test
+	@Transactional
+	void tagsEachEncodingSeparatelyAndVariesByAccept() throws Exception {
+		MediaType smile = MediaType.parseMediaType("application/x-jackson-smile");
+		String json = mockMvc.perform(get("/api/v2/actors/6"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		String binary = mockMvc.perform(get("/api/v2/actors/6").accept(smile))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(smile))
+				.andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertTrue(binary.endsWith("-smile\""), binary);
+
+		mockMvc.perform(get("/api/v2/actors/6").accept(smile).header(HttpHeaders.IF_NONE_MATCH, json))
+				.andExpect(status().isOk());
+		mockMvc.perform(get("/api/v2/actors/6").accept(smile).header(HttpHeaders.IF_NONE_MATCH, binary))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+		mockMvc.perform(get("/api/v2/actors").param("limit", "3").accept(MediaType.APPLICATION_CBOR))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+				.andExpect(header().string(HttpHeaders.ETAG, endsWith("-cbor\"")))
+				.andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+
+		mockMvc.perform(get("/api/v2/actors/6").header(HttpHeaders.ACCEPT, "application/cbor;q=0.5, " + smile))
+				.andExpect(content().contentType(smile));
+		mockMvc.perform(get("/api/v2/actors/6").header(HttpHeaders.ACCEPT, "application/json;q=0, */*"))
+				.andExpect(content().contentType(MediaType.APPLICATION_CBOR));
+		mockMvc.perform(get("/api/v2/actors/6").header(HttpHeaders.ACCEPT, "application/json;q=0"))
+				.andExpect(status().isNotAcceptable());
+
+		mockMvc.perform(put("/api/v2/actors/6").header(HttpHeaders.IF_MATCH, binary)
+				.contentType(MediaType.APPLICATION_JSON).content("{\"first_name\":\"BETTE\",\"last_name\":\"NICHOLSON\"}"))
+				.andExpect(status().isOk());
+	}
+
+	private long versionReads() {
+		long count = 0;
+		for (String method : new String[] { "findTableVersion", "findVersionAfter" }) {
+			Timer timer = meterRegistry.find("actors.repository")
+					.tags("repository", "ActorRepository", "method", method).timer();
+			count += timer == null ? 0 : timer.count();
+		}
+		return count;
+	}
+
+	@Test
+	@Transactional
+	void returnsCreatedActorWithLocation() throws Exception {
+		MvcResult created = mockMvc.perform(post("/api/v2/actors")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"first_name\":\"UMA\",\"last_name\":\"WOOD\"}"))
+				.andExpect(status().isCreated())
+				.andExpect(jsonPath("$.actor_id").value(greaterThanOrEqualTo(11)))
+				.andExpect(jsonPath("$.first_name").value("UMA"))
+				.andExpect(jsonPath("$.last_update").isString())
+				.andReturn();
+		int actor_id = JsonPath.read(created.getResponse().getContentAsString(), "$.actor_id");
+		assertEquals("/api/v2/actors/" + actor_id, created.getResponse().getHeader(HttpHeaders.LOCATION));
+
+		mockMvc.perform(post("/api/v2/actors").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"first_name\":\"UMA\"}"))
+				.andExpect(status().isBadRequest());
+
+		mockMvc.perform(get("/api/v2/actors/" + actor_id)
+				.header(HttpHeaders.IF_NONE_MATCH, created.getResponse().getHeader(HttpHeaders.ETAG)))
+				.andExpect(status().isNotModified());
+	}
+
+	@Test
+	void feedsChangesSinceTokenAndPushesThemAsEvents() throws Exception {
+		MvcResult stream = mockMvc.perform(get("/api/v2/actors/changes/stream"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		String token = null;
+		boolean has_more = true;
+		while (has_more) {
+			MockHttpServletRequestBuilder request = get("/api/v2/actors/changes").param("limit", "4");
+			if (token != null) {
+				request.param("since", token);
+			}
+			String page = mockMvc.perform(request)
+					.andExpect(status().isOk())
+					.andReturn().getResponse().getContentAsString();
+			token = JsonPath.read(page, "$.next_token");
+			has_more = JsonPath.read(page, "$.has_more");
+		}
+
+		String body = "{\"first_name\":\"ZERO\",\"last_name\":\"CAGE\"}";
+		int deleted = JsonPath.read(mockMvc.perform(post("/api/v2/actors")
+				.contentType(MediaType.APPLICATION_JSON).content(body))
+				.andReturn().getResponse().getContentAsString(), "$.actor_id");
+		int updated = JsonPath.read(mockMvc.perform(post("/api/v2/actors")
+				.contentType(MediaType.APPLICATION_JSON).content(body))
+				.andReturn().getResponse().getContentAsString(), "$.actor_id");
+		try {
+			mockMvc.perform(put("/api/v2/actors/" + updated).contentType(MediaType.APPLICATION_JSON)
+					.content("{\"first_name\":\"KARL\",\"last_name\":\"BERRY\"}"))
+					.andExpect(status().isOk());
+			mockMvc.perform(delete("/api/v2/actors/" + deleted)).andExpect(status().isOk());
+
+			mockMvc.perform(get("/api/v2/actors/changes").param("since", token))
+					.andExpect(status().isOk())
+					.andExpect(jsonPath("$.changes", hasSize(2)))
+					.andExpect(jsonPath("$.changes[?(@.actor_id == " + deleted + ")].type").value("DELETED"))
+					.andExpect(jsonPath("$.changes[?(@.actor_id == " + updated + ")].first_name").value("KARL"))
+					.andExpect(jsonPath("$.has_more").value(false));
+
+			long deadline = System.currentTimeMillis() + 5000;
+			String events = stream.getResponse().getContentAsString();
+			while (!events.contains("event:deleted") && System.currentTimeMillis() < deadline) {
+				Thread.sleep(20);
+				events = stream.getResponse().getContentAsString();
+			}
+			assertTrue(events.contains("event:inserted"), events);
+			assertTrue(events.contains("event:updated"), events);
+			assertTrue(events.contains("event:deleted"), events);
+			assertTrue(events.matches("(?s).*event:deleted\nid:.*"), events);
+		} finally {
+			mockMvc.perform(delete("/api/v2/actors/" + updated));
+		}
+
+		mockMvc.perform(get("/api/v2/actors/changes").param("since", "not-a-token"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	@Transactional
+	void purgesTombstonesPastTheirRetention() {
+		jdbcTemplate.update("INSERT INTO actor_tombstone (actor_id, deleted_at) VALUES"
+				+ " (901, TIMESTAMPADD(DAY, -8, CURRENT_TIMESTAMP)), (902, CURRENT_TIMESTAMP)");
+
+		assertEquals(1, actorRepository.purgeTombstones());
+		assertEquals(List.of(902), jdbcTemplate.queryForList(
+				"SELECT actor_id FROM actor_tombstone WHERE actor_id > 900", Integer.class));
+	}
+
+}
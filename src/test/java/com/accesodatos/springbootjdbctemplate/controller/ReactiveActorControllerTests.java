@@ -0,0 +1,95 @@
+package com.accesodatos.springbootjdbctemplate.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.accesodatos.springbootjdbctemplate.models.Actor;
+
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+@SpringBootTest(properties = "actors.r2dbc.url=r2dbc:h2:mem://sa@localhost/sakila?options=MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("reactive")
+@AutoConfigureWebTestClient
+class ReactiveActorControllerTests {
+
+	@Autowired
+	WebTestClient webTestClient;
+
+	@Test
+	void streamsAllActorsAsNdjson() {
+		Flux<Actor> actors = webTestClient.get().uri("/api/v2/actors/stream")
+				.accept(MediaType.APPLICATION_NDJSON)
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+				.returnResult(Actor.class)
+				.getResponseBody();
+
+		StepVerifier.create(actors, 2)
+				.expectNextMatches(actor -> actor.getFirst_name().equals("PENELOPE"))
+				.expectNextCount(1)
+				.thenRequest(Long.MAX_VALUE)
+				.expectNextCount(8)
+				.verifyComplete();
+	}
+
+	@Test
+	void pagesAndLooksUpActors() {
+		webTestClient.get().uri("/api/v2/actors?after=8&limit=4")
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.actors.length()").isEqualTo(2)
+				.jsonPath("$.next_cursor").doesNotExist();
+		webTestClient.get().uri("/api/v2/actors/3")
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().exists(HttpHeaders.ETAG)
+				.expectBody().jsonPath("$.last_name").isEqualTo("CHASE");
+		webTestClient.get().uri("/api/v2/actors/999")
+				.exchange()
+				.expectStatus().isNotFound();
+		List<Actor> actors = webTestClient.get().uri("/api/v2/actors/search?first_name=J")
+				.exchange()
+				.expectStatus().isOk()
+				.expectBodyList(Actor.class).returnResult().getResponseBody();
+		assertEquals(3, actors.size());
+	}
+
+	@Test
+	void createsUpdatesAndDeletesActors() {
+		Actor created = webTestClient.post().uri("/api/v2/actors")
+				.contentType(MediaType.APPLICATION_JSON)
+				.bodyValue("{\"first_name\":\"UMA\",\"last_name\":\"WOOD\"}")
+				.exchange()
+				.expectStatus().isCreated()
+				.expectHeader().exists(HttpHeaders.LOCATION)
+				.expectBody(Actor.class).returnResult().getResponseBody();
+		assertNotNull(created.getLast_update());
+
+		webTestClient.put().uri("/api/v2/actors/" + created.getActor_id())
+				.contentType(MediaType.APPLICATION_JSON)
+				.bodyValue("{\"first_name\":\"UMA\",\"last_name\":\"WOODS\"}")
+				.exchange()
+				.expectStatus().isOk();
+		webTestClient.delete().uri("/api/v2/actors/" + created.getActor_id())
+				.exchange()
+				.expectStatus().isOk();
+		webTestClient.delete().uri("/api/v2/actors/" + created.getActor_id())
+				.exchange()
+				.expectStatus().isNotFound();
+	}
+
+}
@@ -0,0 +1,150 @@
+package com.accesodatos.springbootjdbctemplate.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.accesodatos.springbootjdbctemplate.models.Actor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+@SpringBootTest(properties = "actors.snapshot.enabled=true")
+class SnapshotActorRepositoryTests {
+
+	@Autowired
+	JdbcRepository repository;
+
+	@Autowired
+	ActorRepository actorRepository;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	List<Integer> ids(List<Actor> actors) {
+		List<Integer> ids = new ArrayList<>();
+		actors.forEach(actor -> ids.add(actor.getActor_id()));
+		ids.sort(null);
+		return ids;
+	}
+
+	long databaseCalls(String method) {
+		Timer timer = meterRegistry.find("actors.repository").tag("repository", "ActorRepository")
+				.tag("method", method).timer();
+		return timer == null ? 0 : timer.count();
+	}
+
+	@Test
+	void servesReadsFromMemoryLikeTheDatabase() {
+		assertTrue(repository instanceof SnapshotActorRepository);
+		long findById = databaseCalls("findById");
+		long findAll = databaseCalls("findAll");
+
+		assertEquals(ids(actorRepository.findAll()), ids(repository.findAll()));
+		Actor actor = repository.findById(4);
+		assertEquals("JENNIFER", actor.getFirst_name());
+		assertEquals(actorRepository.findLastUpdateById(4), actor.getLast_update());
+		assertNull(repository.findById(999));
+		assertEquals(ids(actorRepository.findActorByFirstName("J")), ids(repository.findActorByFirstName("j")));
+		assertEquals(ids(actorRepository.findByNamePrefix(null, "GU", "", 0, 10)),
+				ids(repository.findByNamePrefix(null, "gu", "", 0, 10)));
+		List<Actor> page = repository.findByNamePrefix("J", null, "", 0, 2);
+		assertEquals(List.of("JENNIFER", "JOE"), page.stream().map(Actor::getFirst_name).toList());
+		assertEquals(List.of("JOHNNY"), repository.findByNamePrefix("J", null, "JOE", page.get(1).getActor_id(), 2)
+				.stream().map(Actor::getFirst_name).toList());
+		assertEquals(ids(actorRepository.findAllAfter(3, 4)), ids(repository.findAllAfter(3, 4)));
+		assertEquals(actorRepository.findTableVersion().getCount(), repository.findTableVersion().getCount());
+		int[] lookup = { 3, 1, 999, 2, 3 };
+		assertEquals(List.of(3, 1, 2), actorRepository.findAllByIds(lookup).stream().map(Actor::getActor_id).toList());
+		assertEquals(List.of(3, 1, 2), repository.findAllByIds(lookup).stream().map(Actor::getActor_id).toList());
+
+		assertEquals(findById, databaseCalls("findById"));
+		assertEquals(findAll + 1, databaseCalls("findAll"));
+	}
+
+	@Test
+	void publishesWritesToTheSnapshot() {
+		Actor saved = repository.save(new Actor("ZERO", "CAGE"));
+		List<Integer> batch = new ArrayList<>();
+		try {
+			assertEquals("ZERO", repository.findById(saved.getActor_id()).getFirst_name());
+
+			repository.update(new Actor(saved.getActor_id(), "KARL", "BERRY"));
+			Actor updated = repository.findById(saved.getActor_id());
+			assertEquals("KARL", updated.getFirst_name());
+			assertEquals(actorRepository.findLastUpdateById(saved.getActor_id()), updated.getLast_update());
+
+			long streamAll = databaseCalls("streamAll");
+			repository.saveAll(List.of(new Actor("ZOE", "QUINN"), new Actor("ZORA", "QUINN")));
+			assertEquals(streamAll, databaseCalls("streamAll"));
+			List<Actor> inserted = repository.findActorByFirstName("ZO");
+			assertEquals(2, inserted.size());
+			inserted.forEach(actor -> batch.add(actor.getActor_id()));
+
+			assertEquals(1, repository.deleteById(saved.getActor_id()));
+			assertNull(repository.findById(saved.getActor_id()));
+			assertEquals(ids(actorRepository.findAll()), ids(repository.findAll()));
+		} finally {
+			repository.deleteById(saved.getActor_id());
+			repository.deleteAllById(batch);
+		}
+		assertEquals(10, repository.findAll().size());
+	}
+
+	@Test
+	void patchesBatchWritesWithoutReloadingTheTable() {
+		List<Actor> actors = new ArrayList<>(List.of(new Actor("ZACK", "QUINN"), new Actor("ZELDA", "QUINN")));
+		repository.saveAll(actors);
+		List<Integer> batch = ids(actors);
+		try {
+			long streamAll = databaseCalls("streamAll");
+			repository.updateAll(List.of(new Actor(batch.get(0), "YVES", "QUINN"),
+					new Actor(batch.get(1), "YARA", "QUINN")));
+			assertEquals("YVES", repository.findById(batch.get(0)).getFirst_name());
+			assertEquals(actorRepository.findLastUpdateById(batch.get(1)),
+					repository.findById(batch.get(1)).getLast_update());
+			assertEquals(2, repository.findActorByFirstName("Y").size());
+
+			repository.deleteAllById(batch);
+			assertNull(repository.findById(batch.get(0)));
+			assertNull(repository.findById(batch.get(1)));
+			assertEquals(ids(actorRepository.findAll()), ids(repository.findAll()));
+			assertEquals(streamAll, databaseCalls("streamAll"));
+		} finally {
+			repository.deleteAllById(batch);
+		}
+	}
+
+	@Test
+	void patchesTheIndexesLikeARebuild() {
+		ActorSnapshot snapshot = ActorSnapshot.of(actorRepository.findAll());
+		LocalDateTime later = repository.findTableVersion().getLast_update().plusSeconds(1);
+		snapshot = snapshot.with(new Actor(4, "ALAN", "ZETA", later));
+		snapshot = snapshot.with(new Actor(42, "JANE", "GUY", later.plusSeconds(1)));
+		snapshot = snapshot.without(42);
+		snapshot = snapshot.with(new Actor(1, "penelope", "AARON", later));
+		snapshot = snapshot.withAll(List.of(new Actor(2, "JOE", "ADAMS", later), new Actor(50, "AL", "ZED", later),
+				new Actor(51, "JOHN", "ABLE", later.plusSeconds(2))));
+		snapshot = snapshot.withAll(List.of(new Actor(52, "ANN", "ZOLA", later.plusSeconds(3))));
+		snapshot = snapshot.withoutAll(List.of(50, 52, 999));
+		ActorSnapshot rebuilt = ActorSnapshot.of(snapshot.all());
+
+		assertEquals(rebuilt.all(), snapshot.all());
+		assertEquals(rebuilt.version().getCount(), snapshot.version().getCount());
+		assertEquals(later.plusSeconds(2), snapshot.version().getLast_update());
+		for (String prefix : new String[] { "", "A", "J", "P" }) {
+			assertEquals(rebuilt.findByNamePrefix(prefix, null, "", 0, 20),
+					snapshot.findByNamePrefix(prefix, null, "", 0, 20));
+			assertEquals(rebuilt.findByNamePrefix(null, prefix, "", 0, 20),
+					snapshot.findByNamePrefix(null, prefix, "", 0, 20));
+		}
+	}
+}
@@ -0,0 +1,92 @@
+package com.accesodatos.springbootjdbctemplate.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.accesodatos.springbootjdbctemplate.models.ActorChange;
+import com.accesodatos.springbootjdbctemplate.models.ActorChangeType;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ActorChangeNotifierTests {
+
+	SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	ActorChangeNotifier notifier = new ActorChangeNotifier(Duration.ofMinutes(1), 2, meterRegistry);
+
+	@AfterEach
+	void close() {
+		notifier.close();
+	}
+
+	@Test
+	void disconnectsASlowSubscriberWithoutHoldingUpTheOthers() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		RecordingEmitter slow = new RecordingEmitter(release);
+		RecordingEmitter fast = new RecordingEmitter(new CountDownLatch(0));
+		notifier.subscribe(slow);
+		notifier.subscribe(fast);
+
+		for (int actor_id = 1; actor_id <= 5; actor_id++) {
+			notifier.onChange(new ActorChange(ActorChangeType.UPDATED, actor_id, "PENELOPE", "GUINESS", null));
+			int sent = actor_id;
+			awaitTrue(() -> fast.sent.size() == sent);
+		}
+		assertEquals(1, meterRegistry.get("actors.changes.slow-subscribers").counter().count());
+		assertEquals(1, meterRegistry.get("actors.changes.subscribers").gauge().value());
+
+		release.countDown();
+		awaitTrue(() -> slow.completed);
+		assertTrue(slow.sent.size() < 5);
+	}
+
+	static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+		assertTrue(condition.getAsBoolean());
+	}
+
+	static class RecordingEmitter extends SseEmitter {
+
+		final List<Set<DataWithMediaType>> sent = new CopyOnWriteArrayList<>();
+
+		final CountDownLatch release;
+
+		volatile boolean completed;
+
+		RecordingEmitter(CountDownLatch release) {
+			this.release = release;
+		}
+
+		@Override
+		public void send(Set<DataWithMediaType> items) throws IOException {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException(e);
+			}
+			sent.add(items);
+		}
+
+		@Override
+		public void complete() {
+			completed = true;
+		}
+	}
+}
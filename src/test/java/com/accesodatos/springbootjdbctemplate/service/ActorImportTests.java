@@ -0,0 +1,52 @@
+package com.accesodatos.springbootjdbctemplate.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+
+import com.accesodatos.springbootjdbctemplate.models.Actor;
+import com.accesodatos.springbootjdbctemplate.models.ActorImportResult;
+import com.accesodatos.springbootjdbctemplate.repository.JdbcRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ActorImportTests {
+
+	JdbcRepository actorRepository = mock(JdbcRepository.class);
+
+	SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	ActorImport actorImport = new ActorImport(actorRepository, 2, 10, meterRegistry.counter("imported"),
+			meterRegistry.counter("rejected"));
+
+	@Test
+	void reportsTheCommittedChunksAndTheFailingLineOfAFailedImport() {
+		when(actorRepository.saveAll(anyList())).thenReturn(new int[] { 1, 1 })
+				.thenThrow(new IllegalStateException("down"));
+		actorImport.add(2, new Actor("ZERO", "CAGE"));
+		actorImport.add(3, new Actor("KARL", "BERRY"));
+		actorImport.add(4, new Actor("", "EMPTY"));
+		actorImport.add(5, new Actor("UMA", "WOOD"));
+		assertThrows(IllegalStateException.class, () -> actorImport.add(6, new Actor("VIVIEN", "BERGEN")));
+
+		ActorImportResult result = actorImport.fail();
+		assertEquals(2, result.getImported());
+		assertEquals(1, result.getRejected());
+		assertEquals(5, result.getFailed_line());
+		assertEquals(2, meterRegistry.counter("imported").count());
+	}
+
+	@Test
+	void reportsTheLineAfterTheLastOneReadWhenNothingIsQueued() {
+		actorImport.reject(2, "Malformed JSON");
+		ActorImportResult result = actorImport.fail();
+		assertEquals(0, result.getImported());
+		assertEquals(3, result.getFailed_line());
+		assertNull(actorImport.finish().getFailed_line());
+	}
+}
@@ -0,0 +1,98 @@
+package com.accesodatos.springbootjdbctemplate.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.accesodatos.springbootjdbctemplate.models.Actor;
+import com.accesodatos.springbootjdbctemplate.models.WriteStatus;
+import com.accesodatos.springbootjdbctemplate.repository.JdbcRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ActorWriteBehindQueueTests {
+
+	JdbcRepository actorRepository = mock(JdbcRepository.class);
+
+	ActorWriteBehindQueue queue(int capacity, int batchSize) {
+		return new ActorWriteBehindQueue(actorRepository, capacity, batchSize, Duration.ofMillis(20),
+				Duration.ofMinutes(1), Duration.ofSeconds(5), new SimpleMeterRegistry());
+	}
+
+	@Test
+	void rejectsActorsWhenFullAndDrainsOnStop() throws Exception {
+		CountDownLatch flushing = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		when(actorRepository.saveAll(anyList())).thenAnswer(invocation -> {
+			flushing.countDown();
+			release.await();
+			return new int[((List<?>) invocation.getArgument(0)).size()];
+		}).thenAnswer(invocation -> {
+			int[] counts = new int[((List<?>) invocation.getArgument(0)).size()];
+			Arrays.fill(counts, 1);
+			return counts;
+		});
+		ActorWriteBehindQueue queue = queue(1, 10);
+		assertNull(queue.enqueue(new Actor("ZERO", "CAGE")));
+
+		queue.start();
+		String first = queue.enqueue(new Actor("ZERO", "CAGE"));
+		assertTrue(flushing.await(5, TimeUnit.SECONDS));
+		String second = queue.enqueue(new Actor("KARL", "BERRY"));
+		assertNotNull(second);
+		assertNull(queue.enqueue(new Actor("UMA", "WOOD")));
+		assertEquals(WriteStatus.QUEUED, queue.findStatus(second));
+
+		release.countDown();
+		queue.stop();
+
+		assertEquals(WriteStatus.WRITTEN, queue.findStatus(first));
+		assertEquals(WriteStatus.WRITTEN, queue.findStatus(second));
+		assertEquals(0, queue.size());
+		verify(actorRepository, times(2)).saveAll(anyList());
+	}
+
+	@Test
+	void retriesAFailedBatchOneActorAtATime() {
+		when(actorRepository.saveAll(anyList())).thenThrow(new IllegalStateException("down"));
+		when(actorRepository.save(argThat(actor -> actor.getFirst_name().equals("KARL"))))
+				.thenThrow(new IllegalStateException("duplicate"));
+		ActorWriteBehindQueue queue = queue(10, 10);
+		queue.start();
+		String written = queue.enqueue(new Actor("ZERO", "CAGE"));
+		String failed = queue.enqueue(new Actor("KARL", "BERRY"));
+		queue.stop();
+
+		assertEquals(WriteStatus.WRITTEN, queue.findStatus(written));
+		assertEquals(WriteStatus.FAILED, queue.findStatus(failed));
+		verify(actorRepository, times(2)).save(any());
+	}
+
+	@Test
+	void refusesInvalidActorsBeforeQueueingThem() {
+		ActorWriteBehindQueue queue = queue(10, 10);
+		queue.start();
+		assertThrows(IllegalArgumentException.class, () -> queue.enqueue(new Actor(null, "CAGE")));
+		assertThrows(IllegalArgumentException.class, () -> queue.enqueue(new Actor("ZERO", " ")));
+		assertEquals(0, queue.size());
+		queue.stop();
+	}
+
+}
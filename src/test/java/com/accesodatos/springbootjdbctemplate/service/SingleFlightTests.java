@@ -0,0 +1,109 @@
+package com.accesodatos.springbootjdbctemplate.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SingleFlightTests {
+
+	SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	SingleFlight<Integer, String> singleFlight = new SingleFlight<>("findById", meterRegistry);
+
+	double count(String result) {
+		return meterRegistry.get("actors.single-flight").tag("result", result).counter().count();
+	}
+
+	@Test
+	void sharesOneCallBetweenConcurrentIdenticalLookups() throws Exception {
+		int callers = 8;
+		AtomicInteger calls = new AtomicInteger();
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		String value = "PENELOPE";
+		ExecutorService executor = Executors.newFixedThreadPool(callers);
+		try {
+			List<Future<String>> results = new ArrayList<>();
+			results.add(executor.submit(() -> singleFlight.execute(1, () -> {
+				calls.incrementAndGet();
+				started.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return value;
+			})));
+			assertTrue(started.await(5, TimeUnit.SECONDS));
+			for (int i = 1; i < callers; i++) {
+				results.add(executor.submit(() -> singleFlight.execute(1, () -> {
+					calls.incrementAndGet();
+					return "other";
+				})));
+			}
+			long deadline = System.currentTimeMillis() + 5000;
+			while (count("coalesced") < callers - 1 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(5);
+			}
+			release.countDown();
+			for (Future<String> result : results) {
+				assertSame(value, result.get(5, TimeUnit.SECONDS));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		assertEquals(1, calls.get());
+		assertEquals(1, count("led"));
+		assertEquals(callers - 1, count("coalesced"));
+		assertEquals(0, singleFlight.inFlight());
+
+		assertEquals("NICK", singleFlight.execute(1, () -> "NICK"));
+		assertEquals(2, count("led"));
+	}
+
+	@Test
+	void propagatesFailureToEveryWaiterAndForgetsIt() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<String> leader = executor.submit(() -> singleFlight.execute(2, () -> {
+				started.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				throw new IllegalStateException("database down");
+			}));
+			assertTrue(started.await(5, TimeUnit.SECONDS));
+			Future<String> waiter = executor.submit(() -> singleFlight.execute(2, () -> "unused"));
+			long deadline = System.currentTimeMillis() + 5000;
+			while (count("coalesced") < 1 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(5);
+			}
+			release.countDown();
+			for (Future<String> result : List.of(leader, waiter)) {
+				Exception e = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+				assertTrue(e.getCause() instanceof IllegalStateException);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		assertEquals("ED", singleFlight.execute(2, () -> "ED"));
+	}
+}
@@ -0,0 +1,11 @@
+INSERT INTO actor (first_name, last_name) VALUES
+    ('PENELOPE', 'GUINESS'),
+    ('NICK', 'WAHLBERG'),
+    ('ED', 'CHASE'),
+    ('JENNIFER', 'DAVIS'),
+    ('JOHNNY', 'LOLLOBRIGIDA'),
+    ('BETTE', 'NICHOLSON'),
+    ('GRACE', 'MOSTEL'),
+    ('MATTHEW', 'JOHANSSON'),
+    ('JOE', 'SWANK'),
+    ('CHRISTIAN', 'GABLE');
@@ -0,0 +1,22 @@
+DROP TABLE IF EXISTS actor;
+DROP TABLE IF EXISTS actor_tombstone;
+
+CREATE TABLE IF NOT EXISTS actor (
+    actor_id SMALLINT UNSIGNED NOT NULL AUTO_INCREMENT,
+    first_name VARCHAR(45) NOT NULL,
+    last_name VARCHAR(45) NOT NULL,
+    last_update TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6),
+    PRIMARY KEY (actor_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_actor_last_name ON actor (last_name);
+CREATE INDEX IF NOT EXISTS idx_actor_first_name ON actor (first_name);
+CREATE INDEX IF NOT EXISTS idx_actor_last_update ON actor (last_update);
+
+CREATE TABLE IF NOT EXISTS actor_tombstone (
+    actor_id SMALLINT UNSIGNED NOT NULL,
+    deleted_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (actor_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_actor_tombstone_deleted_at ON actor_tombstone (deleted_at);